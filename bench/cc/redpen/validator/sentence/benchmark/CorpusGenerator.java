@@ -0,0 +1,96 @@
+package cc.redpen.validator.sentence.benchmark;
+
+import cc.redpen.model.Sentence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible Japanese technical-writing sentences with a tunable share of style errors.
+ */
+public final class CorpusGenerator {
+
+    /**
+     * Fragments that pass every rule.
+     */
+    private static final String[] CLEAN = {
+            "「ファイル」メニューの",
+            "「名前を付けて保存」をクリックし、",
+            "保存先のフォルダーを選択します。",
+            "インストールが完了するまで",
+            "数分かかる場合があります。",
+            "コンピューターを再起動してから",
+            "設定を変更してください。",
+            "この操作は元に戻せません。",
+            "管理者に問い合わせて",
+            "アクセス許可を確認します。",
+            "ネットワーク ドライブに接続すると、",
+            "共有フォルダーが表示されます。",
+            "「Windows 10」の場合は",
+            "数か月ごとに",
+            "更新プログラムを適用します。"
+    };
+
+    /**
+     * Fragments that break at least one rule; roughly one per rule.
+     */
+    private static final String[] ERRORS = {
+            "ﾃﾞｽｸﾄｯﾌﾟに",
+            "3 ケ月以内に",
+            "5 コの項目を",
+            "インタビュする前に",
+            "コンパイラーを",
+            "ＮＯＴＥ：",
+            "第3章で",
+            "閉じます 。",
+            "クリックして 、",
+            "45 ° 回転し",
+            "列 A ( タイトル )",
+            "更新しますか ?",
+            "[ 新規 ] をクリックし",
+            "3 / 14 の",
+            "警告 ！",
+            "保存 (S) を選び",
+            "10/13(ページ)",
+            "保存しますか?Excelを",
+            "１つの",
+            "10 メートルの",
+            "50 % の",
+            "当社の",
+            "ご確認ください。",
+            "ファイルが不正です。"
+    };
+
+    private CorpusGenerator() {
+    }
+
+    /**
+     * @param count        number of sentences.
+     * @param length       minimum sentence length in chars; fragments are appended until it is reached.
+     * @param errorDensity probability, from 0 to 1, that a fragment is an erroneous one.
+     * @param seed         random seed, so that runs are comparable.
+     */
+    public static List<Sentence> generate(final int count, final int length, final double errorDensity, final long seed) {
+
+        final Random random = new Random(seed);
+        final List<Sentence> corpus = new ArrayList<>(count);
+        for (int line = 0; line < count; line++) {
+            final StringBuilder content = new StringBuilder(length + 32);
+            while (content.length() < length) {
+                content.append(fragment(random, errorDensity));
+            }
+            corpus.add(new Sentence(content.toString(), line + 1));
+        }
+        return corpus;
+    }
+
+    /**
+     * @return a fragment, erroneous with probability {@code errorDensity}.
+     */
+    static String fragment(final Random random, final double errorDensity) {
+        final String[] fragments = random.nextDouble() < errorDensity ? ERRORS : CLEAN;
+        return fragments[random.nextInt(fragments.length)];
+    }
+
+}
@@ -0,0 +1,358 @@
+package cc.redpen.validator.sentence.benchmark;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.engine.AdaptiveRuleEngine;
+import cc.redpen.validator.sentence.domain.engine.AutomatonRuleEngine;
+import cc.redpen.validator.sentence.domain.engine.RuleEngine;
+import cc.redpen.validator.sentence.domain.model.ErrorFinder;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks that the optimized engines find exactly the errors of the reference regexes on random text, and measures how
+ * much faster they are.
+ * <p>
+ * The reference of a rule is its {@link cc.redpen.validator.sentence.domain.model.ErrorPattern} matched by
+ * {@link java.util.regex.Matcher}; a rule without a pattern (LongVowel, ChineseNumerals) is its own reference. Each
+ * case is a batch of a few sentences mixing corpus fragments with random runs over the characters of the regexes, so
+ * batch engines are checked across sentence boundaries too. A case depends only on the seed and its number. A
+ * mismatch is shrunk, dropping sentences then slices of characters while the same rule still differs, and the minimal
+ * case is written to {@code <engine>-<rule>.txt}.
+ * <p>
+ * Every rule's finder, then every engine, is then timed against the reference over the generated sentences. The
+ * process exits with 1 if any engine differs.
+ * <p>
+ * {@code java -cp target/benchmarks.jar cc.redpen.validator.sentence.benchmark.DifferentialBenchmark --cases 20000
+ * --seed 1 --output target/differential automaton automaton-batch}
+ */
+public final class DifferentialBenchmark {
+
+    /**
+     * Beyond {@link RuleFuzzBenchmark#COMMON}: a surrogate pair, a line break and a tab.
+     */
+    private static final String[] EXTRA = {"𠮷", "\n", "\t"};
+
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final List<Rule> rules;
+    private final List<Rule> references;
+    private final String[] alphabet;
+    private final long seed;
+
+    private DifferentialBenchmark(final List<Rule> rules, final List<Rule> references, final String[] alphabet, final long seed) {
+        this.rules = rules;
+        this.references = references;
+        this.alphabet = alphabet;
+        this.seed = seed;
+    }
+
+    static DifferentialBenchmark create(final List<Rule> rules, final long seed) {
+        final List<Rule> references = new ArrayList<>();
+        final Set<String> characters = new LinkedHashSet<>();
+        for (final Rule rule : rules) {
+            if (rule.getErrorPattern() == null) {
+                references.add(rule);
+                continue;
+            }
+            references.add(Rule.create(rule.getName(), rule.getGroup(), rule.getErrorPattern()));
+            for (final char c : rule.getErrorPattern().getRegex().toCharArray()) {
+                if (c != '\\') {
+                    characters.add(String.valueOf(c));
+                }
+            }
+        }
+        for (final char c : RuleFuzzBenchmark.COMMON.toCharArray()) {
+            characters.add(String.valueOf(c));
+        }
+        for (final String extra : EXTRA) {
+            characters.add(extra);
+        }
+        return new DifferentialBenchmark(rules, references, characters.toArray(new String[0]), seed);
+    }
+
+    /**
+     * The engines that can be checked, by name.
+     */
+    static Map<String, Evaluator> candidates(final List<Rule> rules) {
+        final Map<String, Evaluator> candidates = new LinkedHashMap<>();
+        candidates.put("finders", sentenceBySentence(AdaptiveRuleEngine.sequential(rules)));
+        candidates.put("automaton", sentenceBySentence(AutomatonRuleEngine.create(rules)));
+        final RuleEngine sequential = AdaptiveRuleEngine.sequential(rules);
+        candidates.put("finders-batch", sequential::evaluate);
+        final RuleEngine automaton = AutomatonRuleEngine.create(rules);
+        candidates.put("automaton-batch", automaton::evaluate);
+        return candidates;
+    }
+
+    private static Evaluator sentenceBySentence(final RuleEngine engine) {
+        return sentences -> {
+            final List<List<ValidationResult>> results = new ArrayList<>();
+            for (final Sentence sentence : sentences) {
+                results.add(engine.evaluate(sentence));
+            }
+            return results;
+        };
+    }
+
+    public static void main(final String[] args) throws IOException {
+
+        int cases = 20000;
+        long seed = 1;
+        Path output = Paths.get("target", "differential");
+        final Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--cases") && i + 1 < args.length) {
+                cases = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--output") && i + 1 < args.length) {
+                output = Paths.get(args[++i]);
+            } else {
+                names.add(args[i]);
+            }
+        }
+        Files.createDirectories(output);
+
+        final DifferentialBenchmark harness = create(MSStyleJP.rules, seed);
+        final Map<String, Evaluator> candidates = candidates(MSStyleJP.rules);
+        if (!names.isEmpty()) {
+            candidates.keySet().retainAll(names);
+        }
+        final List<Sentence> corpus = new ArrayList<>();
+        final int[] mismatches = new int[MSStyleJP.rules.size()];
+        final Set<String> reported = new HashSet<>();
+        int total = 0;
+
+        for (int number = 0; number < cases; number++) {
+            final List<String> contents = harness.generate(number);
+            for (final String content : contents) {
+                corpus.add(new Sentence(content, corpus.size() + 1));
+            }
+            for (final Map.Entry<String, Evaluator> candidate : candidates.entrySet()) {
+                final int rule = harness.firstMismatch(candidate.getValue(), contents);
+                if (rule < 0) {
+                    continue;
+                }
+                total++;
+                mismatches[rule]++;
+                final String name = MSStyleJP.rules.get(rule).getName();
+                if (!reported.add(candidate.getKey() + "-" + name)) {
+                    // one minimal case per engine and rule is enough to debug it
+                    continue;
+                }
+                final List<String> minimal = harness.shrink(candidate.getValue(), contents, rule);
+                final String report = harness.report(candidate.getValue(), minimal, rule);
+                Files.write(output.resolve(candidate.getKey() + "-" + name + ".txt"), report.getBytes(StandardCharsets.UTF_8));
+                System.out.println("Mismatch in " + candidate.getKey() + ", " + name + ", case " + number + ":");
+                System.out.println(report);
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%d cases, %d sentences, %d mismatches%n", cases, corpus.size(), total));
+        System.out.println(String.format(Locale.ROOT, "%-32s %10s %14s %14s %9s", "Rule", "Mismatches", "regex ns/sent", "finder ns/sent", "Speed-up"));
+        for (int rule = 0; rule < MSStyleJP.rules.size(); rule++) {
+            final double reference = time(harness.references.get(rule).getFinder(), corpus);
+            final double finder = time(MSStyleJP.rules.get(rule).getFinder(), corpus);
+            System.out.println(String.format(Locale.ROOT, "%-32s %10d %14.1f %14.1f %8.2fx",
+                    MSStyleJP.rules.get(rule).getName(), mismatches[rule], reference, finder, reference / finder));
+        }
+
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-32s %14s %9s", "Engine", "ns/sentence", "Speed-up"));
+        final double reference = time(harness::evaluateReference, corpus);
+        System.out.println(String.format(Locale.ROOT, "%-32s %14.1f", "regex (reference)", reference));
+        for (final Map.Entry<String, Evaluator> candidate : candidates.entrySet()) {
+            final double nanos = time(candidate.getValue(), corpus);
+            System.out.println(String.format(Locale.ROOT, "%-32s %14.1f %8.2fx", candidate.getKey(), nanos, reference / nanos));
+        }
+
+        if (total > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the sentences of case {@code number}: one to four, each of up to about 60 chars.
+     */
+    List<String> generate(final int number) {
+        final Random random = new Random(seed * 1_000_003L + number);
+        final List<String> contents = new ArrayList<>();
+        final int count = 1 + random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            final int length = random.nextInt(60);
+            final StringBuilder content = new StringBuilder();
+            while (content.length() < length) {
+                if (random.nextBoolean()) {
+                    content.append(CorpusGenerator.fragment(random, 0.5));
+                    continue;
+                }
+                // Runs of one character make the long katakana, numeral and space runs the rules look for.
+                final String piece = alphabet[random.nextInt(alphabet.length)];
+                final int repeat = random.nextInt(4) == 0 ? 1 + random.nextInt(6) : 1;
+                for (int r = 0; r < repeat; r++) {
+                    content.append(piece);
+                }
+            }
+            contents.add(content.toString());
+        }
+        return contents;
+    }
+
+    /**
+     * @return the index of the first rule whose results from {@code candidate} differ from the reference on one of
+     * {@code contents}, or -1.
+     */
+    int firstMismatch(final Evaluator candidate, final List<String> contents) {
+        final List<Sentence> sentences = sentences(contents);
+        final List<List<ValidationResult>> expected = evaluateReference(sentences);
+        final List<List<ValidationResult>> actual = candidate.evaluate(sentences);
+        for (int rule = 0; rule < rules.size(); rule++) {
+            if (differs(expected, actual, rule)) {
+                return rule;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes sentences, then ever smaller slices of each sentence, as long as {@code rule} still differs.
+     */
+    List<String> shrink(final Evaluator candidate, final List<String> contents, final int rule) {
+
+        List<String> current = new ArrayList<>(contents);
+        for (int i = current.size() - 1; i >= 0 && current.size() > 1; i--) {
+            final List<String> candidateCase = new ArrayList<>(current);
+            candidateCase.remove(i);
+            if (stillDiffers(candidate, candidateCase, rule)) {
+                current = candidateCase;
+            }
+        }
+
+        for (int i = 0; i < current.size(); i++) {
+            for (int slice = Math.max(1, current.get(i).length() / 2); slice >= 1; slice /= 2) {
+                int start = 0;
+                while (start < current.get(i).length()) {
+                    final String content = current.get(i);
+                    final String removed = content.substring(0, start) + content.substring(Math.min(content.length(), start + slice));
+                    final List<String> candidateCase = new ArrayList<>(current);
+                    candidateCase.set(i, removed);
+                    if (stillDiffers(candidate, candidateCase, rule)) {
+                        current = candidateCase;
+                    } else {
+                        start += slice;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private boolean stillDiffers(final Evaluator candidate, final List<String> contents, final int rule) {
+        final List<Sentence> sentences = sentences(contents);
+        return differs(evaluateReference(sentences), candidate.evaluate(sentences), rule);
+    }
+
+    String report(final Evaluator candidate, final List<String> contents, final int rule) {
+        final List<Sentence> sentences = sentences(contents);
+        final List<List<ValidationResult>> expected = evaluateReference(sentences);
+        final List<List<ValidationResult>> actual = candidate.evaluate(sentences);
+        final StringBuilder report = new StringBuilder();
+        for (int i = 0; i < sentences.size(); i++) {
+            report.append("sentence: ").append(contents.get(i).replace("\n", "\\n")).append('\n');
+            report.append("  expected: ").append(describe(expected.get(i).get(rule))).append('\n');
+            report.append("  actual:   ").append(describe(actual.get(i).get(rule))).append('\n');
+        }
+        return report.toString();
+    }
+
+    private List<List<ValidationResult>> evaluateReference(final List<Sentence> sentences) {
+        final List<List<ValidationResult>> results = new ArrayList<>();
+        for (final Sentence sentence : sentences) {
+            final List<ValidationResult> sentenceResults = new ArrayList<>();
+            for (final Rule reference : references) {
+                sentenceResults.add(reference.apply(sentence));
+            }
+            results.add(sentenceResults);
+        }
+        return results;
+    }
+
+    private static boolean differs(final List<List<ValidationResult>> expected, final List<List<ValidationResult>> actual, final int rule) {
+        for (int i = 0; i < expected.size(); i++) {
+            if (!describe(expected.get(i).get(rule)).equals(describe(actual.get(i).get(rule)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(final ValidationResult result) {
+        if (!result.isFailed()) {
+            return result.isSkipped() ? "skipped" : "none";
+        }
+        final StringBuilder description = new StringBuilder(result.getErrorMessage());
+        for (int i = 0; i < result.getErrorCount(); i++) {
+            description.append(' ').append(result.getStart(i)).append('-').append(result.getEnd(i));
+        }
+        return description.toString();
+    }
+
+    private static List<Sentence> sentences(final List<String> contents) {
+        final List<Sentence> sentences = new ArrayList<>();
+        for (int i = 0; i < contents.size(); i++) {
+            sentences.add(new Sentence(contents.get(i), i + 1));
+        }
+        return sentences;
+    }
+
+    /**
+     * @return the best time of a few rounds over {@code corpus}, in nanoseconds per sentence.
+     */
+    private static double time(final Evaluator evaluator, final List<Sentence> corpus) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            final long start = System.nanoTime();
+            evaluator.evaluate(corpus);
+            if (round >= WARM_UP_ROUNDS) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        return (double) best / corpus.size();
+    }
+
+    private static double time(final ErrorFinder finder, final List<Sentence> corpus) {
+        final int[] errors = new int[1];
+        return time(sentences -> {
+            for (final Sentence sentence : sentences) {
+                finder.findAll(sentence.getContent(), (start, end) -> errors[0]++);
+            }
+            return null;
+        }, corpus);
+    }
+
+    /**
+     * Evaluates every rule on every sentence of a batch.
+     */
+    interface Evaluator {
+
+        List<List<ValidationResult>> evaluate(List<Sentence> sentences);
+    }
+
+}
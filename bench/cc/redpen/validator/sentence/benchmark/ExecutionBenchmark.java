@@ -0,0 +1,71 @@
+package cc.redpen.validator.sentence.benchmark;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.engine.AdaptiveRuleEngine;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential against parallel rule evaluation by sentence length, to locate the crossover for parallel_threshold.
+ * <p>
+ * {@code java -jar target/benchmarks.jar ExecutionBenchmark -p parallelism=8}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionBenchmark {
+
+    private static final String TEXT = "[ファイル] メニューの [名前を付けて保存] をクリックし、保存先のフォルダーを選択します。";
+
+    @Param({"40", "80", "160", "320", "640", "1280", "2560", "5120"})
+    private int length;
+
+    @Param({"4"})
+    private int parallelism;
+
+    private Sentence sentence;
+
+    private AdaptiveRuleEngine sequential;
+    private AdaptiveRuleEngine parallel;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder content = new StringBuilder(length);
+        while (content.length() < length) {
+            content.append(TEXT);
+        }
+        content.setLength(length);
+        sentence = new Sentence(content.toString(), 0);
+
+        sequential = AdaptiveRuleEngine.sequential(MSStyleJP.rules);
+        parallel = AdaptiveRuleEngine.create(MSStyleJP.rules, 0, parallelism);
+    }
+
+    @Benchmark
+    public List<ValidationResult> sequential() {
+        return sequential.evaluate(sentence);
+    }
+
+    @Benchmark
+    public List<ValidationResult> parallel() {
+        return parallel.evaluate(sentence);
+    }
+
+}
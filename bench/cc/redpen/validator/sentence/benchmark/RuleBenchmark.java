@@ -0,0 +1,113 @@
+package cc.redpen.validator.sentence.benchmark;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of each rule on its own, in sentences per second.
+ * <p>
+ * {@code java -jar target/benchmarks.jar RuleBenchmark -prof gc -p rule=SpacesFullHalf}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleBenchmark {
+
+    static final int CORPUS_SIZE = 1000;
+
+    @Param({
+            "Katakana",
+            "KatakanaKa",
+            "KatakanaKo",
+            "LongVowel",
+            "LongVowelExceptionUse",
+            "LongVowelExceptionNotUse",
+            "EnglishLetters",
+            "SpacesFullHalf",
+            "SpacesFullStop",
+            "SpacesComma",
+            "SpacesAngle",
+            "SpacesParentheses",
+            "SpacesQuotationMarks",
+            "SpacesBrackets",
+            "SpacesSlash",
+            "SpacesFullWidth",
+            "SpacesAccessKey",
+            "SpacesParenthesis",
+            "SpacesMarkEndHalfStart",
+            "ArabicNumeralsFull",
+            "ChineseNumerals",
+            "MeasurementUnits",
+            "MeasurementUnitsWithoutASpace",
+            "ToneHumbleExpression",
+            "TonePoliteExpression",
+            "FrequentErrorsFusei"
+    })
+    private String rule;
+
+    @Param({"60"})
+    private int length;
+
+    @Param({"0.1"})
+    private double errorDensity;
+
+    private Rule target;
+
+    private List<Sentence> corpus;
+
+    private final ValidationResult buffer = ValidationResult.create();
+
+    @Setup
+    public void setUp() {
+        target = MSStyleJP.rules
+                .stream()
+                .filter(r -> r.getName().equals(rule))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown rule: " + rule));
+        corpus = CorpusGenerator.generate(CORPUS_SIZE, length, errorDensity, 42L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void apply(final Blackhole blackhole) {
+        for (final Sentence sentence : corpus) {
+            blackhole.consume(target.apply(sentence));
+        }
+    }
+
+    /**
+     * The validator's path: positions streamed into a reused buffer.
+     */
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public int findAll() {
+        int errors = 0;
+        for (final Sentence sentence : corpus) {
+            target.findAll(sentence, buffer.clear());
+            errors += buffer.getErrorCount();
+        }
+        return errors;
+    }
+
+}
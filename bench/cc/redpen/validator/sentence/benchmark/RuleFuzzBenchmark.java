@@ -0,0 +1,246 @@
+package cc.redpen.validator.sentence.benchmark;
+
+import cc.redpen.validator.sentence.domain.model.ErrorFinder;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Searches for the inputs that make each rule work hardest, and records them.
+ * <p>
+ * The cost of an input is the number of characters the rule's finder reads, per input character: it does not depend
+ * on the machine, and a backtracking regex shows up as a cost that grows with the length. Inputs start random, over
+ * the characters of the rule's regex and of the corpus, and are mutated (replaced, inserted, deleted and repeated
+ * slices) while the cost does not decrease. The worst input of each rule is timed once at 16 times its length and
+ * written to {@code <rule>.txt}.
+ * <p>
+ * {@code java -cp target/benchmarks.jar cc.redpen.validator.sentence.benchmark.RuleFuzzBenchmark --length 256
+ * --iterations 20000 --output target/fuzz KatakanaKo SpacesComma}
+ */
+public final class RuleFuzzBenchmark {
+
+    /**
+     * Characters every search may use besides those of the regex: digits, spaces, ASCII and Japanese punctuation, and
+     * characters of each script.
+     */
+    static final String COMMON = "0123456789 　aZ()[]<>!?/:%.-、。，．（）「」！？：・ーケヶカヵコ月年°ｦﾃﾞ１Ａあア漢";
+
+    private final Rule rule;
+    private final char[] alphabet;
+    private final Random random;
+
+    private RuleFuzzBenchmark(final Rule rule, final char[] alphabet, final long seed) {
+        this.rule = rule;
+        this.alphabet = alphabet;
+        this.random = new Random(seed);
+    }
+
+    static RuleFuzzBenchmark create(final Rule rule, final long seed) {
+        final Set<Character> characters = new LinkedHashSet<>();
+        if (rule.getErrorPattern() != null) {
+            for (final char c : rule.getErrorPattern().getRegex().toCharArray()) {
+                if (c != '\\') {
+                    characters.add(c);
+                }
+            }
+        }
+        for (final char c : COMMON.toCharArray()) {
+            characters.add(c);
+        }
+        final char[] alphabet = new char[characters.size()];
+        int i = 0;
+        for (final char c : characters) {
+            alphabet[i++] = c;
+        }
+        return new RuleFuzzBenchmark(rule, alphabet, seed);
+    }
+
+    public static void main(final String[] args) throws IOException {
+
+        int length = 256;
+        int iterations = 20000;
+        long seed = 1;
+        Path output = Paths.get("target", "fuzz");
+        final Set<String> names = new HashSet<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--length") && i + 1 < args.length) {
+                length = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--iterations") && i + 1 < args.length) {
+                iterations = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--output") && i + 1 < args.length) {
+                output = Paths.get(args[++i]);
+            } else {
+                names.add(args[i]);
+            }
+        }
+        Files.createDirectories(output);
+
+        System.out.println(String.format(Locale.ROOT, "%-32s %12s %14s  %s", "Rule", "reads/char", "ns/char (x16)", "Worst input"));
+        for (final Rule rule : MSStyleJP.rules) {
+            if (!names.isEmpty() && !names.contains(rule.getName())) {
+                continue;
+            }
+            final RuleFuzzBenchmark fuzzer = create(rule, seed);
+            final String worst = fuzzer.search(length, iterations);
+            final double reads = (double) fuzzer.cost(worst) / worst.length();
+            final double nanos = fuzzer.time(repeat(worst, 16)) / (16.0 * worst.length());
+            Files.write(output.resolve(rule.getName() + ".txt"), worst.getBytes(StandardCharsets.UTF_8));
+            System.out.println(String.format(Locale.ROOT, "%-32s %12.1f %14.1f  %s",
+                    rule.getName(), reads, nanos, abbreviate(worst)));
+        }
+    }
+
+    /**
+     * @return the costliest input of about {@code length} characters found in {@code iterations} mutations.
+     */
+    String search(final int length, final int iterations) {
+        char[] best = randomText(length);
+        long bestCost = cost(new String(best));
+        for (int i = 0; i < iterations; i++) {
+            final char[] candidate = mutate(best, 2 * length);
+            final long candidateCost = cost(new String(candidate));
+            // Equal costs are accepted too, so the search can drift across plateaus.
+            if (candidateCost * best.length >= bestCost * candidate.length) {
+                best = candidate;
+                bestCost = candidateCost;
+            }
+        }
+        return new String(best);
+    }
+
+    private char[] randomText(final int length) {
+        final char[] text = new char[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return text;
+    }
+
+    private char[] mutate(final char[] text, final int maxLength) {
+        final int at = random.nextInt(text.length);
+        switch (random.nextInt(4)) {
+            case 0: {
+                final char[] replaced = text.clone();
+                replaced[at] = alphabet[random.nextInt(alphabet.length)];
+                return replaced;
+            }
+            case 1: {
+                if (text.length >= maxLength) {
+                    return text;
+                }
+                final char[] inserted = new char[text.length + 1];
+                System.arraycopy(text, 0, inserted, 0, at);
+                inserted[at] = alphabet[random.nextInt(alphabet.length)];
+                System.arraycopy(text, at, inserted, at + 1, text.length - at);
+                return inserted;
+            }
+            case 2: {
+                if (text.length <= 1) {
+                    return text;
+                }
+                final char[] deleted = new char[text.length - 1];
+                System.arraycopy(text, 0, deleted, 0, at);
+                System.arraycopy(text, at + 1, deleted, at, text.length - at - 1);
+                return deleted;
+            }
+            default: {
+                // Repeated slices build the long runs that make backtracking costly.
+                final int sliceLength = Math.min(1 + random.nextInt(8), text.length - at);
+                final int copies = Math.min(1 + random.nextInt(16), (maxLength - text.length) / sliceLength);
+                if (copies <= 0) {
+                    return text;
+                }
+                final char[] repeated = new char[text.length + copies * sliceLength];
+                System.arraycopy(text, 0, repeated, 0, at);
+                for (int copy = 0; copy < copies; copy++) {
+                    System.arraycopy(text, at, repeated, at + copy * sliceLength, sliceLength);
+                }
+                System.arraycopy(text, at, repeated, at + copies * sliceLength, text.length - at);
+                return repeated;
+            }
+        }
+    }
+
+    /**
+     * @return the characters the finder reads in {@code text}.
+     */
+    long cost(final String text) {
+        final CountingText counting = new CountingText(text);
+        rule.getFinder().findAll(counting, (start, end) -> {
+        });
+        return counting.reads;
+    }
+
+    private long time(final String text) {
+        final ErrorFinder finder = rule.getFinder();
+        // a few runs, so the measured one is compiled
+        for (int i = 0; i < 5; i++) {
+            finder.findAll(text, (start, end) -> {
+            });
+        }
+        final long begin = System.nanoTime();
+        finder.findAll(text, (start, end) -> {
+        });
+        return System.nanoTime() - begin;
+    }
+
+    private static String repeat(final String text, final int times) {
+        final char[] repeated = new char[text.length() * times];
+        for (int i = 0; i < times; i++) {
+            text.getChars(0, text.length(), repeated, i * text.length());
+        }
+        return new String(repeated);
+    }
+
+    private static String abbreviate(final String text) {
+        final String oneLine = text.replace("\n", "\\n");
+        return oneLine.length() <= 48 ? oneLine : oneLine.substring(0, 48) + "…";
+    }
+
+    /**
+     * Counts the characters read through it.
+     */
+    private static final class CountingText implements CharSequence {
+
+        private final String text;
+        private long reads;
+
+        private CountingText(final String text) {
+            this.text = text;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            reads++;
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package cc.redpen.validator.sentence.benchmark;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.model.Document;
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.ValidationError;
+import cc.redpen.validator.sentence.runner.DocumentRunner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link DocumentRunner} by worker count, in sentences per second, to check that it scales with the
+ * cores: ideally the score doubles with {@code threads} up to the physical cores.
+ * <p>
+ * The documents have a random number of sections of random sizes, as a real tree of files does, so the workers only
+ * keep busy by stealing.
+ * <p>
+ * {@code java -jar target/benchmarks.jar RunnerBenchmark -p threads=1,2,4,8,16,32,64}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RunnerBenchmark {
+
+    /**
+     * Sentences of all documents together.
+     */
+    static final int SENTENCES = 20_000;
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"automaton"})
+    private String engine;
+
+    @Param({"200"})
+    private int documentCount;
+
+    private List<Document> documents;
+
+    private DocumentRunner runner;
+
+    @Setup
+    public void setUp() throws RedPenException {
+        final List<Sentence> corpus = CorpusGenerator.generate(SENTENCES, 60, 0.1, 42L);
+        final Random random = new Random(42L);
+        documents = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < documentCount; i++) {
+            final int end = i == documentCount - 1 ? SENTENCES : next + random.nextInt(2 * SENTENCES / documentCount) + 1;
+            final Document.DocumentBuilder builder = Document.builder().setFileName("doc" + i + ".md");
+            while (next < Math.min(end, SENTENCES)) {
+                builder.addSection(1).addParagraph();
+                for (int sentences = random.nextInt(40) + 1; sentences > 0 && next < Math.min(end, SENTENCES); sentences--) {
+                    builder.addSentence(corpus.get(next++));
+                }
+            }
+            documents.add(builder.build());
+        }
+
+        runner = DocumentRunner.create(new ValidatorConfiguration("MSStyleJP").addProperty("engine", engine), threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        runner.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SENTENCES)
+    public List<List<ValidationError>> validate() {
+        return runner.validate(documents);
+    }
+
+}
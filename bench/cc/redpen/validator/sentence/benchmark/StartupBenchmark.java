@@ -0,0 +1,109 @@
+package cc.redpen.validator.sentence.benchmark;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.ValidationError;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start latency, in milliseconds: each measurement is the first and only one of a fresh JVM, as in a short CI job.
+ * <p>
+ * {@code firstResult} is the time from creating the validator, rule classes included, to the errors of a first
+ * document; {@code firstDocument} is the first document alone, after initialization. With {@code warmUp} the first
+ * moves into initialization and the second shrinks.
+ * <p>
+ * {@code java -jar target/benchmarks.jar StartupBenchmark -p engine=automaton -p warmUp=0,200}
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Thread)
+public class StartupBenchmark {
+
+    /**
+     * Sentences of the first document.
+     */
+    static final int DOCUMENT_SIZE = 200;
+
+    @Param({"regex", "automaton"})
+    private String engine;
+
+    @Param({"0", "200"})
+    private int warmUp;
+
+    @Param({"60"})
+    private int length;
+
+    private List<Sentence> document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The generator does not touch the rules, so they are still to be loaded.
+        document = CorpusGenerator.generate(DOCUMENT_SIZE, length, 0.1, 42L);
+    }
+
+    MSStyleJPValidator createValidator() throws RedPenException {
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(
+                new ValidatorConfiguration("MSStyleJP")
+                        .addProperty("engine", engine)
+                        .addProperty("warm_up", String.valueOf(warmUp)),
+                Configuration.builder().build()
+        );
+        return validator;
+    }
+
+    List<ValidationError> validate(final MSStyleJPValidator validator) {
+        final List<ValidationError> errors = new ArrayList<>();
+        validator.setErrorList(errors);
+        for (final Sentence sentence : document) {
+            validator.validate(sentence);
+        }
+        return errors;
+    }
+
+    @Benchmark
+    public List<ValidationError> firstResult() throws RedPenException {
+        return validate(createValidator());
+    }
+
+    @Benchmark
+    public List<ValidationError> firstDocument(final Initialized initialized) {
+        return validate(initialized.validator);
+    }
+
+    /**
+     * A validator initialized before the measurement.
+     */
+    @State(Scope.Thread)
+    public static class Initialized {
+
+        private MSStyleJPValidator validator;
+
+        @Setup(Level.Trial)
+        public void setUp(final StartupBenchmark benchmark) throws RedPenException {
+            validator = benchmark.createValidator();
+        }
+    }
+
+}
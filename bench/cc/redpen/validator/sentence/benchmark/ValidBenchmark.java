@@ -0,0 +1,90 @@
+package cc.redpen.validator.sentence.benchmark;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.engine.AutomatonRuleEngine;
+import cc.redpen.validator.sentence.domain.model.ErrorPattern;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+
+/**
+ * Per-sentence cost of evaluating every rule: the former "matches then find" path against the single-pass path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidBenchmark {
+
+    private static final List<ErrorPattern> PATTERNS = MSStyleJP.rules
+            .stream()
+            .map(Rule::getErrorPattern)
+            .collect(Collectors.toList());
+
+    @Param({
+            "[ファイル] メニューの [名前を付けて保存] をクリックし、保存先のフォルダーを選択します。",
+            "当社のサーバーで不正なアクセスを検出した場合は 3 ケ月以内にご確認ください。"
+    })
+    private String content;
+
+    private Sentence sentence;
+
+    private AutomatonRuleEngine engine;
+
+    @Setup
+    public void setUp() {
+        sentence = new Sentence(content, 0);
+        engine = AutomatonRuleEngine.create(MSStyleJP.rules);
+    }
+
+    /**
+     * The former evaluation path: a {@code String.matches} pre-check that compiles a new pattern, then a second scan.
+     */
+    @Benchmark
+    public void matchesThenFind(final Blackhole blackhole) {
+        for (final ErrorPattern pattern : PATTERNS) {
+            final ValidationResult result = ValidationResult.create();
+            final String content = sentence.getContent();
+            if (content.matches(String.format(".*%s.*", pattern.getErrorPattern().pattern()))) {
+                result.setErrorMessage(pattern.getErrorMessage());
+                final Matcher matcher = pattern.getErrorPattern().matcher(content);
+                while (matcher.find()) {
+                    result.addErrorPosition(matcher.start(), matcher.end());
+                }
+            }
+            blackhole.consume(result);
+        }
+    }
+
+    @Benchmark
+    public void singlePass(final Blackhole blackhole) {
+        for (final Rule rule : MSStyleJP.rules) {
+            blackhole.consume(rule.apply(sentence));
+        }
+    }
+
+    @Benchmark
+    public void automaton(final Blackhole blackhole) {
+        blackhole.consume(engine.evaluate(sentence));
+    }
+
+}
@@ -0,0 +1,87 @@
+package cc.redpen.validator.sentence.benchmark;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.ValidationError;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link MSStyleJPValidator#validate(Sentence)} with every rule, and of the batch API, in sentences per
+ * second.
+ * <p>
+ * {@code java -jar target/benchmarks.jar ValidatorBenchmark -prof gc -p length=40,80,160 -p errorDensity=0,0.3}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidatorBenchmark {
+
+    @Param({"regex", "automaton"})
+    private String engine;
+
+    @Param({"60"})
+    private int length;
+
+    @Param({"0", "0.1"})
+    private double errorDensity;
+
+    private MSStyleJPValidator validator;
+
+    private List<ValidationError> errors;
+
+    private List<Sentence> corpus;
+
+    @Setup
+    public void setUp() throws RedPenException {
+        validator = new MSStyleJPValidator();
+        validator.preInit(
+                new ValidatorConfiguration("MSStyleJP").addProperty("engine", engine),
+                Configuration.builder().build()
+        );
+        errors = new ArrayList<>();
+        validator.setErrorList(errors);
+        corpus = CorpusGenerator.generate(RuleBenchmark.CORPUS_SIZE, length, errorDensity, 42L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RuleBenchmark.CORPUS_SIZE)
+    public List<ValidationError> validate() {
+        errors.clear();
+        for (final Sentence sentence : corpus) {
+            validator.validate(sentence);
+        }
+        return errors;
+    }
+
+    /**
+     * The same corpus validated as one batch, as {@code batch=true} does per document.
+     */
+    @Benchmark
+    @OperationsPerInvocation(RuleBenchmark.CORPUS_SIZE)
+    public List<List<ValidationResult>> validateBatch() {
+        return validator.validateMSStyle(corpus);
+    }
+
+}
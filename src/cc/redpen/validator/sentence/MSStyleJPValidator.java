@@ -1,30 +1,480 @@
 package cc.redpen.validator.sentence;
 
+import cc.redpen.RedPenException;
+import cc.redpen.model.Document;
+import cc.redpen.model.ListBlock;
+import cc.redpen.model.ListElement;
+import cc.redpen.model.Paragraph;
+import cc.redpen.model.Section;
 import cc.redpen.model.Sentence;
+import cc.redpen.validator.ValidationError;
 import cc.redpen.validator.Validator;
+import cc.redpen.validator.sentence.domain.cache.ResultCache;
+import cc.redpen.validator.sentence.domain.dictionary.RuleDictionary;
+import cc.redpen.validator.sentence.domain.dictionary.RuleSnapshot;
+import cc.redpen.validator.sentence.domain.dictionary.TermDictionary;
+import cc.redpen.validator.sentence.domain.engine.AdaptiveRuleEngine;
+import cc.redpen.validator.sentence.domain.engine.AutomatonRuleEngine;
+import cc.redpen.validator.sentence.domain.engine.CachingRuleEngine;
+import cc.redpen.validator.sentence.domain.engine.ErrorListener;
+import cc.redpen.validator.sentence.domain.engine.MaskingRuleEngine;
+import cc.redpen.validator.sentence.domain.engine.RuleEngine;
+import cc.redpen.validator.sentence.domain.engine.TextMask;
+import cc.redpen.validator.sentence.domain.engine.WarmUp;
+import cc.redpen.validator.sentence.domain.metrics.MetricsRegistry;
+import cc.redpen.validator.sentence.domain.model.ErrorCap;
+import cc.redpen.validator.sentence.domain.model.MatchBudget;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.RuleSelection;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
 import cc.redpen.validator.sentence.domain.style.MSStyleJP;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class MSStyleJPValidator extends Validator implements MSStyleJP {
 
+    /**
+     * Rule engine: "regex" evaluates each rule's pattern on its own (reference), "automaton" evaluates all of them
+     * in one scan.
+     */
+    static final String ENGINE = "engine";
+
+    /**
+     * Sentence length (chars) from which the regex engine evaluates the rules in parallel.
+     */
+    static final String PARALLEL_THRESHOLD = "parallel_threshold";
+
+    /**
+     * Worker count of the pool the regex engine fans out to; 1 keeps every sentence sequential.
+     */
+    static final String PARALLELISM = "parallelism";
+
+    /**
+     * Validate each document's sentences as one batch from {@link #validate(Document)} instead of one by one.
+     */
+    static final String BATCH = "batch";
+
+    /**
+     * Rules to evaluate, by rule name or group name (Characters, Spaces, Numbers, Tone, FrequentErrors,
+     * Terminology); empty for all.
+     */
+    static final String ENABLED_RULES = "enabled_rules";
+
+    /**
+     * Rules to leave out, by rule name or group name; applied after {@link #ENABLED_RULES}.
+     */
+    static final String DISABLED_RULES = "disabled_rules";
+
+    /**
+     * Record per-rule invocations, matches and latency in {@link MetricsRegistry#shared()}, exposed over JMX.
+     */
+    static final String METRICS = "metrics";
+
+    /**
+     * Path of a rule dictionary applied over the bundled one, to change or add rules; empty for none.
+     */
+    static final String DICTIONARY = "dictionary";
+
+    /**
+     * Path of a term list compiled by {@link TermDictionary}, checked by the {@link #TERMINOLOGY} rule; empty for none.
+     */
+    static final String TERMS = "terms";
+
+    /**
+     * Directory where compiled rule snapshots are cached between runs; empty, the default, to compile them on every
+     * start. The rules are read back from it as they are, so it must be writable by the validator's user only.
+     */
+    static final String SNAPSHOT_DIR = "snapshot_dir";
+
+    /**
+     * Entries of the {@link ResultCache#shared() shared cache} of results by sentence content; 0 disables caching.
+     */
+    static final String CACHE_SIZE = "cache_size";
+
+    /**
+     * Characters a regex rule may read per sentence before it gives up and reports the sentence as skipped; 0 for no
+     * limit.
+     */
+    static final String MATCH_STEPS = "match_steps";
+
+    /**
+     * Milliseconds a regex rule may spend per sentence before it gives up and reports the sentence as skipped; 0 for
+     * no limit.
+     */
+    static final String MATCH_TIMEOUT = "match_timeout";
+
+    /**
+     * Name of the rule reporting the forbidden terms of {@link #TERMS}.
+     */
+    static final String TERMINOLOGY = "Terminology";
+
+    /**
+     * Milliseconds spent at initialization evaluating the selected rules on a {@link WarmUp built-in sample}, so the
+     * first document runs compiled code; 0 for none.
+     */
+    static final String WARM_UP = "warm_up";
+
+    /**
+     * Spans the rules skip, by kind (urls, paths, code, identifiers); empty to evaluate the whole sentence.
+     */
+    static final String MASK = "mask";
+
+    /**
+     * Errors reported per rule and sentence; past it, the rule stops searching the sentence and one summary error is
+     * reported instead. 0 for no limit.
+     */
+    static final String MAX_ERRORS_PER_RULE = "max_errors_per_rule";
+
+    /**
+     * Errors reported per sentence, all rules together, before one summary error; 0 for no limit.
+     */
+    static final String MAX_ERRORS_PER_SENTENCE = "max_errors_per_sentence";
+
+    /**
+     * Errors reported per document, summaries included, before one summary error; 0 for no limit.
+     */
+    static final String MAX_ERRORS_PER_DOCUMENT = "max_errors_per_document";
+
+    /**
+     * Name under which the automaton engine's shared scan is recorded.
+     */
+    static final String AUTOMATON_SCAN = "AutomatonScan";
+
+    /**
+     * JMX name of the shared result cache.
+     */
+    static final String RESULT_CACHE = "ResultCache";
+
+    private RuleEngine engine = AdaptiveRuleEngine.sequential(rules);
+
+    private boolean batch = false;
+
+    private MetricsRegistry metrics = null;
+
+    // the caps, Integer.MAX_VALUE for none
+    private int maxRuleErrors = Integer.MAX_VALUE;
+    private int maxSentenceErrors = Integer.MAX_VALUE;
+    private int maxDocumentErrors = Integer.MAX_VALUE;
+
+    // errors of the current error list, which RedPen gives each document
+    private int documentErrors = 0;
+
+    // the sentence being reported: its current rule, the errors of that rule and of the whole sentence
+    private Rule reportedRule = null;
+    private int ruleErrors = 0;
+    private int sentenceErrors = 0;
+
+    public MSStyleJPValidator() {
+        super(
+                ENGINE, "regex",
+                PARALLEL_THRESHOLD, 1000,
+                PARALLELISM, Math.min(4, Runtime.getRuntime().availableProcessors()),
+                BATCH, false,
+                ENABLED_RULES, new HashSet<String>(),
+                DISABLED_RULES, new HashSet<String>(),
+                METRICS, false,
+                DICTIONARY, "",
+                TERMS, "",
+                SNAPSHOT_DIR, "",
+                CACHE_SIZE, 0,
+                MATCH_STEPS, 0,
+                MATCH_TIMEOUT, 0,
+                WARM_UP, 0,
+                MASK, new HashSet<String>(),
+                MAX_ERRORS_PER_RULE, 0,
+                MAX_ERRORS_PER_SENTENCE, 0,
+                MAX_ERRORS_PER_DOCUMENT, 0
+        );
+    }
+
+    @Override
+    protected void init() throws RedPenException {
+
+        // Only the selected rules reach the engine, so the others are neither compiled nor evaluated.
+        final List<Rule> selected;
+        try {
+            final List<Rule> defined = new ArrayList<>(RuleDictionary.apply(rules, RuleSnapshot.load(getString(DICTIONARY), getString(SNAPSHOT_DIR))));
+            if (!getString(TERMS).isEmpty()) {
+                defined.add(Rule.create(TERMINOLOGY, Rule.Group.TERMINOLOGY, null, TermDictionary.open(getString(TERMS))));
+            }
+            selected = RuleSelection.select(defined, getSet(ENABLED_RULES), getSet(DISABLED_RULES));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RedPenException(e.getMessage(), e);
+        }
+
+        maxRuleErrors = limit(getInt(MAX_ERRORS_PER_RULE));
+        maxSentenceErrors = limit(getInt(MAX_ERRORS_PER_SENTENCE));
+        maxDocumentErrors = limit(getInt(MAX_ERRORS_PER_DOCUMENT));
+
+        // Unmetered, unbounded and uncapped rules are used as they are, so disabled metrics, budgets and caps cost
+        // nothing. A rule never needs more errors than either cap on a sentence allows.
+        metrics = getBoolean(METRICS) ? MetricsRegistry.shared().register() : null;
+        final MatchBudget budget = MatchBudget.create(getInt(MATCH_STEPS), getInt(MATCH_TIMEOUT));
+        final int finderErrors = Math.min(maxRuleErrors, maxSentenceErrors);
+        final ErrorCap cap = ErrorCap.create(finderErrors == Integer.MAX_VALUE ? 0 : finderErrors);
+        final List<Rule> evaluated = selected.stream()
+                .map(rule -> metrics == null ? rule : rule.metered(metrics.get(rule.getName())))
+                .map(rule -> rule.budgeted(budget))
+                .map(rule -> rule.capped(cap))
+                .collect(Collectors.toList());
+
+        engine = createEngine(evaluated, metrics);
+
+        // The warm-up runs before the cache, which would otherwise keep the sample, and off the metrics.
+        final int warmUp = getInt(WARM_UP);
+        if (warmUp > 0) {
+            try {
+                WarmUp.run(metrics == null ? engine : createEngine(selected, null), warmUp);
+            } catch (IOException e) {
+                throw new RedPenException(e.getMessage(), e);
+            }
+        }
+
+        final int cacheSize = getInt(CACHE_SIZE);
+        if (cacheSize > 0) {
+            engine = CachingRuleEngine.create(engine, ResultCache.shared().ensureCapacity(cacheSize).register(RESULT_CACHE));
+        }
+
+        final Set<TextMask.Kind> kinds = maskKinds();
+        if (!kinds.isEmpty()) {
+            engine = MaskingRuleEngine.create(engine, kinds);
+        }
+
+        batch = getBoolean(BATCH);
+    }
+
+    private RuleEngine createEngine(final List<Rule> evaluated, final MetricsRegistry metrics) throws RedPenException {
+        final String name = getString(ENGINE);
+        switch (name) {
+            case "regex":
+                return AdaptiveRuleEngine.create(evaluated, getInt(PARALLEL_THRESHOLD), getInt(PARALLELISM));
+            case "automaton":
+                return AutomatonRuleEngine.create(evaluated, metrics == null ? null : metrics.get(AUTOMATON_SCAN));
+            default:
+                throw new RedPenException("Unknown " + ENGINE + ": " + name);
+        }
+    }
+
+    private static int limit(final int max) {
+        return max > 0 ? max : Integer.MAX_VALUE;
+    }
+
+    private Set<TextMask.Kind> maskKinds() throws RedPenException {
+        final Set<TextMask.Kind> kinds = EnumSet.noneOf(TextMask.Kind.class);
+        for (final String name : getSet(MASK)) {
+            final Optional<TextMask.Kind> kind = Arrays.stream(TextMask.Kind.values()).filter(k -> k.isNamed(name)).findFirst();
+            if (!kind.isPresent()) {
+                throw new RedPenException("Unknown " + MASK + ": " + name);
+            }
+            kinds.add(kind.get());
+        }
+        return kinds;
+    }
+
+    /**
+     * The evaluated rules, in the order of the results of {@link #validateMSStyle(Sentence)}.
+     */
+    public List<Rule> getRules() {
+        return engine.getRules();
+    }
+
+    /**
+     * The per-rule metrics as text, slowest first; empty unless {@code metrics} is enabled.
+     */
+    public String dumpMetrics() {
+        return metrics == null ? "" : metrics.dump();
+    }
+
+    /**
+     * What is reported for a sentence {@code rule} gave up on.
+     */
+    public static String skippedMessage(final Rule rule) {
+        return "Skipped " + rule.getName() + ": the sentence exceeds its matching budget.";
+    }
+
+    private static String ruleCapMessage(final Rule rule, final int max) {
+        return "Stopped checking " + rule.getName() + " after " + max + " errors in the sentence.";
+    }
+
+    private static String sentenceCapMessage(final int max) {
+        return "Stopped reporting errors after " + max + " in the sentence.";
+    }
+
+    private static String documentCapMessage(final int max) {
+        return "Stopped reporting errors after " + max + " in the document.";
+    }
+
+    @Override
+    public void setErrorList(final List<ValidationError> errors) {
+        super.setErrorList(errors);
+        documentErrors = 0;
+    }
+
+    private void startSentence() {
+        reportedRule = null;
+        ruleErrors = 0;
+        sentenceErrors = 0;
+    }
+
+    /**
+     * Reports an error of the current sentence, or the summary of the cap it is past; errors come grouped by rule.
+     */
+    private void reportError(final Sentence sentence, final Rule rule, final int start, final int end) {
+        if (rule != reportedRule) {
+            reportedRule = rule;
+            ruleErrors = 0;
+        }
+        if (sentenceErrors >= maxSentenceErrors) {
+            if (sentenceErrors++ == maxSentenceErrors) {
+                report(sentence, sentenceCapMessage(maxSentenceErrors), -1, -1);
+            }
+            return;
+        }
+        if (ruleErrors >= maxRuleErrors) {
+            if (ruleErrors++ == maxRuleErrors) {
+                report(sentence, ruleCapMessage(rule, maxRuleErrors), -1, -1);
+            }
+            return;
+        }
+        ruleErrors++;
+        sentenceErrors++;
+        report(sentence, rule.getErrorMessage(), start, end);
+    }
+
+    /**
+     * Adds an error, with its position unless {@code start} is negative, or the summary of the document cap.
+     */
+    private void report(final Sentence sentence, final String message, final int start, final int end) {
+        if (documentErrors >= maxDocumentErrors) {
+            if (documentErrors++ == maxDocumentErrors) {
+                addError(documentCapMessage(maxDocumentErrors), sentence);
+            }
+            return;
+        }
+        documentErrors++;
+        if (start < 0) {
+            addError(message, sentence);
+        } else {
+            addErrorWithPosition(message, sentence, start, end);
+        }
+    }
+
+    /**
+     * Cuts the errors of a document validated in parts, as
+     * {@link cc.redpen.validator.sentence.runner.DocumentRunner} does by section, to those a single error list would
+     * have kept under {@code max_errors_per_document}, summary included.
+     */
+    public void capDocumentErrors(final List<ValidationError> errors) {
+        if (errors.size() <= maxDocumentErrors) {
+            return;
+        }
+        final Sentence sentence = errors.get(maxDocumentErrors).getSentence();
+        errors.subList(maxDocumentErrors, errors.size()).clear();
+        setErrorList(errors);
+        addError(documentCapMessage(maxDocumentErrors), sentence);
+    }
+
     @Override
     public List<String> getSupportedLanguages() {
         return Collections.singletonList(Locale.JAPANESE.getLanguage());
     }
 
+    @Override
+    public List<ValidationResult> validateMSStyle(final Sentence sentence) {
+        return engine.evaluate(sentence);
+    }
+
+    @Override
+    public List<List<ValidationResult>> validateMSStyle(final List<Sentence> sentences) {
+        return engine.evaluate(sentences);
+    }
+
     @Override
     public void validate(final Sentence sentence) {
 
-        validateMSStyle(sentence)
-                .stream()
-                //.parallel()
-                .forEach(result -> result.getErrorPositions().stream()
-                        //.parallel()
-                        .forEach(position -> addErrorWithPosition(result.getErrorMessage(), sentence, position.row, position.col)));
+        if (batch) {
+            // validated with the rest of its document
+            return;
+        }
+
+        // Errors go straight from the rules to RedPen, without intermediate results.
+        startSentence();
+        engine.evaluate(sentence, new ErrorListener() {
+
+            @Override
+            public void onError(final Rule rule, final int start, final int end) {
+                reportError(sentence, rule, start, end);
+            }
+
+            @Override
+            public void onSkipped(final Rule rule) {
+                report(sentence, skippedMessage(rule), -1, -1);
+            }
+        });
+
+    }
+
+    @Override
+    public void validate(final Document document) {
+
+        if (!batch) {
+            return;
+        }
+
+        final List<Sentence> sentences = new ArrayList<>();
+        for (final Section section : document) {
+            sentences.addAll(sentencesOf(section));
+        }
+        validateSentences(sentences);
+    }
+
+    /**
+     * The sentences of {@code section} in the order RedPen hands them to sentence validators.
+     */
+    public static List<Sentence> sentencesOf(final Section section) {
+        final List<Sentence> sentences = new ArrayList<>();
+        for (final Paragraph paragraph : section.getParagraphs()) {
+            sentences.addAll(paragraph.getSentences());
+        }
+        sentences.addAll(section.getHeaderContents());
+        for (final ListBlock listBlock : section.getListBlocks()) {
+            for (final ListElement listElement : listBlock.getListElements()) {
+                sentences.addAll(listElement.getSentences());
+            }
+        }
+        return sentences;
+    }
 
+    /**
+     * Validates {@code sentences} as one batch, adding their errors to the error list in the order one-by-one
+     * validation would.
+     */
+    public void validateSentences(final List<Sentence> sentences) {
+        final List<List<ValidationResult>> results = validateMSStyle(sentences);
+        for (int i = 0; i < sentences.size(); i++) {
+            startSentence();
+            for (int rule = 0; rule < results.get(i).size(); rule++) {
+                final ValidationResult result = results.get(i).get(rule);
+                for (int error = 0; error < result.getErrorCount(); error++) {
+                    reportError(sentences.get(i), getRules().get(rule), result.getStart(error), result.getEnd(error));
+                }
+            }
+            for (int rule = 0; rule < results.get(i).size(); rule++) {
+                if (results.get(i).get(rule).isSkipped()) {
+                    report(sentences.get(i), skippedMessage(getRules().get(rule)), -1, -1);
+                }
+            }
+        }
     }
 
 }
@@ -0,0 +1,45 @@
+package cc.redpen.validator.sentence.cli;
+
+/**
+ * A reusable view of {@code chars[offset, offset + length)}, so each sentence of a decoded block is scanned in place.
+ */
+final class CharWindow implements CharSequence {
+
+    private char[] chars;
+    private int offset;
+    private int length;
+
+    CharWindow set(final char[] chars, final int offset, final int length) {
+        this.chars = chars;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return chars[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("[" + start + ", " + end + "), length " + length);
+        }
+        return new String(chars, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, offset, length);
+    }
+
+}
@@ -0,0 +1,149 @@
+package cc.redpen.validator.sentence.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The little JSON the command line tools and the service speak: quoted strings out, arrays of strings in.
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * @return {@code text} as a JSON string literal.
+     */
+    public static String quote(final String text) {
+        final StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Parses a JSON array of strings, e.g. {@code ["当社の製品です。", "ご確認ください。"]}.
+     *
+     * @throws IllegalArgumentException if {@code text} is anything else.
+     */
+    public static List<String> parseStrings(final String text) {
+        final List<String> strings = new ArrayList<>();
+        int i = skipSpaces(text, 0);
+        i = expect(text, i, '[');
+        i = skipSpaces(text, i);
+        if (i < text.length() && text.charAt(i) == ']') {
+            i++;
+        } else {
+            while (true) {
+                final StringBuilder string = new StringBuilder();
+                i = parseString(text, skipSpaces(text, i), string);
+                strings.add(string.toString());
+                i = skipSpaces(text, i);
+                if (i < text.length() && text.charAt(i) == ',') {
+                    i++;
+                    continue;
+                }
+                i = expect(text, i, ']');
+                break;
+            }
+        }
+        if (skipSpaces(text, i) != text.length()) {
+            throw new IllegalArgumentException("Unexpected content after the array at " + i);
+        }
+        return strings;
+    }
+
+    private static int parseString(final String text, final int from, final StringBuilder string) {
+        int i = expect(text, from, '"');
+        while (i < text.length()) {
+            final char c = text.charAt(i++);
+            if (c == '"') {
+                return i;
+            }
+            if (c != '\\') {
+                string.append(c);
+                continue;
+            }
+            if (i >= text.length()) {
+                break;
+            }
+            final char escaped = text.charAt(i++);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    string.append(escaped);
+                    break;
+                case 'b':
+                    string.append('\b');
+                    break;
+                case 'f':
+                    string.append('\f');
+                    break;
+                case 'n':
+                    string.append('\n');
+                    break;
+                case 'r':
+                    string.append('\r');
+                    break;
+                case 't':
+                    string.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 > text.length()) {
+                        throw new IllegalArgumentException("Truncated \\u escape at " + i);
+                    }
+                    try {
+                        string.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid \\u escape at " + i, e);
+                    }
+                    i += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid escape at " + (i - 1));
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string from " + from);
+    }
+
+    private static int skipSpaces(final String text, final int from) {
+        int i = from;
+        while (i < text.length() && (text.charAt(i) == ' ' || text.charAt(i) == '\t' || text.charAt(i) == '\n' || text.charAt(i) == '\r')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int expect(final String text, final int i, final char expected) {
+        if (i >= text.length() || text.charAt(i) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at " + i);
+        }
+        return i + 1;
+    }
+
+}
@@ -0,0 +1,413 @@
+package cc.redpen.validator.sentence.cli;
+
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import cc.redpen.validator.sentence.daemon.SentenceSplitter;
+import cc.redpen.validator.sentence.domain.dictionary.RuleDictionary;
+import cc.redpen.validator.sentence.domain.dictionary.RuleSnapshot;
+import cc.redpen.validator.sentence.domain.model.MatchBudget;
+import cc.redpen.validator.sentence.domain.model.PositionSink;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.RuleSelection;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Audits plain-text or line-delimited files with the {@link MSStyleJP} rules, without the RedPen document model,
+ * writing one NDJSON record per error:
+ * <pre>
+ * {"file":"ui.txt","line":12,"offset":5,"length":2,"rule":"ToneHumbleExpression","message":"..."}
+ * </pre>
+ * {@code line} counts from 1 and {@code offset} is the column of the error in chars, from 0. A rule that gives up on
+ * a sentence, with {@code --match-steps} or {@code --match-timeout}, writes
+ * {@code {"file","line","offset","skipped":true,"rule","message"}} with the offset of the sentence.
+ * <p>
+ * Files are memory-mapped and cut into blocks at line breaks. Blocks are decoded into a reused per-thread buffer and
+ * validated in parallel, each sentence being scanned in place, and the records are written in input order with a
+ * bounded number of blocks in flight, so memory does not grow with the input. Lines longer than
+ * {@link #MAX_BLOCK_FACTOR} blocks are cut, and their columns restart at the cut.
+ * <p>
+ * {@code java -cp redpen-core.jar:ms-style-jp-validator.jar cc.redpen.validator.sentence.cli.StreamingAudit
+ * --threads 8 --rules Tone,Spaces strings/*.txt > errors.ndjson}
+ */
+public final class StreamingAudit {
+
+    private static final int BLOCK_SIZE = 1 << 18;
+
+    private static final int MAX_BLOCK_FACTOR = 16;
+
+    private static final long WINDOW_SIZE = 1L << 28;
+
+    // fixed parts of a record
+    private static final byte[] FILE = utf8("{\"file\":");
+    private static final byte[] LINE = utf8(",\"line\":");
+    private static final byte[] OFFSET = utf8(",\"offset\":");
+    private static final byte[] LENGTH = utf8(",\"length\":");
+    private static final byte[] RULE = utf8(",\"rule\":");
+    private static final byte[] MESSAGE = utf8(",\"message\":");
+    private static final byte[] SKIPPED = utf8(",\"skipped\":true");
+    private static final byte[] END = utf8("}\n");
+
+    private final List<Rule> rules;
+    private final int threads;
+    private final int blockSize;
+    private final int maxBlockSize;
+    private final long windowSize;
+
+    // quoted rule names and messages as UTF-8, ready to append
+    private final byte[][] ruleJson;
+    private final byte[][] messageJson;
+    private final byte[][] skippedJson;
+
+    private final ThreadLocal<Scratch> scratches = ThreadLocal.withInitial(Scratch::new);
+
+    StreamingAudit(final List<Rule> rules, final int threads, final int blockSize, final long windowSize) {
+        this.rules = rules;
+        this.threads = threads;
+        this.blockSize = blockSize;
+        this.maxBlockSize = blockSize * MAX_BLOCK_FACTOR;
+        this.windowSize = Math.max(windowSize, 2L * maxBlockSize);
+        this.ruleJson = new byte[rules.size()][];
+        this.messageJson = new byte[rules.size()][];
+        this.skippedJson = new byte[rules.size()][];
+        for (int i = 0; i < rules.size(); i++) {
+            ruleJson[i] = utf8(Json.quote(rules.get(i).getName()));
+            messageJson[i] = utf8(Json.quote(rules.get(i).getErrorMessage()));
+            skippedJson[i] = utf8(Json.quote(MSStyleJPValidator.skippedMessage(rules.get(i))));
+        }
+    }
+
+    public static StreamingAudit create(final List<Rule> rules, final int threads) {
+        return new StreamingAudit(rules, threads, BLOCK_SIZE, WINDOW_SIZE);
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        String dictionary = "";
+        int matchSteps = 0;
+        int matchTimeout = 0;
+        final List<String> enabled = new ArrayList<>();
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--rules") && i + 1 < args.length) {
+                enabled.addAll(Arrays.asList(args[++i].split(",")));
+            } else if (args[i].equals("--dictionary") && i + 1 < args.length) {
+                dictionary = args[++i];
+            } else if (args[i].equals("--match-steps") && i + 1 < args.length) {
+                matchSteps = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--match-timeout") && i + 1 < args.length) {
+                matchTimeout = Integer.parseInt(args[++i]);
+            } else {
+                files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: StreamingAudit [--threads <n>] [--rules <rule or group,...>] [--dictionary <file>]"
+                    + " [--match-steps <chars>] [--match-timeout <ms>] <file>...");
+            System.exit(2);
+        }
+
+        final MatchBudget budget = MatchBudget.create(matchSteps, matchTimeout);
+        final List<Rule> rules = new ArrayList<>();
+        for (final Rule rule : RuleSelection.select(
+                RuleDictionary.apply(MSStyleJP.rules, RuleSnapshot.load(dictionary, "")),
+                new HashSet<>(enabled),
+                Collections.emptySet()
+        )) {
+            rules.add(rule.budgeted(budget));
+        }
+
+        try (OutputStream out = new BufferedOutputStream(System.out, 1 << 16)) {
+            create(rules, threads).audit(files, out);
+        }
+    }
+
+    /**
+     * Writes the errors of every file to {@code out}, file by file, in input order.
+     */
+    public void audit(final List<Path> files, final OutputStream out) throws IOException, InterruptedException {
+        final ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "ms-style-jp-audit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (final Path file : files) {
+                audit(file, pool, out);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void audit(final Path file, final ExecutorService pool, final OutputStream out) throws IOException, InterruptedException {
+
+        final byte[] fileJson = utf8(Json.quote(file.toString()));
+        final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long windowStart = 0;
+            long line = 1;
+            while (windowStart < size) {
+                final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(windowSize, size - windowStart));
+                final boolean last = windowStart + window.capacity() == size;
+
+                int offset = 0;
+                while (offset < window.capacity()) {
+                    if (!last && window.capacity() - offset < maxBlockSize) {
+                        // the next block may not fit: map again from here
+                        break;
+                    }
+                    final int end = blockEnd(window, offset);
+                    final ByteBuffer block = slice(window, offset, end);
+                    final long blockLine = line;
+                    pending.add(pool.submit(() -> validate(block, blockLine, fileJson)));
+                    line += newlines(window, offset, end);
+                    offset = end;
+
+                    // Records can outweigh the text several times over, so few blocks are kept in flight.
+                    if (pending.size() > threads) {
+                        write(pending.poll(), out);
+                    }
+                }
+                windowStart += offset;
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            write(pending.poll(), out);
+        }
+    }
+
+    /**
+     * @return the end of the block starting at {@code offset}: after the first line break from one block size on, or
+     * at a UTF-8 character boundary when the line runs past the maximum block size.
+     */
+    private int blockEnd(final ByteBuffer window, final int offset) {
+        final int capacity = window.capacity();
+        if (capacity - offset <= blockSize) {
+            return capacity;
+        }
+        final int limit = Math.min(capacity, offset + maxBlockSize);
+        for (int i = offset + blockSize; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        if (limit == capacity) {
+            return capacity;
+        }
+        int end = limit;
+        while (end > offset + 1 && (window.get(end) & 0xc0) == 0x80) {
+            end--;
+        }
+        return end;
+    }
+
+    private static ByteBuffer slice(final ByteBuffer window, final int from, final int to) {
+        final ByteBuffer block = window.duplicate();
+        block.limit(to).position(from);
+        return block.slice();
+    }
+
+    private static int newlines(final ByteBuffer window, final int from, final int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (window.get(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void write(final Future<byte[]> records, final OutputStream out) throws IOException, InterruptedException {
+        try {
+            out.write(records.get());
+        } catch (ExecutionException e) {
+            throw new IOException("Validation failed", e.getCause());
+        }
+    }
+
+    /**
+     * @return the NDJSON records of the block, whose first line is {@code line}.
+     */
+    private byte[] validate(final ByteBuffer block, final long line, final byte[] fileJson) {
+
+        final Scratch scratch = scratches.get();
+        final int length = scratch.decode(block);
+        final char[] chars = scratch.chars;
+        scratch.begin(fileJson, line);
+
+        int lineStart = 0;
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = chars[i];
+            if (c == '\n' || c == '\r') {
+                scratch.sentence(start, i, start - lineStart);
+                if (c == '\n') {
+                    scratch.line++;
+                }
+                lineStart = i + 1;
+                start = i + 1;
+            } else if (SentenceSplitter.isTerminator(c)) {
+                scratch.sentence(start, i + 1, start - lineStart);
+                start = i + 1;
+            }
+        }
+        scratch.sentence(start, length, start - lineStart);
+
+        return scratch.take();
+    }
+
+    /**
+     * Per-thread decoder, char buffer and record builder, reused across blocks.
+     */
+    private final class Scratch implements PositionSink {
+
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private char[] chars = new char[0];
+
+        private final CharWindow window = new CharWindow();
+
+        private byte[] records = new byte[1 << 16];
+        private int size;
+
+        private byte[] fileJson;
+        private long line;
+        private int column;
+        private int rule;
+
+        private int decode(final ByteBuffer block) {
+            // UTF-8 never decodes to more chars than bytes.
+            if (chars.length < block.remaining()) {
+                chars = new char[Math.max(block.remaining(), blockSize)];
+            }
+            final CharBuffer buffer = CharBuffer.wrap(chars);
+            decoder.reset();
+            decoder.decode(block, buffer, true);
+            decoder.flush(buffer);
+            return buffer.position();
+        }
+
+        private void begin(final byte[] fileJson, final long line) {
+            this.fileJson = fileJson;
+            this.line = line;
+            size = 0;
+        }
+
+        private void sentence(final int from, final int to, final int column) {
+            if (from >= to) {
+                return;
+            }
+            this.column = column;
+            window.set(chars, from, to - from);
+            for (rule = 0; rule < rules.size(); rule++) {
+                rules.get(rule).findAll(window, this);
+            }
+        }
+
+        @Override
+        public void skip() {
+            append(FILE).append(fileJson)
+                    .append(LINE).append(line)
+                    .append(OFFSET).append(column)
+                    .append(SKIPPED)
+                    .append(RULE).append(ruleJson[rule])
+                    .append(MESSAGE).append(skippedJson[rule])
+                    .append(END);
+        }
+
+        @Override
+        public void accept(final int start, final int end) {
+            append(FILE).append(fileJson)
+                    .append(LINE).append(line)
+                    .append(OFFSET).append(column + start)
+                    .append(LENGTH).append(end - start)
+                    .append(RULE).append(ruleJson[rule])
+                    .append(MESSAGE).append(messageJson[rule])
+                    .append(END);
+        }
+
+        private Scratch append(final byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, records, size, bytes.length);
+            size += bytes.length;
+            return this;
+        }
+
+        private Scratch append(final long value) {
+            ensure(20);
+            if (value == 0) {
+                records[size++] = '0';
+                return this;
+            }
+            final int end = size + digits(value);
+            long rest = value;
+            for (int i = end - 1; i >= size; i--) {
+                records[i] = (byte) ('0' + rest % 10);
+                rest /= 10;
+            }
+            size = end;
+            return this;
+        }
+
+        private void ensure(final int length) {
+            if (size + length > records.length) {
+                records = Arrays.copyOf(records, Math.max(size + length, 2 * records.length));
+            }
+        }
+
+        private byte[] take() {
+            final byte[] bytes = Arrays.copyOf(records, size);
+            size = 0;
+            if (records.length > 16 * blockSize) {
+                // an unusually dense block: do not keep its buffer
+                records = new byte[1 << 16];
+            }
+            return bytes;
+        }
+    }
+
+    private static byte[] utf8(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int digits(final long value) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+}
@@ -0,0 +1,145 @@
+package cc.redpen.validator.sentence.daemon;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Where the {@link WatchDaemon} publishes its results: a report file, rewritten atomically after every change, and
+ * clients of a socket on the loopback interface, sent only the files that changed.
+ * <p>
+ * Both use one line per error, {@code path:line:column: message}. On the socket, each file is preceded by
+ * {@code @ path count}, so a client also learns when a file has no errors left; a new client first receives every
+ * file.
+ */
+final class Report implements Closeable {
+
+    private final Path output;
+
+    private final ServerSocket server;
+
+    private final List<OutputStream> clients = new CopyOnWriteArrayList<>();
+
+    // errors by file, as last published
+    private final SortedMap<String, List<String>> errors = new TreeMap<>();
+
+    private Report(final Path output, final ServerSocket server) {
+        this.output = output;
+        this.server = server;
+    }
+
+    /**
+     * @param output report file, or {@code null} for none.
+     * @param port   loopback port to publish on, 0 for an ephemeral one, or -1 for none.
+     */
+    static Report create(final Path output, final int port) throws IOException {
+        final ServerSocket server = port < 0 ? null : new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        final Report report = new Report(output, server);
+        if (server != null) {
+            final Thread acceptor = new Thread(report::accept, "ms-style-jp-report");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+        return report;
+    }
+
+    int getPort() {
+        return server == null ? -1 : server.getLocalPort();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                final Socket socket = server.accept();
+                final OutputStream client = socket.getOutputStream();
+                synchronized (this) {
+                    send(client, errors);
+                    clients.add(client);
+                }
+            } catch (IOException e) {
+                // closed, or the client left before its first update
+            }
+        }
+    }
+
+    /**
+     * @param changed the errors of every file that changed; an empty list for a clean or deleted file.
+     */
+    synchronized void publish(final Map<String, List<String>> changed) throws IOException {
+
+        for (final Map.Entry<String, List<String>> file : changed.entrySet()) {
+            if (file.getValue().isEmpty()) {
+                errors.remove(file.getKey());
+            } else {
+                errors.put(file.getKey(), file.getValue());
+            }
+        }
+
+        if (output != null) {
+            write();
+        }
+        for (final OutputStream client : clients) {
+            try {
+                send(client, changed);
+            } catch (IOException e) {
+                clients.remove(client);
+            }
+        }
+    }
+
+    private void write() throws IOException {
+        final StringBuilder text = new StringBuilder();
+        for (final List<String> lines : errors.values()) {
+            for (final String line : lines) {
+                text.append(line).append('\n');
+            }
+        }
+        final Path temporary = output.resolveSibling(output.getFileName() + ".tmp");
+        Files.write(temporary, text.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temporary, output, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void send(final OutputStream client, final Map<String, List<String>> files) throws IOException {
+        final StringBuilder text = new StringBuilder();
+        for (final Map.Entry<String, List<String>> file : files.entrySet()) {
+            text.append("@ ").append(file.getKey()).append(' ').append(file.getValue().size()).append('\n');
+            for (final String line : file.getValue()) {
+                text.append(line).append('\n');
+            }
+        }
+        client.write(text.toString().getBytes(StandardCharsets.UTF_8));
+        client.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        for (final OutputStream client : clients) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                // already gone
+            }
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package cc.redpen.validator.sentence.daemon;
+
+import cc.redpen.model.Sentence;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits plain text into sentences at the Japanese and ASCII sentence terminators ({@code 。．！？!?}) and at line
+ * breaks, keeping where each sentence starts in the file.
+ * <p>
+ * The terminator belongs to the sentence it ends; blank sentences are dropped.
+ */
+public final class SentenceSplitter {
+
+    private static final String TERMINATORS = "。．！？!?";
+
+    private SentenceSplitter() {
+    }
+
+    public static List<Located> split(final String text) {
+
+        final List<Located> sentences = new ArrayList<>();
+        int line = 1;
+        int lineStart = 0;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                add(sentences, text, start, i, line, start - lineStart);
+                if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                line++;
+                lineStart = i + 1;
+                start = i + 1;
+            } else if (isTerminator(c)) {
+                add(sentences, text, start, i + 1, line, start - lineStart);
+                start = i + 1;
+            }
+        }
+        add(sentences, text, start, text.length(), line, start - lineStart);
+        return sentences;
+    }
+
+    public static boolean isTerminator(final char c) {
+        return TERMINATORS.indexOf(c) >= 0;
+    }
+
+    private static void add(final List<Located> sentences, final String text, final int start, final int end, final int line, final int column) {
+        final String content = text.substring(start, end);
+        if (!content.trim().isEmpty()) {
+            sentences.add(new Located(new Sentence(content, line), line, column));
+        }
+    }
+
+    /**
+     * A sentence and the position of its first character: line from 1, column from 0.
+     */
+    public static final class Located {
+
+        @Getter
+        private final Sentence sentence;
+
+        @Getter
+        private final int line;
+
+        @Getter
+        private final int column;
+
+        private Located(final Sentence sentence, final int line, final int column) {
+            this.sentence = sentence;
+            this.line = line;
+            this.column = column;
+        }
+    }
+
+}
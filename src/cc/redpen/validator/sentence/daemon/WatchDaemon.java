@@ -0,0 +1,268 @@
+package cc.redpen.validator.sentence.daemon;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a {@link MSStyleJPValidator} warm and revalidates a directory tree as files are saved, so feedback takes the
+ * time of the changed sentences rather than of a JVM start.
+ * <p>
+ * Only modified files are read and split again, and within them only sentences whose content was not in the previous
+ * version are validated; the others reuse their results. Results go to a {@link Report}.
+ * <p>
+ * {@code java -cp redpen-core.jar:ms-style-jp-validator.jar cc.redpen.validator.sentence.daemon.WatchDaemon docs
+ * --output errors.txt --port 7070 engine=automaton}
+ */
+public final class WatchDaemon implements Closeable {
+
+    /**
+     * Events closer together than this are handled as one change, as editors often write a file in several steps.
+     */
+    private static final long QUIET_MILLIS = 10;
+
+    private final Path root;
+    private final Set<String> extensions;
+    private final MSStyleJPValidator validator;
+    private final Report report;
+    private final WatchService watcher;
+
+    private final Map<Path, FileState> files = new HashMap<>();
+
+    private WatchDaemon(final Path root, final Set<String> extensions, final MSStyleJPValidator validator, final Report report) throws IOException {
+        this.root = root;
+        this.extensions = extensions;
+        this.validator = validator;
+        this.report = report;
+        this.watcher = root.getFileSystem().newWatchService();
+    }
+
+    /**
+     * @param extensions file extensions to validate, without the dot.
+     */
+    static WatchDaemon create(final Path root, final Set<String> extensions, final MSStyleJPValidator validator, final Report report) throws IOException {
+        return new WatchDaemon(root.toAbsolutePath().normalize(), extensions, validator, report);
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException, RedPenException {
+
+        Path root = null;
+        Path output = null;
+        int port = -1;
+        Set<String> extensions = new HashSet<>(Arrays.asList("txt", "md"));
+        final ValidatorConfiguration configuration = new ValidatorConfiguration("MSStyleJP");
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--output") && i + 1 < args.length) {
+                output = Paths.get(args[++i]);
+            } else if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--extensions") && i + 1 < args.length) {
+                extensions = new HashSet<>(Arrays.asList(args[++i].split(",")));
+            } else if (args[i].contains("=")) {
+                final int separator = args[i].indexOf('=');
+                configuration.addProperty(args[i].substring(0, separator), args[i].substring(separator + 1));
+            } else {
+                root = Paths.get(args[i]);
+            }
+        }
+        if (root == null || !Files.isDirectory(root)) {
+            System.err.println("Usage: WatchDaemon <directory> [--output <file>] [--port <port>] [--extensions txt,md] [<property>=<value>...]");
+            System.exit(2);
+        }
+
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(configuration, Configuration.builder().build());
+
+        try (Report report = Report.create(output, port);
+             WatchDaemon daemon = create(root, extensions, validator, report)) {
+            System.err.println("Watching " + daemon.root + (port < 0 ? "" : " (report on port " + report.getPort() + ")"));
+            daemon.run();
+        }
+    }
+
+    /**
+     * Validates every file, then revalidates files as they change, until the daemon is closed.
+     */
+    public void run() throws IOException, InterruptedException {
+        update(register(root));
+        try {
+            while (true) {
+                final Set<Path> changed = new TreeSet<>();
+                WatchKey key = watcher.take();
+                do {
+                    collect(key, changed);
+                } while ((key = watcher.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null);
+                update(changed);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void collect(final WatchKey key, final Set<Path> changed) throws IOException {
+        final Path directory = (Path) key.watchable();
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost: look at everything again; unchanged files cost a comparison.
+                changed.addAll(files.keySet());
+                changed.addAll(register(root));
+                continue;
+            }
+            final Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                changed.addAll(register(path));
+            } else {
+                changed.add(path);
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * Watches {@code directory} and its subdirectories.
+     *
+     * @return the files to validate below it.
+     */
+    private List<Path> register(final Path directory) throws IOException {
+        final List<Path> found = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (final Path path : paths.collect(Collectors.toList())) {
+                if (Files.isDirectory(path)) {
+                    path.register(watcher,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY,
+                            StandardWatchEventKinds.ENTRY_DELETE);
+                } else if (isValidated(path)) {
+                    found.add(path);
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean isValidated(final Path path) {
+        final String name = path.getFileName().toString();
+        final int dot = name.lastIndexOf('.');
+        return dot >= 0 && extensions.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Revalidates the given files and publishes those whose errors may have changed.
+     *
+     * @return the number of sentences validated.
+     */
+    int update(final Collection<Path> paths) throws IOException {
+
+        int validated = 0;
+        final Map<String, List<String>> changed = new LinkedHashMap<>();
+        for (final Path path : paths) {
+            final String name = root.relativize(path).toString().replace('\\', '/');
+            if (Files.isRegularFile(path) && isValidated(path)) {
+                final String text = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+                final FileState previous = files.get(path);
+                if (previous != null && previous.text.equals(text)) {
+                    continue;
+                }
+                final FileState state = new FileState(text);
+                validated += state.validate(name, previous);
+                files.put(path, state);
+                changed.put(name, state.errors);
+            } else if (files.remove(path) != null) {
+                changed.put(name, new ArrayList<>());
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            report.publish(changed);
+        }
+        return validated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+    }
+
+    /**
+     * The last validated version of a file.
+     */
+    private final class FileState {
+
+        private final String text;
+
+        // results by sentence content, reused by the next version; a skipped sentence is checked again
+        private final Map<String, List<ValidationResult>> results = new HashMap<>();
+
+        private final List<String> errors = new ArrayList<>();
+
+        private FileState(final String text) {
+            this.text = text;
+        }
+
+        /**
+         * @return the number of sentences validated, those not found in {@code previous}.
+         */
+        private int validate(final String name, final FileState previous) {
+            int validated = 0;
+            final List<Rule> rules = validator.getRules();
+            for (final SentenceSplitter.Located located : SentenceSplitter.split(text)) {
+                final String content = located.getSentence().getContent();
+                List<ValidationResult> sentenceResults = results.get(content);
+                if (sentenceResults == null && previous != null) {
+                    sentenceResults = previous.results.get(content);
+                }
+                if (sentenceResults == null) {
+                    sentenceResults = validator.validateMSStyle(located.getSentence());
+                    validated++;
+                }
+                boolean skipped = false;
+                for (int rule = 0; rule < sentenceResults.size(); rule++) {
+                    final ValidationResult result = sentenceResults.get(rule);
+                    for (int i = 0; i < result.getErrorCount(); i++) {
+                        errors.add(name + ":" + located.getLine() + ":" + (located.getColumn() + result.getStart(i) + 1)
+                                + ": " + result.getErrorMessage());
+                    }
+                    if (result.isSkipped()) {
+                        errors.add(name + ":" + located.getLine() + ":" + (located.getColumn() + 1)
+                                + ": " + MSStyleJPValidator.skippedMessage(rules.get(rule)));
+                        skipped = true;
+                    }
+                }
+                if (!skipped) {
+                    results.put(content, sentenceResults);
+                }
+            }
+            return validated;
+        }
+    }
+
+}
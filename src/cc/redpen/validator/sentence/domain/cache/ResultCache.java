@@ -0,0 +1,226 @@
+package cc.redpen.validator.sentence.domain.cache;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded map from sentence content to the errors a rule set found in it, for documents that repeat the same
+ * sentences (notes, warnings, legal lines, UI strings).
+ * <p>
+ * Keys are the content and a fingerprint of the rule set, so validators with different rules can share one cache.
+ * Values are the error offsets as flat int arrays. Entries are evicted in LRU order within independently locked
+ * segments, so concurrent validators rarely contend.
+ */
+public final class ResultCache implements ResultCacheMBean {
+
+    private static final int SEGMENTS = 16;
+
+    private static final ResultCache SHARED = new ResultCache(0);
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private volatile int segmentCapacity;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // key of the lookups of each thread
+    private final ThreadLocal<Key> lookups = ThreadLocal.withInitial(Key::new);
+
+    private ResultCache(final int capacity) {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentCapacity = segmentCapacity(capacity);
+    }
+
+    /**
+     * @param capacity maximum number of entries, spread evenly over the segments.
+     */
+    public static ResultCache create(final int capacity) {
+        return new ResultCache(capacity);
+    }
+
+    /**
+     * The cache every validator with caching enabled shares; it holds as many entries as the largest capacity
+     * requested.
+     */
+    public static ResultCache shared() {
+        return SHARED;
+    }
+
+    private static int segmentCapacity(final int capacity) {
+        return capacity <= 0 ? 0 : (capacity + SEGMENTS - 1) / SEGMENTS;
+    }
+
+    /**
+     * Grows the cache to hold at least {@code capacity} entries; never shrinks it.
+     */
+    public synchronized ResultCache ensureCapacity(final int capacity) {
+        segmentCapacity = Math.max(segmentCapacity, segmentCapacity(capacity));
+        return this;
+    }
+
+    /**
+     * @return the errors cached for {@code content} under the rule set {@code rules}, or {@code null}.
+     */
+    public int[] get(final long rules, final String content) {
+        final Key key = lookups.get().set(rules, content);
+        final int[] errors;
+        try {
+            final Segment segment = segmentOf(key);
+            synchronized (segment) {
+                errors = segment.get(key);
+            }
+        } finally {
+            key.content = null;
+        }
+        if (errors == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return errors;
+    }
+
+    /**
+     * @param errors not modified afterwards; shared by every later hit.
+     */
+    public void put(final long rules, final String content, final int[] errors) {
+        if (segmentCapacity == 0) {
+            return;
+        }
+        final Key key = new Key().set(rules, content);
+        final Segment segment = segmentOf(key);
+        synchronized (segment) {
+            segment.put(key, errors);
+        }
+    }
+
+    private Segment segmentOf(final Key key) {
+        final int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Registers the cache with the platform MBean server under {@code name}; registering twice is a no-op.
+     */
+    public ResultCache register(final String name) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName objectName = new ObjectName(
+                    "cc.redpen.validator.sentence:type=MSStyleJP,name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            // Statistics stay readable from the getters.
+        }
+        return this;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        final long hit = getHits();
+        final long total = hit + getMisses();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return segmentCapacity * SEGMENTS;
+    }
+
+    /**
+     * Drops every entry and resets the statistics.
+     */
+    @Override
+    public void clear() {
+        for (final Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    private static final class Key {
+
+        private long rules;
+        private String content;
+
+        private Key set(final long rules, final String content) {
+            this.rules = rules;
+            this.content = content;
+            return this;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) other;
+            return rules == key.rules && content.equals(key.content);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * content.hashCode() + Long.hashCode(rules);
+        }
+    }
+
+    /**
+     * LRU map of one segment; guarded by itself.
+     */
+    private final class Segment extends LinkedHashMap<Key, int[]> {
+
+        private Segment() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, int[]> eldest) {
+            if (size() > segmentCapacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+}
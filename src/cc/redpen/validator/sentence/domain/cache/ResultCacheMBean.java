@@ -0,0 +1,22 @@
+package cc.redpen.validator.sentence.domain.cache;
+
+/**
+ * JMX view of a {@link ResultCache}.
+ */
+public interface ResultCacheMBean {
+
+    long getHits();
+
+    long getMisses();
+
+    double getHitRatio();
+
+    long getEvictions();
+
+    int getSize();
+
+    int getCapacity();
+
+    void clear();
+
+}
@@ -0,0 +1,346 @@
+package cc.redpen.validator.sentence.domain.dictionary;
+
+import cc.redpen.validator.sentence.domain.model.ErrorPattern;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern.Prefix;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern.Suffix;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.Rule.Group;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Rules defined in a UTF-8 text file, one {@code [Name]} section per rule:
+ * <pre>
+ * [KatakanaKa]
+ * group = CHARACTERS
+ * message = Characters pronounced as “ka” should be written in Hiragana or Kanji.
+ * pattern = \d+ (ケ|ヶ|カ|ヵ)(年|月)
+ *
+ * [TonePoliteExpression]
+ * group = TONE
+ * message = Do not use excessively polite expression unless necessary.
+ * words = ご注意ください ご確認ください
+ * </pre>
+ * A rule is either a {@code pattern}, a regex taken verbatim after {@code "= "}, or a word list with an optional
+ * {@link Prefix} and {@link Suffix}. Words are separated by whitespace and {@code words} lines accumulate. Lines
+ * starting with {@code #} are comments.
+ * <p>
+ * In an override, a section for an existing rule replaces only the keys it gives, and {@code more_words} appends to
+ * the existing words; a section for a new name adds a rule.
+ * <p>
+ * Regexes of the {@link #parseBundled(byte[]) bundled} dictionary are compiled when their rule is first evaluated, so
+ * a disabled rule costs nothing; any other regex is checked when the rules are built.
+ */
+public final class RuleDictionary {
+
+    /**
+     * The dictionary bundled next to this class, holding every built-in rule that has a pattern.
+     */
+    public static final String BUNDLED = "ms-style-jp-rules.txt";
+
+    private final Map<String, Definition> definitions;
+
+    private RuleDictionary(final Map<String, Definition> definitions) {
+        this.definitions = definitions;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a line is malformed.
+     */
+    public static RuleDictionary parse(final String text) {
+
+        final Map<String, Definition> definitions = new LinkedHashMap<>();
+        Definition current = null;
+
+        final String[] lines = text.split("\r?\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            final String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("[") && line.endsWith("]")) {
+                final String name = line.substring(1, line.length() - 1).trim();
+                if (name.isEmpty() || definitions.containsKey(name)) {
+                    throw new IllegalArgumentException("Empty or duplicated rule name at line " + (i + 1) + ": " + line);
+                }
+                current = new Definition(name);
+                definitions.put(name, current);
+                continue;
+            }
+            final int separator = lines[i].indexOf('=');
+            if (current == null || separator < 0) {
+                throw new IllegalArgumentException("Expected [Name] or key = value at line " + (i + 1) + ": " + line);
+            }
+            final String value = lines[i].substring(separator + 1);
+            current.set(
+                    lines[i].substring(0, separator).trim(),
+                    value.startsWith(" ") ? value.substring(1) : value,
+                    i + 1
+            );
+        }
+
+        return new RuleDictionary(definitions);
+    }
+
+    public static RuleDictionary parse(final byte[] text) {
+        return parse(new String(text, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses the text of the {@link #BUNDLED} dictionary, whose regexes are those of the built-in rules and are not
+     * checked again by {@link #toRules()}.
+     */
+    public static RuleDictionary parseBundled(final byte[] text) {
+        final RuleDictionary dictionary = parse(text);
+        for (final Definition definition : dictionary.definitions.values()) {
+            definition.bundled = true;
+        }
+        return dictionary;
+    }
+
+    /**
+     * @return the text of the {@link #BUNDLED} dictionary.
+     */
+    public static byte[] readBundled() throws IOException {
+        try (InputStream in = RuleDictionary.class.getResourceAsStream(BUNDLED)) {
+            if (in == null) {
+                throw new IOException("Bundled rule dictionary not found: " + BUNDLED);
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * @return this dictionary with the sections of {@code override} applied.
+     */
+    public RuleDictionary merge(final RuleDictionary override) {
+        final Map<String, Definition> merged = new LinkedHashMap<>();
+        for (final Definition definition : definitions.values()) {
+            merged.put(definition.name, definition.copy());
+        }
+        for (final Definition definition : override.definitions.values()) {
+            final Definition base = merged.get(definition.name);
+            if (base == null) {
+                merged.put(definition.name, definition.copy());
+            } else {
+                base.override(definition);
+            }
+        }
+        return new RuleDictionary(merged);
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(new ArrayList<>(definitions.keySet()));
+    }
+
+    /**
+     * Builds every rule; word lists are compiled into automata when first used, and regexes not taken from the
+     * bundled dictionary are checked.
+     *
+     * @throws IllegalArgumentException if a rule is incomplete or its pattern is not a valid regex.
+     */
+    public List<Rule> toRules() {
+        final List<Rule> rules = new ArrayList<>();
+        for (final Definition definition : definitions.values()) {
+            rules.add(definition.toRule());
+        }
+        return rules;
+    }
+
+    /**
+     * Replaces the built-in rules by the dictionary rules of the same name, in place, and appends the others.
+     * <p>
+     * A dictionary rule that defines the same regex and message as the built-in one keeps the built-in finder, which
+     * may be faster than the regex (e.g. a code point table).
+     */
+    public static List<Rule> apply(final List<Rule> builtIns, final List<Rule> rules) {
+
+        final Map<String, Rule> byName = new LinkedHashMap<>();
+        for (final Rule rule : rules) {
+            byName.put(rule.getName(), rule);
+        }
+
+        final List<Rule> applied = new ArrayList<>();
+        for (final Rule builtIn : builtIns) {
+            final Rule rule = byName.remove(builtIn.getName());
+            if (rule == null) {
+                applied.add(builtIn);
+            } else if (sameDefinition(builtIn, rule) && builtIn.getFinder() != builtIn.getErrorPattern()) {
+                applied.add(Rule.create(rule.getName(), rule.getGroup(), rule.getErrorPattern(), builtIn.getFinder()));
+            } else {
+                applied.add(rule);
+            }
+        }
+        applied.addAll(byName.values());
+        return applied;
+    }
+
+    private static boolean sameDefinition(final Rule builtIn, final Rule rule) {
+        return builtIn.getErrorPattern() != null
+                && builtIn.getGroup() == rule.getGroup()
+                && builtIn.getErrorPattern().getRegex().equals(rule.getErrorPattern().getRegex())
+                && builtIn.getErrorMessage().equals(rule.getErrorMessage());
+    }
+
+    /**
+     * One section; keys not given are {@code null}.
+     */
+    private static final class Definition {
+
+        private final String name;
+
+        private String group;
+        private String message;
+        private String pattern;
+        private String prefix;
+        private String suffix;
+        private List<String> words;
+        private List<String> moreWords;
+
+        // whether the pattern comes from the bundled dictionary
+        private boolean bundled;
+
+        private Definition(final String name) {
+            this.name = name;
+        }
+
+        private void set(final String key, final String rawValue, final int line) {
+            // Spaces may be part of a regex, so only the one after '=' is dropped from a pattern.
+            final String value = key.equals("pattern") ? rawValue : rawValue.trim();
+            switch (key) {
+                case "group":
+                    group = value;
+                    break;
+                case "message":
+                    message = value;
+                    break;
+                case "pattern":
+                    pattern = value;
+                    break;
+                case "prefix":
+                    prefix = value;
+                    break;
+                case "suffix":
+                    suffix = value;
+                    break;
+                case "words":
+                    words = append(words, value);
+                    break;
+                case "more_words":
+                    moreWords = append(moreWords, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown key at line " + line + ": " + key);
+            }
+        }
+
+        private static List<String> append(final List<String> list, final String value) {
+            final List<String> appended = list == null ? new ArrayList<>() : list;
+            if (!value.isEmpty()) {
+                appended.addAll(Arrays.asList(value.split("\\s+")));
+            }
+            return appended;
+        }
+
+        private Definition copy() {
+            final Definition copy = new Definition(name);
+            copy.override(this);
+            return copy;
+        }
+
+        private void override(final Definition override) {
+            if (override.group != null) {
+                group = override.group;
+            }
+            if (override.message != null) {
+                message = override.message;
+            }
+            if (override.pattern != null) {
+                // A pattern turns a word list into a regex rule, and words the other way round.
+                pattern = override.pattern;
+                bundled = override.bundled;
+                words = null;
+                moreWords = null;
+                prefix = null;
+                suffix = null;
+            }
+            if (override.words != null) {
+                words = new ArrayList<>(override.words);
+                moreWords = null;
+                pattern = null;
+            }
+            if (override.moreWords != null) {
+                moreWords = append(moreWords, String.join(" ", override.moreWords));
+            }
+            if (override.prefix != null) {
+                prefix = override.prefix;
+            }
+            if (override.suffix != null) {
+                suffix = override.suffix;
+            }
+        }
+
+        private Rule toRule() {
+
+            if (group == null || message == null) {
+                throw new IllegalArgumentException("Rule " + name + " needs a group and a message.");
+            }
+            final Group ruleGroup = Arrays.stream(Group.values())
+                    .filter(g -> g.isNamed(group))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown group of rule " + name + ": " + group));
+
+            final List<String> allWords = new ArrayList<>();
+            if (words != null) {
+                allWords.addAll(words);
+            }
+            if (moreWords != null) {
+                allWords.addAll(moreWords);
+            }
+
+            if (pattern != null) {
+                if (!allWords.isEmpty()) {
+                    throw new IllegalArgumentException("Rule " + name + " has both a pattern and words.");
+                }
+                final ErrorPattern errorPattern = ErrorPattern.create(pattern, message);
+                if (!bundled) {
+                    try {
+                        errorPattern.getErrorPattern();
+                    } catch (PatternSyntaxException e) {
+                        throw new IllegalArgumentException("Invalid pattern of rule " + name + ": " + e.getMessage(), e);
+                    }
+                }
+                return Rule.create(name, ruleGroup, errorPattern);
+            }
+
+            if (allWords.isEmpty()) {
+                throw new IllegalArgumentException("Rule " + name + " needs a pattern or words.");
+            }
+            final LexiconPattern lexicon = LexiconPattern.create(
+                    prefix == null ? Prefix.NONE : Prefix.valueOf(prefix),
+                    suffix == null ? Suffix.NONE : Suffix.valueOf(suffix),
+                    message,
+                    allWords.toArray(new String[0])
+            );
+            return Rule.create(name, ruleGroup, ErrorPattern.create(lexicon), lexicon);
+        }
+    }
+
+}
@@ -0,0 +1,248 @@
+package cc.redpen.validator.sentence.domain.dictionary;
+
+import cc.redpen.validator.sentence.domain.engine.AhoCorasick;
+import cc.redpen.validator.sentence.domain.engine.RegexProgram;
+import cc.redpen.validator.sentence.domain.model.ErrorPattern;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern.Prefix;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern.Suffix;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.Rule.Group;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled form of a {@link RuleDictionary}: regex programs and word automata are stored as arrays, so loading reads
+ * them back instead of parsing the dictionary and compiling every rule.
+ * <p>
+ * Snapshots are named after a hash of the dictionary text they were built from. The first run after the bundled
+ * dictionary or the override changes builds the snapshot and saves it; later runs, and later validators in the same
+ * process, only load it. A snapshot whose rules do not match the SHA-256 digest stored with them is rebuilt.
+ */
+public final class RuleSnapshot {
+
+    private static final int MAGIC = 0x4d53534a;
+    private static final int VERSION = 2;
+
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final byte PATTERN = 0;
+    private static final byte LEXICON = 1;
+
+    private static final Map<String, List<Rule>> LOADED = new ConcurrentHashMap<>();
+
+    private RuleSnapshot() {
+    }
+
+    /**
+     * @param override  path of the user dictionary applied over the bundled one, or empty for none.
+     * @param directory where snapshots are cached, or empty to build the rules on every first load in a process.
+     * @return the rules of the bundled dictionary with {@code override} applied.
+     * @throws IOException              if a dictionary cannot be read.
+     * @throws IllegalArgumentException if a dictionary is malformed.
+     */
+    public static List<Rule> load(final String override, final String directory) throws IOException {
+
+        final byte[] bundled = RuleDictionary.readBundled();
+        final byte[] custom = override.isEmpty() ? new byte[0] : Files.readAllBytes(Paths.get(override));
+        final String hash = hash(bundled, custom);
+
+        final List<Rule> loaded = LOADED.get(hash);
+        if (loaded != null) {
+            return loaded;
+        }
+
+        final Path file = directory.isEmpty() ? null : Paths.get(directory, "rules-" + hash + ".snapshot");
+        List<Rule> rules = file == null ? null : readIfValid(file, hash);
+        if (rules == null) {
+            rules = RuleDictionary.parseBundled(bundled).merge(RuleDictionary.parse(custom)).toRules();
+            if (file != null) {
+                save(file, hash, rules);
+            }
+        }
+        final List<Rule> previous = LOADED.putIfAbsent(hash, rules);
+        return previous == null ? rules : previous;
+    }
+
+    private static List<Rule> readIfValid(final Path file, final String hash) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            return read(in, hash);
+        } catch (IOException | RuntimeException e) {
+            // A stale or damaged snapshot is rebuilt.
+            return null;
+        }
+    }
+
+    /**
+     * Writes to a temporary file first, so concurrent first runs never read a partial snapshot. The cache is best
+     * effort: a directory that cannot be written only costs the next run a rebuild.
+     */
+    private static void save(final Path file, final String hash, final List<Rule> rules) {
+        Path temporary = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temporary = Files.createTempFile(file.getParent(), "rules-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                write(out, hash, rules);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // nothing left to do
+                }
+            }
+        }
+    }
+
+    /**
+     * @param rules rules built by {@link RuleDictionary#toRules()}.
+     */
+    static void write(final DataOutput out, final String hash, final List<Rule> rules) throws IOException {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        writeRules(new DataOutputStream(payload), rules);
+        final byte[] bytes = payload.toByteArray();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(hash);
+        out.writeInt(bytes.length);
+        out.write(digest(bytes));
+        out.write(bytes);
+    }
+
+    private static void writeRules(final DataOutput out, final List<Rule> rules) throws IOException {
+        out.writeInt(rules.size());
+        for (final Rule rule : rules) {
+            out.writeUTF(rule.getName());
+            out.writeUTF(rule.getGroup().name());
+            if (rule.getFinder() instanceof LexiconPattern) {
+                final LexiconPattern lexicon = (LexiconPattern) rule.getFinder();
+                out.writeByte(LEXICON);
+                out.writeUTF(lexicon.getPrefix().name());
+                out.writeUTF(lexicon.getSuffix().name());
+                out.writeUTF(lexicon.getErrorMessage());
+                out.writeInt(lexicon.getWords().size());
+                for (final String word : lexicon.getWords()) {
+                    out.writeUTF(word);
+                }
+                lexicon.getAutomaton().write(out);
+            } else {
+                out.writeByte(PATTERN);
+                out.writeUTF(rule.getErrorPattern().getRegex());
+                out.writeUTF(rule.getErrorPattern().getErrorMessage());
+            }
+            final RegexProgram program = rule.getErrorPattern().getProgram();
+            out.writeBoolean(program != null);
+            if (program != null) {
+                program.write(out);
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if the data is not a snapshot of this version built from {@code hash}, or its rules do not
+     *                     match their digest.
+     */
+    static List<Rule> read(final DataInputStream in, final String hash) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(hash)) {
+            throw new IOException("Not a snapshot of this rule dictionary");
+        }
+        final int length = in.readInt();
+        final byte[] expected = new byte[DIGEST_LENGTH];
+        in.readFully(expected);
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Corrupt snapshot: truncated");
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        if (!MessageDigest.isEqual(expected, digest(bytes))) {
+            throw new IOException("Corrupt snapshot: digest mismatch");
+        }
+        return readRules(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static List<Rule> readRules(final DataInput in) throws IOException {
+        final int size = in.readInt();
+        final List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final String name = in.readUTF();
+            final Group group = Group.valueOf(in.readUTF());
+            final byte kind = in.readByte();
+            if (kind == LEXICON) {
+                final Prefix prefix = Prefix.valueOf(in.readUTF());
+                final Suffix suffix = Suffix.valueOf(in.readUTF());
+                final String message = in.readUTF();
+                final String[] words = new String[in.readInt()];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = in.readUTF();
+                }
+                final LexiconPattern lexicon = LexiconPattern.create(prefix, suffix, message, Arrays.asList(words), AhoCorasick.read(in));
+                rules.add(Rule.create(name, group, ErrorPattern.create(lexicon.toRegex(), message, readProgram(in)), lexicon));
+            } else if (kind == PATTERN) {
+                final String regex = in.readUTF();
+                final String message = in.readUTF();
+                rules.add(Rule.create(name, group, ErrorPattern.create(regex, message, readProgram(in))));
+            } else {
+                throw new IOException("Corrupt snapshot: unknown rule kind " + kind);
+            }
+        }
+        return rules;
+    }
+
+    private static RegexProgram readProgram(final DataInput in) throws IOException {
+        return in.readBoolean() ? RegexProgram.read(in) : null;
+    }
+
+    private static byte[] digest(final byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hash(final byte[] bundled, final byte[] override) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bundled);
+            digest.update((byte) 0);
+            digest.update(override);
+            final StringBuilder hex = new StringBuilder();
+            for (final byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.substring(0, 32) + "-v" + VERSION;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
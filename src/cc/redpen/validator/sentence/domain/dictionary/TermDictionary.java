@@ -0,0 +1,164 @@
+package cc.redpen.validator.sentence.domain.dictionary;
+
+import cc.redpen.validator.sentence.domain.engine.DoubleArrayTrie;
+import cc.redpen.validator.sentence.domain.engine.MappedDoubleArrayTrie;
+import cc.redpen.validator.sentence.domain.model.TermPattern;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Terminology list compiled ahead of time into a double-array trie, and memory-mapped read-only when validating.
+ * <p>
+ * The source is a UTF-8 text file with one term per line, {@code -} for a forbidden term and {@code +} for an approved
+ * one, and an optional message:
+ * <pre>
+ * message = Use the approved term.
+ * - サーバ
+ * + サーバー
+ * </pre>
+ * Lines starting with {@code #} are comments, and a repeated term keeps its last marker.
+ * <p>
+ * A list of a hundred thousand terms is compiled once with {@link #main(String[])}. Opening the compiled file maps it
+ * instead of reading it: the validators of a process share one mapping, the processes on a host share its pages in the
+ * page cache, and none of it is on the heap.
+ */
+public final class TermDictionary {
+
+    private static final int MAGIC = 0x4d53544d;
+    private static final int VERSION = 1;
+
+    private static final String DEFAULT_MESSAGE = "Use the approved term.";
+
+    private static final Map<String, TermPattern> MAPPED = new ConcurrentHashMap<>();
+
+    private TermDictionary() {
+    }
+
+    /**
+     * Compiles a term list: {@code TermDictionary <source> <target>}.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TermDictionary <source> <target>");
+            System.exit(2);
+        }
+        compile(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    /**
+     * Compiles the term list {@code source} into {@code target}, replaced atomically so validators mapping the
+     * previous version keep reading a whole file.
+     *
+     * @throws IOException              if a file cannot be read or written.
+     * @throws IllegalArgumentException if a line is malformed.
+     */
+    public static void compile(final Path source, final Path target) throws IOException {
+
+        final String text = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+        final String[] lines = text.split("\r?\n", -1);
+        final List<String> terms = new ArrayList<>();
+        final List<Byte> markers = new ArrayList<>();
+        String message = DEFAULT_MESSAGE;
+        for (int i = 0; i < lines.length; i++) {
+            final String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String term = line.substring(1).trim();
+            if (line.startsWith("message") && line.substring("message".length()).trim().startsWith("=")) {
+                message = line.substring(line.indexOf('=') + 1).trim();
+            } else if ((line.startsWith("-") || line.startsWith("+")) && !term.isEmpty()) {
+                terms.add(term);
+                markers.add(line.startsWith("-") ? TermPattern.FORBIDDEN : TermPattern.APPROVED);
+            } else {
+                throw new IllegalArgumentException("Expected - term, + term or message = value at line " + (i + 1) + ": " + line);
+            }
+        }
+        final byte[] values = new byte[markers.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = markers.get(i);
+        }
+        final DoubleArrayTrie trie = DoubleArrayTrie.create(terms, values);
+
+        final Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temporary = Files.createTempFile(directory, "terms-", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(terms.size());
+                final byte[] encoded = message.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+                // keeps the int arrays of the trie aligned in the mapping
+                out.write(new byte[padding(encoded.length)]);
+                trie.write(out);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @param path of a file built by {@link #compile(Path, Path)}.
+     * @return the rule over its terms, mapped once per version of the file in a process.
+     * @throws IOException if the file cannot be mapped or is not a compiled term list.
+     */
+    public static TermPattern open(final String path) throws IOException {
+
+        final Path file = Paths.get(path).toRealPath();
+        final String key = file + "@" + Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis();
+        final TermPattern opened = MAPPED.get(key);
+        if (opened != null) {
+            return opened;
+        }
+
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping outlives the channel.
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        final TermPattern terms;
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a compiled term list: " + path);
+            }
+            final int size = buffer.getInt();
+            final byte[] encoded = new byte[buffer.getInt()];
+            buffer.get(encoded);
+            buffer.position(buffer.position() + padding(encoded.length));
+            terms = TermPattern.create(new String(encoded, StandardCharsets.UTF_8), MappedDoubleArrayTrie.map(buffer), size, key);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt compiled term list: " + path, e);
+        }
+        final TermPattern previous = MAPPED.putIfAbsent(key, terms);
+        return previous == null ? terms : previous;
+    }
+
+    private static int padding(final int length) {
+        return -length & 3;
+    }
+
+}
@@ -0,0 +1,165 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.model.BatchSink;
+import cc.redpen.validator.sentence.domain.model.PositionSink;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.TextBatch;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Evaluates each rule on its own, sequentially for short sentences and fanned out over a dedicated pool once the
+ * sentence is long enough for the per-rule work to outweigh the fork/join overhead. A batch is judged by its total
+ * length, each rule scanning the whole batch.
+ * <p>
+ * Pools are shared by every engine with the same parallelism and never touch {@link ForkJoinPool#commonPool()}.
+ */
+public final class AdaptiveRuleEngine implements RuleEngine {
+
+    private static final ConcurrentMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    @Getter
+    private final List<Rule> rules;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    private final ThreadLocal<Forwarder> forwarders = ThreadLocal.withInitial(Forwarder::new);
+
+    private final ThreadLocal<TextBatch> batches = ThreadLocal.withInitial(TextBatch::create);
+
+    private AdaptiveRuleEngine(final List<Rule> rules, final int parallelThreshold, final int parallelism) {
+        this.rules = rules;
+        this.parallelThreshold = parallelThreshold;
+        this.pool = parallelism > 1 ? POOLS.computeIfAbsent(parallelism, AdaptiveRuleEngine::newPool) : null;
+    }
+
+    /**
+     * @param parallelThreshold sentence length (chars) from which rules are evaluated in parallel.
+     * @param parallelism       worker count of the pool; 1 or less always evaluates sequentially.
+     */
+    public static AdaptiveRuleEngine create(final List<Rule> rules, final int parallelThreshold, final int parallelism) {
+        return new AdaptiveRuleEngine(rules, parallelThreshold, parallelism);
+    }
+
+    public static AdaptiveRuleEngine sequential(final List<Rule> rules) {
+        return new AdaptiveRuleEngine(rules, Integer.MAX_VALUE, 1);
+    }
+
+    private static ForkJoinPool newPool(final int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ms-style-jp-rule-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @Override
+    public void evaluate(final Sentence sentence, final ErrorListener listener) {
+
+        if (pool == null || sentence.getContent().length() < parallelThreshold) {
+            final Forwarder forwarder = forwarders.get();
+            forwarder.listener = listener;
+            try {
+                for (final Rule rule : rules) {
+                    forwarder.rule = rule;
+                    rule.findAll(sentence, forwarder);
+                }
+            } finally {
+                forwarder.rule = null;
+                forwarder.listener = null;
+            }
+            return;
+        }
+
+        final List<ForkJoinTask<ValidationResult>> tasks = new ArrayList<>(rules.size());
+        for (final Rule rule : rules) {
+            tasks.add(pool.submit(() -> rule.apply(sentence)));
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            final ValidationResult result = tasks.get(i).join();
+            for (int error = 0; error < result.getErrorCount(); error++) {
+                listener.onError(rules.get(i), result.getStart(error), result.getEnd(error));
+            }
+            if (result.isSkipped()) {
+                listener.onSkipped(rules.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void evaluate(final List<Sentence> sentences, final BatchErrorListener listener) {
+
+        final TextBatch batch = batches.get().reset(sentences);
+        try {
+            if (pool == null || batch.getText().length() < parallelThreshold) {
+                final Forwarder forwarder = forwarders.get();
+                forwarder.batchListener = listener;
+                try {
+                    for (final Rule rule : rules) {
+                        forwarder.rule = rule;
+                        rule.findAll(batch, forwarder);
+                    }
+                } finally {
+                    forwarder.rule = null;
+                    forwarder.batchListener = null;
+                }
+                return;
+            }
+
+            final List<ForkJoinTask<Hits>> tasks = new ArrayList<>(rules.size());
+            for (final Rule rule : rules) {
+                tasks.add(pool.submit(() -> {
+                    final Hits hits = new Hits();
+                    rule.findAll(batch, hits);
+                    return hits;
+                }));
+            }
+            for (int i = 0; i < rules.size(); i++) {
+                tasks.get(i).join().replay(rules.get(i), listener);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Tags the positions of the rule being evaluated; reused per thread.
+     */
+    private static final class Forwarder implements PositionSink, BatchSink {
+
+        private Rule rule;
+        private ErrorListener listener;
+        private BatchErrorListener batchListener;
+
+        @Override
+        public void accept(final int start, final int end) {
+            listener.onError(rule, start, end);
+        }
+
+        @Override
+        public void accept(final int sentence, final int start, final int end) {
+            batchListener.onError(sentence, rule, start, end);
+        }
+
+        @Override
+        public void skip() {
+            listener.onSkipped(rule);
+        }
+
+        @Override
+        public void skip(final int sentence) {
+            batchListener.onSkipped(sentence, rule);
+        }
+    }
+
+}
@@ -0,0 +1,214 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Multi-pattern matcher that reports every occurrence of every word in one linear pass over the text.
+ */
+public final class AhoCorasick {
+
+    private static final int ROOT = 0;
+
+    private final int[] wordLengths;
+
+    private final int[] edgeOffsets;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] failures;
+
+    private final int[] outputOffsets;
+    private final int[] outputs;
+
+    private AhoCorasick(final List<String> words) {
+
+        final List<Map<Character, Integer>> trie = new ArrayList<>();
+        final List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(new ArrayList<>());
+
+        wordLengths = new int[words.size()];
+        for (int word = 0; word < words.size(); word++) {
+            final String text = words.get(word);
+            if (text.isEmpty()) {
+                throw new IllegalArgumentException("Lexicon words must not be empty.");
+            }
+            int state = ROOT;
+            for (int i = 0; i < text.length(); i++) {
+                Integer next = trie.get(state).get(text.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(text.charAt(i), next);
+                    trie.add(new TreeMap<>());
+                    ends.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            ends.get(state).add(word);
+            wordLengths[word] = text.length();
+        }
+
+        final int states = trie.size();
+        edgeOffsets = new int[states + 1];
+        for (int state = 0; state < states; state++) {
+            edgeOffsets[state + 1] = edgeOffsets[state] + trie.get(state).size();
+        }
+        edgeChars = new char[edgeOffsets[states]];
+        edgeTargets = new int[edgeOffsets[states]];
+        for (int state = 0; state < states; state++) {
+            int edge = edgeOffsets[state];
+            for (final Map.Entry<Character, Integer> entry : trie.get(state).entrySet()) {
+                edgeChars[edge] = entry.getKey();
+                edgeTargets[edge] = entry.getValue();
+                edge++;
+            }
+        }
+
+        // Breadth-first, so the failure state and its outputs are complete before they are inherited.
+        failures = new int[states];
+        final List<List<Integer>> inherited = new ArrayList<>(ends);
+        final Deque<Integer> queue = new ArrayDeque<>();
+        for (int edge = edgeOffsets[ROOT]; edge < edgeOffsets[ROOT + 1]; edge++) {
+            queue.add(edgeTargets[edge]);
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.poll();
+            for (int edge = edgeOffsets[state]; edge < edgeOffsets[state + 1]; edge++) {
+                final int child = edgeTargets[edge];
+                int fallback = failures[state];
+                int target = next(fallback, edgeChars[edge]);
+                while (target < 0 && fallback != ROOT) {
+                    fallback = failures[fallback];
+                    target = next(fallback, edgeChars[edge]);
+                }
+                failures[child] = target < 0 ? ROOT : target;
+
+                final List<Integer> merged = new ArrayList<>(ends.get(child));
+                merged.addAll(inherited.get(failures[child]));
+                inherited.set(child, merged);
+
+                queue.add(child);
+            }
+        }
+
+        outputOffsets = new int[states + 1];
+        for (int state = 0; state < states; state++) {
+            outputOffsets[state + 1] = outputOffsets[state] + inherited.get(state).size();
+        }
+        outputs = new int[outputOffsets[states]];
+        for (int state = 0; state < states; state++) {
+            int output = outputOffsets[state];
+            for (final int word : inherited.get(state)) {
+                outputs[output++] = word;
+            }
+        }
+    }
+
+    private AhoCorasick(final int[] wordLengths, final int[] edgeOffsets, final char[] edgeChars, final int[] edgeTargets,
+                        final int[] failures, final int[] outputOffsets, final int[] outputs) {
+        this.wordLengths = wordLengths;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.failures = failures;
+        this.outputOffsets = outputOffsets;
+        this.outputs = outputs;
+    }
+
+    public static AhoCorasick create(final List<String> words) {
+        return new AhoCorasick(words);
+    }
+
+    public static AhoCorasick create(final String... words) {
+        return new AhoCorasick(Arrays.asList(words));
+    }
+
+    /**
+     * Restores an automaton saved by {@link #write(DataOutput)}, without rebuilding the trie.
+     */
+    public static AhoCorasick read(final DataInput in) throws IOException {
+        return new AhoCorasick(
+                BinaryIO.readInts(in),
+                BinaryIO.readInts(in),
+                BinaryIO.readChars(in),
+                BinaryIO.readInts(in),
+                BinaryIO.readInts(in),
+                BinaryIO.readInts(in),
+                BinaryIO.readInts(in)
+        );
+    }
+
+    public void write(final DataOutput out) throws IOException {
+        BinaryIO.writeInts(out, wordLengths);
+        BinaryIO.writeInts(out, edgeOffsets);
+        BinaryIO.writeChars(out, edgeChars);
+        BinaryIO.writeInts(out, edgeTargets);
+        BinaryIO.writeInts(out, failures);
+        BinaryIO.writeInts(out, outputOffsets);
+        BinaryIO.writeInts(out, outputs);
+    }
+
+    public int size() {
+        return wordLengths.length;
+    }
+
+    public int length(final int word) {
+        return wordLengths[word];
+    }
+
+    /**
+     * Reports every (possibly overlapping) occurrence in {@code text[from, to)}, ordered by end offset.
+     */
+    public void scan(final CharSequence text, final int from, final int to, final Hit hit) {
+
+        int state = ROOT;
+        for (int i = from; i < to; i++) {
+            final char c = text.charAt(i);
+            int target = next(state, c);
+            while (target < 0 && state != ROOT) {
+                state = failures[state];
+                target = next(state, c);
+            }
+            state = target < 0 ? ROOT : target;
+
+            for (int output = outputOffsets[state]; output < outputOffsets[state + 1]; output++) {
+                final int word = outputs[output];
+                hit.accept(word, i + 1 - wordLengths[word], i + 1);
+            }
+        }
+    }
+
+    private int next(final int state, final char c) {
+
+        int low = edgeOffsets[state];
+        int high = edgeOffsets[state + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final char edge = edgeChars[mid];
+            if (edge < c) {
+                low = mid + 1;
+            } else if (edge > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    @FunctionalInterface
+    public interface Hit {
+
+        void accept(int word, int start, int end);
+
+    }
+
+}
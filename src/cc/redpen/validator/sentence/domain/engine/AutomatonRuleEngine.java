@@ -0,0 +1,402 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.metrics.RuleMetrics;
+import cc.redpen.validator.sentence.domain.model.ErrorCap;
+import cc.redpen.validator.sentence.domain.model.KatakanaPattern;
+import cc.redpen.validator.sentence.domain.model.PositionSink;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.TextBatch;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates every regex rule with one {@link MultiPatternMatcher} scan per sentence.
+ * <p>
+ * Rules without an {@link cc.redpen.validator.sentence.domain.model.ErrorPattern}, or whose pattern is outside the
+ * subset {@link RegexProgram} supports, are evaluated by their own finder, except {@link KatakanaPattern} rules: they
+ * share one {@link KatakanaRuns} pass instead, whatever their pattern.
+ * <p>
+ * The scan reports the rules interleaved, so positions are gathered in per-thread buffers, one per rule, and replayed
+ * in rule order. A {@link Rule#capped(ErrorCap) capped} rule keeps one
+ * position past its cap per sentence, as its finder would, and a scan whose rules are all capped ends once they are all
+ * full.
+ * <p>
+ * The time of the shared scans cannot be split by rule: it is recorded in its own {@link RuleMetrics}, and metered
+ * rules evaluated by the scans record their invocations and matches only.
+ */
+public final class AutomatonRuleEngine implements RuleEngine {
+
+    /**
+     * Positions a buffer may hold after a sentence; a larger one is dropped rather than kept by the thread.
+     */
+    private static final int KEPT_POSITIONS = 256;
+
+    @Getter
+    private final List<Rule> rules;
+
+    // ruleOfPattern[pattern] = index of the rule the pattern belongs to
+    private final int[] ruleOfPattern;
+    private final List<Integer> fallbacks = new ArrayList<>();
+
+    // rules checked on the katakana runs, and their patterns
+    private final int[] runRules;
+    private final KatakanaPattern[] runPatterns;
+
+    // limits[rule] = positions the rule keeps per sentence
+    private final int[] limits;
+
+    // whether every rule of the matcher scan, and of the run pass, is capped, so the scan may end early
+    private final boolean patternsCapped;
+    private final boolean runsCapped;
+
+    private final MultiPatternMatcher matcher;
+
+    private final ThreadLocal<Buffers> buffers;
+
+    private final ThreadLocal<BatchBuffers> batchBuffers;
+
+    private final ThreadLocal<TextBatch> batches = ThreadLocal.withInitial(TextBatch::create);
+
+    private final RuleMetrics scanMetrics;
+
+    // whether any metrics are recorded at all
+    private final boolean metered;
+
+    private AutomatonRuleEngine(final List<Rule> rules, final RuleMetrics scanMetrics) {
+
+        this.rules = rules;
+        this.scanMetrics = scanMetrics;
+        this.metered = scanMetrics != null || rules.stream().anyMatch(rule -> rule.getMetrics() != null);
+
+        final List<RegexProgram> programs = new ArrayList<>();
+        final List<Integer> owners = new ArrayList<>();
+        final List<Integer> runOwners = new ArrayList<>();
+        for (int rule = 0; rule < rules.size(); rule++) {
+            if (rules.get(rule).getFinder() instanceof KatakanaPattern) {
+                runOwners.add(rule);
+                continue;
+            }
+            final RegexProgram program = compile(rules.get(rule));
+            if (program == null) {
+                fallbacks.add(rule);
+            } else {
+                programs.add(program);
+                owners.add(rule);
+            }
+        }
+
+        this.ruleOfPattern = owners.stream().mapToInt(Integer::intValue).toArray();
+        this.runRules = runOwners.stream().mapToInt(Integer::intValue).toArray();
+        this.runPatterns = new KatakanaPattern[runRules.length];
+        for (int i = 0; i < runRules.length; i++) {
+            runPatterns[i] = (KatakanaPattern) rules.get(runRules[i]).getFinder();
+        }
+        this.limits = new int[rules.size()];
+        for (int rule = 0; rule < rules.size(); rule++) {
+            final ErrorCap cap = rules.get(rule).getCap();
+            limits[rule] = cap == null ? Integer.MAX_VALUE : cap.getMaxErrors() + 1;
+        }
+        this.patternsCapped = Arrays.stream(ruleOfPattern).allMatch(rule -> limits[rule] < Integer.MAX_VALUE);
+        this.runsCapped = Arrays.stream(runRules).allMatch(rule -> limits[rule] < Integer.MAX_VALUE);
+        this.matcher = MultiPatternMatcher.create(programs);
+        this.buffers = ThreadLocal.withInitial(Buffers::new);
+        this.batchBuffers = ThreadLocal.withInitial(BatchBuffers::new);
+    }
+
+    public static AutomatonRuleEngine create(final List<Rule> rules) {
+        return new AutomatonRuleEngine(rules, null);
+    }
+
+    /**
+     * @param scanMetrics where the shared scan is recorded, or {@code null}.
+     */
+    public static AutomatonRuleEngine create(final List<Rule> rules, final RuleMetrics scanMetrics) {
+        return new AutomatonRuleEngine(rules, scanMetrics);
+    }
+
+    private static RegexProgram compile(final Rule rule) {
+        return rule.getErrorPattern() == null ? null : rule.getErrorPattern().getProgram();
+    }
+
+    @Override
+    public void evaluate(final Sentence sentence, final ErrorListener listener) {
+
+        final Buffers buffers = this.buffers.get();
+        for (final ValidationResult result : buffers.results) {
+            result.clear();
+        }
+        buffers.fullPatterns = 0;
+        buffers.fullRuns = 0;
+
+        final long start = metered ? System.nanoTime() : 0;
+        scan(sentence.getContent(), 0, sentence.getContent().length(), buffers, buffers.runs);
+        if (metered) {
+            final long nanos = System.nanoTime() - start;
+            int matches = 0;
+            for (final int rule : ruleOfPattern) {
+                final int count = buffers.results[rule].getErrorCount();
+                matches += count;
+                recordScanned(rule, 1, count);
+            }
+            for (final int rule : runRules) {
+                final int count = buffers.results[rule].getErrorCount();
+                matches += count;
+                recordScanned(rule, 1, count);
+            }
+            recordScan(1, matches, nanos);
+        }
+
+        for (final int rule : fallbacks) {
+            rules.get(rule).findAll(sentence, buffers.results[rule]);
+        }
+
+        for (int rule = 0; rule < rules.size(); rule++) {
+            final ValidationResult result = buffers.results[rule];
+            for (int error = 0; error < result.getErrorCount(); error++) {
+                listener.onError(rules.get(rule), result.getStart(error), result.getEnd(error));
+            }
+            if (result.isSkipped()) {
+                listener.onSkipped(rules.get(rule));
+            }
+            if (result.getErrorCount() > KEPT_POSITIONS) {
+                buffers.results[rule] = ValidationResult.create();
+            }
+        }
+    }
+
+    @Override
+    public void evaluate(final List<Sentence> sentences, final BatchErrorListener listener) {
+
+        final TextBatch batch = batches.get().reset(sentences);
+        final BatchBuffers buffers = batchBuffers.get();
+        try {
+            for (final Hits hits : buffers.hits) {
+                hits.clear();
+            }
+
+            final long start = metered ? System.nanoTime() : 0;
+            for (int sentence = 0; sentence < batch.size(); sentence++) {
+                buffers.start(sentence, batch.getStart(sentence));
+                scan(batch.getText(), batch.getStart(sentence), batch.getEnd(sentence), buffers, buffers.runs);
+            }
+            if (metered) {
+                final long nanos = System.nanoTime() - start;
+                int matches = 0;
+                for (final int rule : ruleOfPattern) {
+                    final int count = buffers.hits[rule].size();
+                    matches += count;
+                    recordScanned(rule, batch.size(), count);
+                }
+                for (final int rule : runRules) {
+                    final int count = buffers.hits[rule].size();
+                    matches += count;
+                    recordScanned(rule, batch.size(), count);
+                }
+                recordScan(batch.size(), matches, nanos);
+            }
+
+            for (final int rule : fallbacks) {
+                rules.get(rule).findAll(batch, buffers.hits[rule]);
+            }
+
+            for (int rule = 0; rule < rules.size(); rule++) {
+                buffers.hits[rule].replay(rules.get(rule), listener);
+            }
+        } finally {
+            batch.clear();
+            for (int rule = 0; rule < rules.size(); rule++) {
+                if (buffers.hits[rule].size() > KEPT_POSITIONS) {
+                    buffers.hits[rule] = new Hits();
+                }
+            }
+        }
+    }
+
+    private void scan(final CharSequence text, final int from, final int to, final MultiPatternMatcher.Hit hit, final Runs runs) {
+        try {
+            matcher.scan(text, from, to, hit);
+        } catch (Full e) {
+            // every rule of the scan has its positions
+        }
+        if (runRules.length > 0) {
+            runs.scan(text, from, to);
+        }
+    }
+
+    private void recordScan(final int sentences, final int matches, final long nanos) {
+        if (scanMetrics != null) {
+            scanMetrics.record(sentences, matches, nanos);
+        }
+    }
+
+    private void recordScanned(final int rule, final int sentences, final int matches) {
+        final RuleMetrics metrics = rules.get(rule).getMetrics();
+        if (metrics != null) {
+            metrics.record(sentences, matches, -1);
+        }
+    }
+
+    /**
+     * Thrown through a scan once every rule of it is full; shared, as it carries no state.
+     */
+    private static final class Full extends RuntimeException {
+
+        private static final Full INSTANCE = new Full();
+
+        private Full() {
+            super("Every rule of the scan is full", null, false, false);
+        }
+    }
+
+    /**
+     * Per-thread position buffers, one per rule.
+     */
+    private final class Buffers implements MultiPatternMatcher.Hit {
+
+        private final ValidationResult[] results = new ValidationResult[rules.size()];
+
+        private final Runs runs;
+
+        // rules of the matcher scan, and of the run pass, that reached their limit in the sentence
+        private int fullPatterns;
+        private int fullRuns;
+
+        private Buffers() {
+            final PositionSink[] sinks = new PositionSink[runRules.length];
+            for (int rule = 0; rule < results.length; rule++) {
+                results[rule] = ValidationResult.create();
+            }
+            for (int i = 0; i < runRules.length; i++) {
+                final int rule = runRules[i];
+                sinks[i] = (start, end) -> {
+                    if (add(rule, start, end) && runsCapped && ++fullRuns == runRules.length) {
+                        throw Full.INSTANCE;
+                    }
+                };
+            }
+            runs = new Runs(sinks);
+        }
+
+        @Override
+        public void accept(final int pattern, final int start, final int end) {
+            if (add(ruleOfPattern[pattern], start, end) && patternsCapped && ++fullPatterns == ruleOfPattern.length) {
+                throw Full.INSTANCE;
+            }
+        }
+
+        /**
+         * @return whether the rule just reached its limit.
+         */
+        private boolean add(final int rule, final int start, final int end) {
+            final ValidationResult result = results[rule];
+            if (result.getErrorCount() >= limits[rule]) {
+                return false;
+            }
+            result.addErrorPosition(start, end);
+            return result.getErrorCount() == limits[rule];
+        }
+    }
+
+    /**
+     * Per-thread batch buffers, one per rule, tagging positions with the sentence being scanned.
+     */
+    private final class BatchBuffers implements MultiPatternMatcher.Hit {
+
+        private final Hits[] hits = new Hits[rules.size()];
+
+        private final Runs runs;
+
+        private int sentence;
+        private int offset;
+
+        // counts[rule] = positions of the rule in the sentence
+        private final int[] counts = new int[rules.size()];
+        private int fullPatterns;
+        private int fullRuns;
+
+        private BatchBuffers() {
+            final PositionSink[] sinks = new PositionSink[runRules.length];
+            for (int rule = 0; rule < hits.length; rule++) {
+                hits[rule] = new Hits();
+            }
+            for (int i = 0; i < runRules.length; i++) {
+                final int rule = runRules[i];
+                sinks[i] = (start, end) -> {
+                    if (add(rule, start, end) && runsCapped && ++fullRuns == runRules.length) {
+                        throw Full.INSTANCE;
+                    }
+                };
+            }
+            runs = new Runs(sinks);
+        }
+
+        private void start(final int sentence, final int offset) {
+            this.sentence = sentence;
+            this.offset = offset;
+            Arrays.fill(counts, 0);
+            fullPatterns = 0;
+            fullRuns = 0;
+        }
+
+        @Override
+        public void accept(final int pattern, final int start, final int end) {
+            if (add(ruleOfPattern[pattern], start, end) && patternsCapped && ++fullPatterns == ruleOfPattern.length) {
+                throw Full.INSTANCE;
+            }
+        }
+
+        /**
+         * @return whether the rule just reached its limit in the sentence.
+         */
+        private boolean add(final int rule, final int start, final int end) {
+            if (counts[rule] >= limits[rule]) {
+                return false;
+            }
+            hits[rule].accept(sentence, start - offset, end - offset);
+            return ++counts[rule] == limits[rule];
+        }
+    }
+
+    /**
+     * Per-thread pass over the katakana runs, checking each run against every run rule.
+     */
+    private final class Runs implements KatakanaRuns.Run {
+
+        // sinks[i] = where the errors of runRules[i] go
+        private final PositionSink[] sinks;
+
+        private CharSequence content;
+        private int from;
+        private int to;
+
+        private Runs(final PositionSink[] sinks) {
+            this.sinks = sinks;
+        }
+
+        private void scan(final CharSequence content, final int from, final int to) {
+            this.content = content;
+            this.from = from;
+            this.to = to;
+            try {
+                KatakanaRuns.scan(content, from, to, this);
+            } catch (Full e) {
+                // every run rule has its positions
+            } finally {
+                this.content = null;
+            }
+        }
+
+        @Override
+        public void accept(final int start, final int end, final int morae) {
+            for (int i = 0; i < runPatterns.length; i++) {
+                runPatterns[i].check(content, from, to, start, end, morae, sinks[i]);
+            }
+        }
+    }
+
+}
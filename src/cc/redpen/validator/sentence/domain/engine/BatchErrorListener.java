@@ -0,0 +1,20 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.validator.sentence.domain.model.Rule;
+
+/**
+ * Receives the errors of a batch of sentences, grouped by rule in rule order, then by sentence; offsets are relative
+ * to the sentence.
+ */
+@FunctionalInterface
+public interface BatchErrorListener {
+
+    void onError(int sentence, Rule rule, int start, int end);
+
+    /**
+     * {@code rule} gave up on {@code sentence}, as in {@link ErrorListener#onSkipped(Rule)}.
+     */
+    default void onSkipped(final int sentence, final Rule rule) {
+    }
+
+}
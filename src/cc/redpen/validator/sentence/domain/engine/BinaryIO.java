@@ -0,0 +1,53 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Length-prefixed primitive arrays for the binary snapshots of the automata.
+ */
+final class BinaryIO {
+
+    private BinaryIO() {
+    }
+
+    static void writeInts(final DataOutput out, final int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (final int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    static int[] readInts(final DataInput in) throws IOException {
+        final int[] values = new int[length(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    static void writeChars(final DataOutput out, final char[] values) throws IOException {
+        out.writeInt(values.length);
+        for (final char value : values) {
+            out.writeChar(value);
+        }
+    }
+
+    static char[] readChars(final DataInput in) throws IOException {
+        final char[] values = new char[length(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readChar();
+        }
+        return values;
+    }
+
+    private static int length(final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt snapshot: negative array length " + length);
+        }
+        return length;
+    }
+
+}
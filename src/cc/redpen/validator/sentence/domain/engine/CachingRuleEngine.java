@@ -0,0 +1,248 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.cache.ResultCache;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.TermPattern;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Looks every sentence up in a {@link ResultCache} before evaluating it with another engine, so repeated sentences
+ * are evaluated once.
+ */
+public final class CachingRuleEngine implements RuleEngine {
+
+    private static final int[] NO_ERRORS = new int[0];
+
+    private final RuleEngine engine;
+    private final ResultCache cache;
+
+    // identifies the rule set within the cache
+    private final long fingerprint;
+
+    private final ThreadLocal<Recorder> recorders = ThreadLocal.withInitial(Recorder::new);
+
+    private CachingRuleEngine(final RuleEngine engine, final ResultCache cache) {
+        this.engine = engine;
+        this.cache = cache;
+        this.fingerprint = fingerprint(engine.getRules());
+    }
+
+    public static CachingRuleEngine create(final RuleEngine engine, final ResultCache cache) {
+        return new CachingRuleEngine(engine, cache);
+    }
+
+    /**
+     * Hash of everything that decides the errors of the rules, so engines with the same rules share entries.
+     */
+    private static long fingerprint(final List<Rule> rules) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (final Rule rule : rules) {
+                for (final String part : Arrays.asList(
+                        rule.getName(), rule.getGroup().name(), source(rule), rule.getErrorMessage(), rule.getFinder().getClass().getName(),
+                        String.valueOf(rule.getCap() == null ? 0 : rule.getCap().getMaxErrors()))) {
+                    digest.update(part.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+            }
+            long fingerprint = 0;
+            for (final byte b : Arrays.copyOf(digest.digest(), 8)) {
+                fingerprint = (fingerprint << 8) | (b & 0xff);
+            }
+            return fingerprint;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * What the rule matches: its regex, or the term list it reads; the other finders are built in.
+     */
+    private static String source(final Rule rule) {
+        if (rule.getErrorPattern() != null) {
+            return rule.getErrorPattern().getRegex();
+        }
+        return rule.getFinder() instanceof TermPattern ? ((TermPattern) rule.getFinder()).getSource() : "";
+    }
+
+    @Override
+    public List<Rule> getRules() {
+        return engine.getRules();
+    }
+
+    @Override
+    public void evaluate(final Sentence sentence, final ErrorListener listener) {
+
+        final String content = sentence.getContent();
+        final int[] cached = cache.get(fingerprint, content);
+        if (cached != null) {
+            replay(cached, listener);
+            return;
+        }
+
+        // Errors reach the listener as they are found and are recorded on the way.
+        final Recorder recorder = recorders.get().reset(listener);
+        try {
+            engine.evaluate(sentence, recorder);
+            final boolean skipped = recorder.skipped;
+            final int[] errors = recorder.take();
+            // a time budget may not run out the next time
+            if (!skipped) {
+                cache.put(fingerprint, content, errors);
+            }
+        } finally {
+            recorder.listener = null;
+        }
+    }
+
+    private void replay(final int[] errors, final ErrorListener listener) {
+        final List<Rule> rules = getRules();
+        for (int i = 0; i < errors.length; i += 3) {
+            listener.onError(rules.get(errors[i]), errors[i + 1], errors[i + 2]);
+        }
+    }
+
+    /**
+     * Only the sentences missing from the cache are evaluated, as one batch; then every error is reported grouped by
+     * rule, then by sentence, as the listener expects.
+     */
+    @Override
+    public void evaluate(final List<Sentence> sentences, final BatchErrorListener listener) {
+
+        final int[][] errors = new int[sentences.size()][];
+        final List<Sentence> misses = new ArrayList<>();
+        final List<Integer> missIndexes = new ArrayList<>();
+        for (int i = 0; i < sentences.size(); i++) {
+            errors[i] = cache.get(fingerprint, sentences.get(i).getContent());
+            if (errors[i] == null) {
+                misses.add(sentences.get(i));
+                missIndexes.add(i);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            final BatchRecorder recorder = new BatchRecorder(misses.size());
+            engine.evaluate(misses, recorder);
+            for (int miss = 0; miss < misses.size(); miss++) {
+                final boolean skipped = recorder.sentences[miss].skipped;
+                final int[] missErrors = recorder.take(miss);
+                errors[missIndexes.get(miss)] = missErrors;
+                if (!skipped) {
+                    cache.put(fingerprint, misses.get(miss).getContent(), missErrors);
+                }
+            }
+        }
+
+        final List<Rule> rules = getRules();
+        final int[] cursors = new int[sentences.size()];
+        for (int rule = 0; rule < rules.size(); rule++) {
+            for (int sentence = 0; sentence < sentences.size(); sentence++) {
+                final int[] sentenceErrors = errors[sentence];
+                int cursor = cursors[sentence];
+                while (cursor < sentenceErrors.length && sentenceErrors[cursor] == rule) {
+                    if (sentenceErrors[cursor + 1] < 0) {
+                        listener.onSkipped(sentence, rules.get(rule));
+                    } else {
+                        listener.onError(sentence, rules.get(rule), sentenceErrors[cursor + 1], sentenceErrors[cursor + 2]);
+                    }
+                    cursor += 3;
+                }
+                cursors[sentence] = cursor;
+            }
+        }
+    }
+
+    /**
+     * Growable (rule index, start, end) buffer; rule indexes are found by walking forward, as errors arrive grouped
+     * by rule in rule order. A skip is recorded with a start of -1; such buffers are not cached.
+     */
+    private static class Triples {
+
+        int[] data = new int[24];
+        int size;
+        int rule;
+        boolean skipped;
+
+        void add(final List<Rule> rules, final Rule owner, final int start, final int end) {
+            while (rules.get(rule) != owner) {
+                rule++;
+            }
+            if (size + 3 > data.length) {
+                data = Arrays.copyOf(data, 2 * data.length);
+            }
+            data[size] = rule;
+            data[size + 1] = start;
+            data[size + 2] = end;
+            size += 3;
+        }
+
+        int[] take() {
+            final int[] taken = size == 0 ? NO_ERRORS : Arrays.copyOf(data, size);
+            size = 0;
+            rule = 0;
+            skipped = false;
+            return taken;
+        }
+    }
+
+    private final class Recorder extends Triples implements ErrorListener {
+
+        private ErrorListener listener;
+
+        private Recorder reset(final ErrorListener listener) {
+            this.listener = listener;
+            size = 0;
+            rule = 0;
+            skipped = false;
+            return this;
+        }
+
+        @Override
+        public void onError(final Rule owner, final int start, final int end) {
+            add(getRules(), owner, start, end);
+            listener.onError(owner, start, end);
+        }
+
+        @Override
+        public void onSkipped(final Rule owner) {
+            add(getRules(), owner, -1, -1);
+            skipped = true;
+            listener.onSkipped(owner);
+        }
+    }
+
+    private final class BatchRecorder implements BatchErrorListener {
+
+        private final Triples[] sentences;
+
+        private BatchRecorder(final int size) {
+            sentences = new Triples[size];
+            for (int i = 0; i < size; i++) {
+                sentences[i] = new Triples();
+            }
+        }
+
+        @Override
+        public void onError(final int sentence, final Rule owner, final int start, final int end) {
+            sentences[sentence].add(getRules(), owner, start, end);
+        }
+
+        @Override
+        public void onSkipped(final int sentence, final Rule owner) {
+            sentences[sentence].add(getRules(), owner, -1, -1);
+            sentences[sentence].skipped = true;
+        }
+
+        private int[] take(final int sentence) {
+            return sentences[sentence].take();
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of code points stored as sorted, disjoint, inclusive ranges.
+ */
+public final class CharClass {
+
+    static final int MAX = Character.MAX_CODE_POINT;
+
+    static final CharClass ALL = new CharClass(new int[]{0, MAX});
+
+    private final int[] ranges;
+
+    private CharClass(final int[] ranges) {
+        this.ranges = ranges;
+    }
+
+    public static CharClass of(final int codePoint) {
+        return new CharClass(new int[]{codePoint, codePoint});
+    }
+
+    /**
+     * @param ranges inclusive {@code low, high} pairs in any order, possibly overlapping.
+     */
+    public static CharClass ofRanges(final int... ranges) {
+
+        final int count = ranges.length / 2;
+        final long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = ((long) ranges[2 * i] << 32) | ranges[2 * i + 1];
+        }
+        Arrays.sort(sorted);
+
+        final List<Integer> merged = new ArrayList<>();
+        for (final long range : sorted) {
+            final int low = (int) (range >>> 32);
+            final int high = (int) range;
+            final int last = merged.size() - 1;
+            if (last > 0 && low <= merged.get(last) + 1) {
+                merged.set(last, Math.max(merged.get(last), high));
+            } else {
+                merged.add(low);
+                merged.add(high);
+            }
+        }
+
+        final int[] result = new int[merged.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = merged.get(i);
+        }
+        return new CharClass(result);
+    }
+
+    public CharClass union(final CharClass other) {
+        final int[] both = Arrays.copyOf(ranges, ranges.length + other.ranges.length);
+        System.arraycopy(other.ranges, 0, both, ranges.length, other.ranges.length);
+        return ofRanges(both);
+    }
+
+    public CharClass negate() {
+
+        final List<Integer> gaps = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (next < ranges[i]) {
+                gaps.add(next);
+                gaps.add(ranges[i] - 1);
+            }
+            next = ranges[i + 1] + 1;
+        }
+        if (next <= MAX) {
+            gaps.add(next);
+            gaps.add(MAX);
+        }
+
+        final int[] result = new int[gaps.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = gaps.get(i);
+        }
+        return new CharClass(result);
+    }
+
+    public boolean contains(final int codePoint) {
+
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (codePoint < ranges[2 * mid]) {
+                high = mid - 1;
+            } else if (codePoint > ranges[2 * mid + 1]) {
+                low = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static CharClass read(final DataInput in) throws IOException {
+        return new CharClass(BinaryIO.readInts(in));
+    }
+
+    void write(final DataOutput out) throws IOException {
+        BinaryIO.writeInts(out, ranges);
+    }
+
+    /**
+     * Inclusive {@code low, high} pairs, sorted and disjoint.
+     */
+    int[] ranges() {
+        return ranges;
+    }
+
+}
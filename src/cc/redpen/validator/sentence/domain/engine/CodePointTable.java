@@ -0,0 +1,114 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+/**
+ * Immutable lookup table giving every BMP character the set of character classes the style rules test.
+ * <p>
+ * A class test is one array load and a mask, instead of walking the members of a regex character class.
+ * Supplementary code points belong to none of the classes.
+ */
+public final class CodePointTable {
+
+    /**
+     * {@code [!-~]}: half-width ASCII graphic characters.
+     */
+    public static final int HALF_WIDTH = 1;
+
+    /**
+     * Half-width space.
+     */
+    public static final int SPACE = 1 << 1;
+
+    /**
+     * {@code [0-9]}.
+     */
+    public static final int DIGIT = 1 << 2;
+
+    /**
+     * {@code [Ａ-ｚ０-９]}: full-width letters and digits (the range includes ［＼］＾＿｀).
+     */
+    public static final int FULL_WIDTH_ALNUM = 1 << 3;
+
+    /**
+     * {@code [０-９]}.
+     */
+    public static final int FULL_WIDTH_DIGIT = 1 << 4;
+
+    /**
+     * {@code [｡-ﾟ]}: half-width katakana and punctuation.
+     */
+    public static final int HALF_WIDTH_KANA = 1 << 5;
+
+    /**
+     * Japanese punctuation that needs no space next to half-width characters: {@code ，、。．　『』「」（）【】｛｝〈〉‘’“”《》／：・}.
+     */
+    public static final int JP_PUNCTUATION = 1 << 6;
+
+    /**
+     * {@code (}.
+     */
+    public static final int OPEN_PARENTHESIS = 1 << 7;
+
+    /**
+     * {@code )}.
+     */
+    public static final int CLOSE_PARENTHESIS = 1 << 8;
+
+    /**
+     * {@code [\{\[\<「]}.
+     */
+    public static final int OPEN_BRACKET = 1 << 9;
+
+    /**
+     * {@code [\}\]\>」]}.
+     */
+    public static final int CLOSE_BRACKET = 1 << 10;
+
+    /**
+     * {@code [一二三四五六七八九十壱弐参拾百千万萬億兆〇]}: Chinese numerals.
+     */
+    public static final int CHINESE_NUMERAL = 1 << 11;
+
+    private static final short[] TABLE = new short[Character.MAX_VALUE + 1];
+
+    static {
+        range('!', '~', HALF_WIDTH);
+        range(' ', ' ', SPACE);
+        range('0', '9', DIGIT);
+        range('Ａ', 'ｚ', FULL_WIDTH_ALNUM);
+        range('０', '９', FULL_WIDTH_ALNUM | FULL_WIDTH_DIGIT);
+        range('｡', 'ﾟ', HALF_WIDTH_KANA);
+        chars("，、。．　『』「」（）【】｛｝〈〉‘’“”《》／：・", JP_PUNCTUATION);
+        chars("(", OPEN_PARENTHESIS);
+        chars(")", CLOSE_PARENTHESIS);
+        chars("{[<「", OPEN_BRACKET);
+        chars("}]>」", CLOSE_BRACKET);
+        chars("一二三四五六七八九十壱弐参拾百千万萬億兆〇", CHINESE_NUMERAL);
+    }
+
+    private CodePointTable() {
+    }
+
+    private static void range(final char low, final char high, final int type) {
+        for (int c = low; c <= high; c++) {
+            TABLE[c] |= type;
+        }
+    }
+
+    private static void chars(final String members, final int type) {
+        for (int i = 0; i < members.length(); i++) {
+            TABLE[members.charAt(i)] |= type;
+        }
+    }
+
+    /**
+     * @return the class bits of {@code c}.
+     */
+    public static int types(final char c) {
+        return TABLE[c];
+    }
+
+    public static boolean is(final char c, final int types) {
+        return (TABLE[c] & types) != 0;
+    }
+
+}
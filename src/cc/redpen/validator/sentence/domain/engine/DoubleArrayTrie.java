@@ -0,0 +1,296 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable double-array trie over a word list, answering the longest word that starts at an offset.
+ * <p>
+ * A state's children are at {@code base[state] + code}, where {@code code} is the rank of the char in the sorted
+ * alphabet of the words, and {@code check} holds the parent of each used slot. The whole trie is two int arrays and a
+ * byte array (the value of the word ending at each slot) of about the total length of the words, so thousands of words
+ * cost a few hundred kilobytes and a lookup reads one slot per char.
+ * <p>
+ * {@link #write(DataOutput)} stores the arrays in the layout {@link MappedDoubleArrayTrie} reads in place.
+ */
+public final class DoubleArrayTrie {
+
+    private static final int ROOT = 0;
+
+    // sorted; the code of alphabet[i] is i + 1
+    private final char[] alphabet;
+
+    private final int[] base;
+
+    // check[slot] = parent state + 1, or 0 if the slot is free
+    private final int[] check;
+
+    // values[state] = value of the word ending there, or 0
+    private final byte[] values;
+
+    private final int maxLength;
+
+    private DoubleArrayTrie(final char[] alphabet, final int[] base, final int[] check, final byte[] values, final int maxLength) {
+        this.alphabet = alphabet;
+        this.base = base;
+        this.check = check;
+        this.values = values;
+        this.maxLength = maxLength;
+    }
+
+    public static DoubleArrayTrie create(final Collection<String> words) {
+        final byte[] values = new byte[words.size()];
+        Arrays.fill(values, (byte) 1);
+        return create(words, values);
+    }
+
+    /**
+     * @param values the value of each word, in the order of {@code words}, from 1 to 127; a repeated word keeps its
+     *               last value.
+     */
+    public static DoubleArrayTrie create(final Collection<String> words, final byte[] values) {
+
+        final TreeSet<Character> chars = new TreeSet<>();
+        final Node root = new Node();
+        int maxLength = 0;
+        int index = 0;
+        for (final String word : words) {
+            final byte value = values[index++];
+            if (value <= 0) {
+                throw new IllegalArgumentException("Word values must be positive: " + word);
+            }
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                chars.add(word.charAt(i));
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+            }
+            if (word.length() > 0) {
+                node.value = value;
+            }
+            maxLength = Math.max(maxLength, word.length());
+        }
+        final char[] alphabet = new char[chars.size()];
+        int i = 0;
+        for (final char c : chars) {
+            alphabet[i++] = c;
+        }
+
+        final Builder builder = new Builder(alphabet, words.size() + 1);
+        builder.place(root);
+        return new DoubleArrayTrie(alphabet, Arrays.copyOf(builder.base, builder.size), Arrays.copyOf(builder.check, builder.size),
+                Arrays.copyOf(builder.values, builder.size), maxLength);
+    }
+
+    /**
+     * @return the length of the longest word at {@code content[from, to)}, or 0 if no word starts there.
+     */
+    public int match(final CharSequence content, final int from, final int to) {
+        int state = ROOT;
+        int longest = 0;
+        final int limit = Math.min(to, from + maxLength);
+        for (int position = from; position < limit; position++) {
+            final int code = Arrays.binarySearch(alphabet, content.charAt(position)) + 1;
+            if (code <= 0) {
+                break;
+            }
+            final int next = base[state] + code;
+            if (next >= check.length || check[next] != state + 1) {
+                break;
+            }
+            state = next;
+            if (values[state] != 0) {
+                longest = position - from + 1;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * @return the slots of the double array.
+     */
+    public int size() {
+        return check.length;
+    }
+
+    /**
+     * Writes the longest word length, the slot count, a code per BMP char (0 outside the alphabet), then the base,
+     * check and value arrays, unprefixed.
+     */
+    public void write(final DataOutput out) throws IOException {
+        out.writeInt(maxLength);
+        out.writeInt(check.length);
+        final char[] codes = new char[Character.MAX_VALUE + 1];
+        for (int i = 0; i < alphabet.length; i++) {
+            codes[alphabet[i]] = (char) (i + 1);
+        }
+        for (final char code : codes) {
+            out.writeChar(code);
+        }
+        for (final int value : base) {
+            out.writeInt(value);
+        }
+        for (final int value : check) {
+            out.writeInt(value);
+        }
+        out.write(values);
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> children = new TreeMap<>();
+        private byte value;
+    }
+
+    /**
+     * Places the states breadth first, each at the lowest base where all its children fit. The free slots are linked
+     * in order, so the search for a base only visits slots that can hold the first child.
+     */
+    private static final class Builder {
+
+        private final char[] alphabet;
+
+        private int[] base;
+        private int[] check;
+        private byte[] values;
+        private int size = 1;
+
+        // free slots, linked in increasing order; -1 ends the list
+        private int[] nextFree;
+        private int[] previousFree;
+        private int head = -1;
+        private int tail = -1;
+
+        // resume[n] = first child slot of the last state placed with n children
+        private final int[] resume;
+
+        private Builder(final char[] alphabet, final int capacity) {
+            this.alphabet = alphabet;
+            this.base = new int[Math.max(capacity, 16)];
+            this.check = new int[base.length];
+            this.values = new byte[base.length];
+            this.nextFree = new int[base.length];
+            this.previousFree = new int[base.length];
+            this.resume = new int[alphabet.length + 1];
+            link(ROOT + 1, base.length);
+        }
+
+        private void place(final Node root) {
+            final Deque<Node> nodes = new ArrayDeque<>();
+            final Deque<Integer> states = new ArrayDeque<>();
+            nodes.add(root);
+            states.add(ROOT);
+            while (!nodes.isEmpty()) {
+                final Node node = nodes.poll();
+                final int state = states.poll();
+                values[state] = node.value;
+                if (node.children.isEmpty()) {
+                    continue;
+                }
+                final int[] codes = new int[node.children.size()];
+                int i = 0;
+                for (final char c : node.children.keySet()) {
+                    codes[i++] = Arrays.binarySearch(alphabet, c) + 1;
+                }
+                final int b = findBase(codes);
+                base[state] = b;
+                for (final int code : codes) {
+                    check[b + code] = state + 1;
+                    unlink(b + code);
+                    size = Math.max(size, b + code + 1);
+                }
+                i = 0;
+                for (final Node child : node.children.values()) {
+                    nodes.add(child);
+                    states.add(b + codes[i++]);
+                }
+            }
+        }
+
+        private int findBase(final int[] codes) {
+            if (head < 0) {
+                grow(check.length + 1);
+            }
+            // A state with as many children rarely fits below where the last one did.
+            int from = head;
+            if (codes.length < resume.length && resume[codes.length] > head) {
+                from = resume[codes.length];
+                while (from < check.length && check[from] != 0) {
+                    from++;
+                }
+                if (from == check.length) {
+                    from = head;
+                }
+            }
+            search:
+            for (int position = from; ; position = nextFree[position]) {
+                if (nextFree[position] < 0) {
+                    // the last free slot: make room after it
+                    grow(check.length + 1);
+                }
+                final int b = position - codes[0];
+                if (b < 1) {
+                    continue;
+                }
+                grow(b + codes[codes.length - 1] + 1);
+                for (final int code : codes) {
+                    if (check[b + code] != 0) {
+                        continue search;
+                    }
+                }
+                if (codes.length < resume.length) {
+                    resume[codes.length] = position;
+                }
+                return b;
+            }
+        }
+
+        private void grow(final int length) {
+            if (length > check.length) {
+                final int previous = check.length;
+                final int capacity = Math.max(length, 2 * check.length);
+                base = Arrays.copyOf(base, capacity);
+                check = Arrays.copyOf(check, capacity);
+                values = Arrays.copyOf(values, capacity);
+                nextFree = Arrays.copyOf(nextFree, capacity);
+                previousFree = Arrays.copyOf(previousFree, capacity);
+                link(previous, capacity);
+            }
+        }
+
+        private void link(final int from, final int to) {
+            for (int slot = from; slot < to; slot++) {
+                previousFree[slot] = tail;
+                nextFree[slot] = -1;
+                if (tail < 0) {
+                    head = slot;
+                } else {
+                    nextFree[tail] = slot;
+                }
+                tail = slot;
+            }
+        }
+
+        private void unlink(final int slot) {
+            final int previous = previousFree[slot];
+            final int next = nextFree[slot];
+            if (previous < 0) {
+                head = next;
+            } else {
+                nextFree[previous] = next;
+            }
+            if (next < 0) {
+                tail = previous;
+            } else {
+                previousFree[next] = previous;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.validator.sentence.domain.model.Rule;
+
+/**
+ * Receives the errors of a sentence as a {@link RuleEngine} finds them, grouped by rule in rule order.
+ */
+@FunctionalInterface
+public interface ErrorListener {
+
+    void onError(Rule rule, int start, int end);
+
+    /**
+     * {@code rule} gave up on the sentence when its {@link cc.redpen.validator.sentence.domain.model.MatchBudget} ran
+     * out; called after the errors it found before.
+     */
+    default void onSkipped(final Rule rule) {
+    }
+
+}
@@ -0,0 +1,51 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.validator.sentence.domain.model.BatchSink;
+import cc.redpen.validator.sentence.domain.model.Rule;
+
+/**
+ * Growable buffer of (sentence, start, end) triples found by one rule in a batch; a skipped sentence is recorded with
+ * a start of -1.
+ */
+final class Hits implements BatchSink {
+
+    private int[] data = new int[24];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    @Override
+    public void skip(final int sentence) {
+        accept(sentence, -1, -1);
+    }
+
+    @Override
+    public void accept(final int sentence, final int start, final int end) {
+        if (3 * size == data.length) {
+            final int[] grown = new int[2 * data.length];
+            System.arraycopy(data, 0, grown, 0, data.length);
+            data = grown;
+        }
+        data[3 * size] = sentence;
+        data[3 * size + 1] = start;
+        data[3 * size + 2] = end;
+        size++;
+    }
+
+    void replay(final Rule rule, final BatchErrorListener listener) {
+        for (int i = 0; i < size; i++) {
+            if (data[3 * i + 1] < 0) {
+                listener.onSkipped(data[3 * i], rule);
+            } else {
+                listener.onError(data[3 * i], rule, data[3 * i + 1], data[3 * i + 2]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+/**
+ * Single-pass extractor of katakana runs: maximal sequences of full-width katakana ({@code ァ-ヺ}) and long vowel
+ * marks ({@code ー}).
+ * <p>
+ * The morae of a run are counted while it is read: every character counts, the long vowel mark included, except the
+ * small kana that join the previous one ({@code ッ}, {@code ャュョ}, {@code ァィゥェォ} and {@code ヮ}). Each run is
+ * reported once, with its offsets and morae, so rules over katakana words share one scan.
+ */
+public final class KatakanaRuns {
+
+    /**
+     * Long vowel mark.
+     */
+    public static final char LONG_VOWEL = 'ー';
+
+    private static final char FIRST = 'ァ';
+    private static final char LAST = 'ヺ';
+
+    // VOWELS[c - FIRST] = the vowel the kana ends with, or 0 (ン)
+    private static final char[] VOWELS = new char[LAST - FIRST + 1];
+
+    private static final String SMALL = "ァィゥェォッャュョヮ";
+
+    static {
+        vowel('a', "ァアカガサザタダナハバパマャヤラヮワヵヷ");
+        vowel('i', "ィイキギシジチヂニヒビピミリヰヸ");
+        vowel('u', "ゥウクグスズッツヅヌフブプムュユルヴ");
+        vowel('e', "ェエケゲセゼテデネヘベペメレヱヶヹ");
+        vowel('o', "ォオコゴソゾトドノホボポモョヨロヲヺ");
+    }
+
+    private KatakanaRuns() {
+    }
+
+    /**
+     * Receives the runs of a scan, in order.
+     */
+    public interface Run {
+
+        /**
+         * @param start offset of the first character.
+         * @param end   offset after the last character.
+         * @param morae the morae of {@code content[start, end)}.
+         */
+        void accept(int start, int end, int morae);
+    }
+
+    /**
+     * Reports every run of {@code content[from, to)} to {@code run}.
+     */
+    public static void scan(final CharSequence content, final int from, final int to, final Run run) {
+
+        int position = from;
+        while (position < to) {
+            if (!isKatakana(content.charAt(position))) {
+                position++;
+                continue;
+            }
+            final int start = position;
+            int morae = 0;
+            char c;
+            while (position < to && isKatakana(c = content.charAt(position))) {
+                if (SMALL.indexOf(c) < 0) {
+                    morae++;
+                }
+                position++;
+            }
+            run.accept(start, position, morae);
+        }
+    }
+
+    public static boolean isKatakana(final char c) {
+        return (FIRST <= c && c <= LAST) || c == LONG_VOWEL;
+    }
+
+    /**
+     * @return the vowel ({@code a}, {@code i}, {@code u}, {@code e} or {@code o}) that {@code c} is read with, or 0 if
+     * it is not a katakana with a vowel.
+     */
+    public static char vowel(final char c) {
+        return FIRST <= c && c <= LAST ? VOWELS[c - FIRST] : 0;
+    }
+
+    private static void vowel(final char vowel, final String kana) {
+        for (int i = 0; i < kana.length(); i++) {
+            VOWELS[kana.charAt(i) - FIRST] = vowel;
+        }
+    }
+
+}
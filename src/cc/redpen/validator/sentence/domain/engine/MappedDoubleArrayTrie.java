@@ -0,0 +1,110 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A {@link DoubleArrayTrie} read in place from the layout {@link DoubleArrayTrie#write(java.io.DataOutput)} stores,
+ * typically a read-only file mapping.
+ * <p>
+ * Nothing is copied onto the heap: a lookup reads the char code table and the arrays by absolute index, which neither
+ * allocates nor moves a buffer position, so one instance serves any number of threads, and processes mapping the same
+ * file share its pages.
+ */
+public final class MappedDoubleArrayTrie {
+
+    private static final int ROOT = 0;
+
+    // codes.get(c) = code of c, or 0 outside the alphabet
+    private final CharBuffer codes;
+
+    private final IntBuffer base;
+
+    // check.get(slot) = parent state + 1, or 0 if the slot is free
+    private final IntBuffer check;
+
+    private final ByteBuffer values;
+
+    private final int maxLength;
+
+    private final int slots;
+
+    private MappedDoubleArrayTrie(final CharBuffer codes, final IntBuffer base, final IntBuffer check, final ByteBuffer values, final int maxLength, final int slots) {
+        this.codes = codes;
+        this.base = base;
+        this.check = check;
+        this.values = values;
+        this.maxLength = maxLength;
+        this.slots = slots;
+    }
+
+    /**
+     * Maps the trie at the position of {@code buffer}, and moves the position past it.
+     *
+     * @throws IllegalArgumentException if the buffer is shorter than the trie it announces.
+     */
+    public static MappedDoubleArrayTrie map(final ByteBuffer buffer) {
+
+        final int maxLength = buffer.getInt();
+        final int slots = buffer.getInt();
+        final long length = 2L * (Character.MAX_VALUE + 1) + 9L * slots;
+        if (maxLength < 0 || slots <= 0 || buffer.remaining() < length) {
+            throw new IllegalArgumentException("Truncated double-array trie");
+        }
+        final CharBuffer codes = region(buffer, 2 * (Character.MAX_VALUE + 1)).asCharBuffer();
+        final IntBuffer base = region(buffer, 4 * slots).asIntBuffer();
+        final IntBuffer check = region(buffer, 4 * slots).asIntBuffer();
+        final ByteBuffer values = region(buffer, slots);
+        return new MappedDoubleArrayTrie(codes, base, check, values, maxLength, slots);
+    }
+
+    private static ByteBuffer region(final ByteBuffer buffer, final int length) {
+        final ByteBuffer region = buffer.duplicate();
+        region.limit(region.position() + length);
+        buffer.position(buffer.position() + length);
+        return region.slice().order(buffer.order());
+    }
+
+    /**
+     * @return the longest word at {@code content[from, to)} as {@code length << 8 | value}, or 0 if no word starts
+     * there; see {@link #length(int)} and {@link #value(int)}.
+     */
+    public int match(final CharSequence content, final int from, final int to) {
+        int state = ROOT;
+        int longest = 0;
+        final int limit = Math.min(to, from + maxLength);
+        for (int position = from; position < limit; position++) {
+            final int code = codes.get(content.charAt(position));
+            if (code == 0) {
+                break;
+            }
+            final int next = base.get(state) + code;
+            if (next >= slots || next < 0 || check.get(next) != state + 1) {
+                break;
+            }
+            state = next;
+            final int value = values.get(state);
+            if (value != 0) {
+                longest = (position - from + 1) << 8 | value & 0xff;
+            }
+        }
+        return longest;
+    }
+
+    public static int length(final int match) {
+        return match >>> 8;
+    }
+
+    public static int value(final int match) {
+        return match & 0xff;
+    }
+
+    /**
+     * @return the slots of the double array.
+     */
+    public int size() {
+        return slots;
+    }
+
+}
@@ -0,0 +1,143 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.model.Rule;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps another engine's rules off the URLs, paths, code and identifiers of a sentence, as found by a
+ * {@link TextMask}.
+ * <p>
+ * The gaps between the spans are evaluated as one batch, each gap as the whole input, so a rule never reads a span nor
+ * pairs one of its chars with the prose around; the offsets are moved back to the sentence. A rule skipping several
+ * gaps of a sentence skips it once. A sentence without spans is passed on as it is.
+ */
+public final class MaskingRuleEngine implements RuleEngine {
+
+    private final RuleEngine engine;
+
+    private final ThreadLocal<TextMask> masks;
+
+    private MaskingRuleEngine(final RuleEngine engine, final Set<TextMask.Kind> kinds) {
+        this.engine = engine;
+        final Set<TextMask.Kind> copy = EnumSet.copyOf(kinds);
+        this.masks = ThreadLocal.withInitial(() -> TextMask.create(copy));
+    }
+
+    /**
+     * @param kinds what to mask; not empty.
+     */
+    public static MaskingRuleEngine create(final RuleEngine engine, final Set<TextMask.Kind> kinds) {
+        return new MaskingRuleEngine(engine, kinds);
+    }
+
+    @Override
+    public List<Rule> getRules() {
+        return engine.getRules();
+    }
+
+    @Override
+    public void evaluate(final Sentence sentence, final ErrorListener listener) {
+
+        final TextMask mask = masks.get().reset(sentence.getContent());
+        if (mask.isEmpty()) {
+            engine.evaluate(sentence, listener);
+            return;
+        }
+
+        final Gaps gaps = new Gaps();
+        gaps.add(0, sentence, mask);
+        if (gaps.sentences.isEmpty()) {
+            return;
+        }
+        engine.evaluate(gaps.sentences, new BatchErrorListener() {
+
+            private Rule skipped;
+
+            @Override
+            public void onError(final int gap, final Rule rule, final int start, final int end) {
+                final int offset = gaps.offsets.get(gap);
+                listener.onError(rule, offset + start, offset + end);
+            }
+
+            @Override
+            public void onSkipped(final int gap, final Rule rule) {
+                if (rule != skipped) {
+                    skipped = rule;
+                    listener.onSkipped(rule);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void evaluate(final List<Sentence> sentences, final BatchErrorListener listener) {
+
+        final TextMask mask = masks.get();
+        final Gaps gaps = new Gaps();
+        for (int i = 0; i < sentences.size(); i++) {
+            gaps.add(i, sentences.get(i), mask.reset(sentences.get(i).getContent()));
+        }
+
+        engine.evaluate(gaps.sentences, new BatchErrorListener() {
+
+            private Rule skippedRule;
+            private int skippedSentence = -1;
+
+            @Override
+            public void onError(final int gap, final Rule rule, final int start, final int end) {
+                final int offset = gaps.offsets.get(gap);
+                listener.onError(gaps.owners.get(gap), rule, offset + start, offset + end);
+            }
+
+            @Override
+            public void onSkipped(final int gap, final Rule rule) {
+                final int sentence = gaps.owners.get(gap);
+                if (rule != skippedRule || sentence != skippedSentence) {
+                    skippedRule = rule;
+                    skippedSentence = sentence;
+                    listener.onSkipped(sentence, rule);
+                }
+            }
+        });
+    }
+
+    /**
+     * The unmasked, non-empty parts of sentences, in order, with the sentence and offset each comes from.
+     */
+    private static final class Gaps {
+
+        private final List<Sentence> sentences = new ArrayList<>();
+        private final List<Integer> owners = new ArrayList<>();
+        private final List<Integer> offsets = new ArrayList<>();
+
+        private void add(final int owner, final Sentence sentence, final TextMask mask) {
+            if (mask.isEmpty()) {
+                add(owner, sentence, 0);
+                return;
+            }
+            final String content = sentence.getContent();
+            int start = 0;
+            for (int span = 0; span <= mask.size(); span++) {
+                final int end = span < mask.size() ? mask.getStart(span) : content.length();
+                if (start < end) {
+                    add(owner, new Sentence(content.substring(start, end), sentence.getLineNumber()), start);
+                }
+                if (span < mask.size()) {
+                    start = mask.getEnd(span);
+                }
+            }
+        }
+
+        private void add(final int owner, final Sentence sentence, final int offset) {
+            sentences.add(sentence);
+            owners.add(owner);
+            offsets.add(offset);
+        }
+    }
+
+}
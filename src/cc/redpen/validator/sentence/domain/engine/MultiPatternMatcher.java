@@ -0,0 +1,319 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs several {@link RegexProgram}s over a text in one left-to-right scan.
+ * <p>
+ * Each code point is decoded once. A table built from the programs' start sets tells which patterns can begin at
+ * that code point, so only those and the ones with live threads are stepped. Every pattern keeps its own Pike VM
+ * state and reports the same leftmost-first, non-overlapping matches as {@link java.util.regex.Matcher#find()},
+ * tagged with the index of the pattern that produced them.
+ * <p>
+ * A {@link Hit} must not start another scan of the same matcher on its thread.
+ */
+public final class MultiPatternMatcher {
+
+    private static final int[] NONE = new int[0];
+
+    private final RegexProgram[] programs;
+
+    // code points in [boundaries[i], boundaries[i + 1]) can start the patterns in starters[i]
+    private final int[] boundaries;
+    private final int[][] starters;
+
+    private final ThreadLocal<Scratch> scratches;
+
+    private MultiPatternMatcher(final List<RegexProgram> programs) {
+
+        this.programs = programs.toArray(new RegexProgram[0]);
+
+        final List<Integer> points = new ArrayList<>();
+        points.add(0);
+        for (final RegexProgram program : this.programs) {
+            final int[] ranges = program.starts.ranges();
+            for (int i = 0; i < ranges.length; i += 2) {
+                points.add(ranges[i]);
+                if (ranges[i + 1] < CharClass.MAX) {
+                    points.add(ranges[i + 1] + 1);
+                }
+            }
+        }
+        boundaries = points.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+
+        starters = new int[boundaries.length][];
+        for (int segment = 0; segment < boundaries.length; segment++) {
+            final List<Integer> patterns = new ArrayList<>();
+            for (int pattern = 0; pattern < this.programs.length; pattern++) {
+                if (this.programs[pattern].starts.contains(boundaries[segment])) {
+                    patterns.add(pattern);
+                }
+            }
+            starters[segment] = patterns.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        scratches = ThreadLocal.withInitial(Scratch::new);
+    }
+
+    public static MultiPatternMatcher create(final List<RegexProgram> programs) {
+        return new MultiPatternMatcher(programs);
+    }
+
+    public int size() {
+        return programs.length;
+    }
+
+    /**
+     * Reports the matches of every pattern in {@code text}, each pattern's matches in increasing order.
+     */
+    public void scan(final CharSequence text, final Hit hit) {
+        scan(text, 0, text.length(), hit);
+    }
+
+    /**
+     * Reports the matches of every pattern in {@code text[from, to)} as if that region were the whole input.
+     */
+    public void scan(final CharSequence text, final int from, final int to, final Hit hit) {
+
+        final Scratch scratch = scratches.get();
+        final Search[] searches = scratch.searches;
+        final boolean[] live = scratch.live;
+        final int[] active = scratch.active;
+        int activeCount = 0;
+
+        for (final Search search : searches) {
+            search.reset(text, to, hit);
+        }
+        Arrays.fill(live, false);
+
+        try {
+            int position = from;
+            while (true) {
+                final int codePoint = position < to ? codePointAt(text, position, to) : -1;
+
+                final int[] starting = codePoint < 0 ? NONE : starters[segmentOf(codePoint)];
+                for (final int pattern : starting) {
+                    if (!live[pattern]) {
+                        live[pattern] = true;
+                        active[activeCount++] = pattern;
+                    }
+                }
+
+                int kept = 0;
+                for (int i = 0; i < activeCount; i++) {
+                    final int pattern = active[i];
+                    searches[pattern].process(position);
+                    if (searches[pattern].isIdle()) {
+                        live[pattern] = false;
+                    } else {
+                        active[kept++] = pattern;
+                    }
+                }
+                activeCount = kept;
+
+                if (position >= to) {
+                    return;
+                }
+                position += Character.charCount(codePoint);
+            }
+        } finally {
+            // Do not keep the text and the callback reachable from the thread.
+            for (final Search search : searches) {
+                search.reset(null, 0, null);
+            }
+        }
+    }
+
+    private int segmentOf(final int codePoint) {
+        int index = Arrays.binarySearch(boundaries, codePoint);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index;
+    }
+
+    private static int codePointAt(final CharSequence text, final int index, final int limit) {
+        final char high = text.charAt(index);
+        if (Character.isHighSurrogate(high) && index + 1 < limit) {
+            final char low = text.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) {
+                return Character.toCodePoint(high, low);
+            }
+        }
+        return high;
+    }
+
+    @FunctionalInterface
+    public interface Hit {
+
+        void accept(int pattern, int start, int end);
+
+    }
+
+    /**
+     * Per-thread VM state of every pattern.
+     */
+    private final class Scratch {
+
+        private final Search[] searches = new Search[programs.length];
+        private final boolean[] live = new boolean[programs.length];
+        private final int[] active = new int[programs.length];
+
+        private Scratch() {
+            for (int pattern = 0; pattern < programs.length; pattern++) {
+                searches[pattern] = new Search(programs[pattern], pattern);
+            }
+        }
+    }
+
+    /**
+     * Pike VM state of one pattern: the threads alive at the current position and the best match found so far.
+     */
+    private static final class Search {
+
+        private final RegexProgram program;
+        private final int pattern;
+        private CharSequence text;
+        private int to;
+        private Hit hit;
+
+        private Threads current;
+        private Threads next;
+
+        private boolean matched;
+        private int matchStart;
+        private int matchEnd;
+
+        private Search(final RegexProgram program, final int pattern) {
+            this.program = program;
+            this.pattern = pattern;
+            this.current = new Threads(program.size());
+            this.next = new Threads(program.size());
+        }
+
+        private void reset(final CharSequence text, final int to, final Hit hit) {
+            this.text = text;
+            this.to = to;
+            this.hit = hit;
+            this.current.clear();
+            this.next.clear();
+            this.matched = false;
+        }
+
+        private boolean isIdle() {
+            return !matched && current.size == 0;
+        }
+
+        private void process(final int position) {
+            step(position);
+            while (matched && current.size == 0) {
+                hit.accept(pattern, matchStart, matchEnd);
+                matched = false;
+
+                // The next search starts where the match ended, which may be behind the scan: replay that gap.
+                int replay = matchEnd == matchStart ? advance(matchEnd) : matchEnd;
+                while (replay <= position && !(matched && current.size == 0)) {
+                    step(replay);
+                    replay = advance(replay);
+                }
+            }
+        }
+
+        private int advance(final int position) {
+            return position < to ? position + Character.charCount(codePointAt(text, position, to)) : to + 1;
+        }
+
+        private void step(final int position) {
+
+            final int codePoint = position < to ? codePointAt(text, position, to) : -1;
+
+            if (!matched && (codePoint < 0 || program.starts.contains(codePoint))) {
+                add(current, 0, position);
+            }
+            if (current.size == 0) {
+                return;
+            }
+
+            next.clear();
+            for (int i = 0; i < current.size; i++) {
+                final int pc = current.pcs[i];
+                final int opcode = program.opcodes[pc];
+                if (opcode == RegexProgram.MATCH) {
+                    matched = true;
+                    matchStart = current.starts[i];
+                    matchEnd = position;
+                    // Lower-priority threads lose to this match.
+                    break;
+                }
+                if (codePoint >= 0 && program.classes[pc].contains(codePoint)) {
+                    add(next, pc + 1, current.starts[i]);
+                }
+            }
+
+            final Threads swap = current;
+            current = next;
+            next = swap;
+            if (codePoint < 0) {
+                current.clear();
+            }
+        }
+
+        private void add(final Threads threads, final int pc, final int start) {
+            if (threads.contains(pc)) {
+                return;
+            }
+            threads.mark(pc);
+            switch (program.opcodes[pc]) {
+                case RegexProgram.SPLIT:
+                    add(threads, program.first[pc], start);
+                    add(threads, program.second[pc], start);
+                    return;
+                case RegexProgram.JUMP:
+                    add(threads, program.first[pc], start);
+                    return;
+                default:
+                    threads.push(pc, start);
+            }
+        }
+    }
+
+    /**
+     * Ordered thread list with a generation-stamped membership set, so clearing is O(1).
+     */
+    private static final class Threads {
+
+        private final int[] pcs;
+        private final int[] starts;
+        private final int[] marks;
+        private int generation = 1;
+        private int size;
+
+        private Threads(final int capacity) {
+            pcs = new int[capacity];
+            starts = new int[capacity];
+            marks = new int[capacity];
+        }
+
+        private boolean contains(final int pc) {
+            return marks[pc] == generation;
+        }
+
+        private void mark(final int pc) {
+            marks[pc] = generation;
+        }
+
+        private void push(final int pc, final int start) {
+            pcs[size] = pc;
+            starts[size] = start;
+            size++;
+        }
+
+        private void clear() {
+            size = 0;
+            generation++;
+        }
+    }
+
+}
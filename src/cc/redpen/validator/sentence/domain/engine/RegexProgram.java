@@ -0,0 +1,380 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thompson NFA compiled from the subset of {@link java.util.regex.Pattern} syntax the style rules use: literals,
+ * escapes, character classes, {@code .}, groups, alternation and the greedy {@code * + ?} quantifiers.
+ * <p>
+ * Alternatives keep their left-to-right priority, so a Pike VM over the program finds the same matches as
+ * {@link java.util.regex.Matcher#find()}. Anything outside the subset is rejected with an
+ * {@link IllegalArgumentException} so callers can fall back to the regex.
+ */
+public final class RegexProgram {
+
+    static final int CLASS = 0;
+    static final int SPLIT = 1;
+    static final int JUMP = 2;
+    static final int MATCH = 3;
+
+    private static final CharClass DOT = CharClass.ofRanges('\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029).negate();
+    private static final CharClass DIGIT = CharClass.ofRanges('0', '9');
+    private static final CharClass SPACE = CharClass.ofRanges('\t', '\r', ' ', ' ');
+    private static final CharClass WORD = CharClass.ofRanges('a', 'z', 'A', 'Z', '0', '9', '_', '_');
+
+    final int[] opcodes;
+    final int[] first;
+    final int[] second;
+    final CharClass[] classes;
+
+    /**
+     * Code points that can start a match; every code point when the pattern matches the empty string.
+     */
+    final CharClass starts;
+
+    private RegexProgram(final Compiler compiler) {
+        final int size = compiler.opcodes.size();
+        opcodes = new int[size];
+        first = new int[size];
+        second = new int[size];
+        classes = new CharClass[size];
+        for (int pc = 0; pc < size; pc++) {
+            opcodes[pc] = compiler.opcodes.get(pc);
+            first[pc] = compiler.first.get(pc);
+            second[pc] = compiler.second.get(pc);
+            classes[pc] = compiler.classes.get(pc);
+        }
+        starts = startsOf(0, new boolean[size]);
+    }
+
+    private RegexProgram(final int[] opcodes, final int[] first, final int[] second, final CharClass[] classes, final CharClass starts) {
+        this.opcodes = opcodes;
+        this.first = first;
+        this.second = second;
+        this.classes = classes;
+        this.starts = starts;
+    }
+
+    public static RegexProgram compile(final String regex) {
+        final Compiler compiler = new Compiler(regex);
+        compiler.compile();
+        return new RegexProgram(compiler);
+    }
+
+    /**
+     * Restores a program saved by {@link #write(DataOutput)}, without parsing the regex.
+     */
+    public static RegexProgram read(final DataInput in) throws IOException {
+        final int[] opcodes = BinaryIO.readInts(in);
+        final int[] first = BinaryIO.readInts(in);
+        final int[] second = BinaryIO.readInts(in);
+        if (first.length != opcodes.length || second.length != opcodes.length) {
+            throw new IOException("Corrupt snapshot: inconsistent program");
+        }
+        final CharClass[] classes = new CharClass[opcodes.length];
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            if (in.readBoolean()) {
+                classes[pc] = CharClass.read(in);
+            }
+        }
+        return new RegexProgram(opcodes, first, second, classes, CharClass.read(in));
+    }
+
+    public void write(final DataOutput out) throws IOException {
+        BinaryIO.writeInts(out, opcodes);
+        BinaryIO.writeInts(out, first);
+        BinaryIO.writeInts(out, second);
+        for (final CharClass charClass : classes) {
+            out.writeBoolean(charClass != null);
+            if (charClass != null) {
+                charClass.write(out);
+            }
+        }
+        starts.write(out);
+    }
+
+    int size() {
+        return opcodes.length;
+    }
+
+    private CharClass startsOf(final int pc, final boolean[] visited) {
+        if (visited[pc]) {
+            return CharClass.ofRanges();
+        }
+        visited[pc] = true;
+        switch (opcodes[pc]) {
+            case CLASS:
+                return classes[pc];
+            case SPLIT:
+                return startsOf(first[pc], visited).union(startsOf(second[pc], visited));
+            case JUMP:
+                return startsOf(first[pc], visited);
+            default:
+                return CharClass.ALL;
+        }
+    }
+
+    /**
+     * Recursive-descent parser that emits instructions as it goes.
+     */
+    private static final class Compiler {
+
+        private final String regex;
+        private int position;
+
+        private final List<Integer> opcodes = new ArrayList<>();
+        private final List<Integer> first = new ArrayList<>();
+        private final List<Integer> second = new ArrayList<>();
+        private final List<CharClass> classes = new ArrayList<>();
+
+        private Compiler(final String regex) {
+            this.regex = regex;
+        }
+
+        private void compile() {
+            alternation();
+            if (position < regex.length()) {
+                throw unsupported();
+            }
+            emit(MATCH, 0, 0, null);
+        }
+
+        private void alternation() {
+            final List<Integer> jumps = new ArrayList<>();
+            int split = emit(SPLIT, 0, 0, null);
+            first.set(split, split + 1);
+            concatenation();
+            while (peek() == '|') {
+                position++;
+                jumps.add(emit(JUMP, 0, 0, null));
+                second.set(split, opcodes.size());
+                split = emit(SPLIT, 0, 0, null);
+                first.set(split, split + 1);
+                concatenation();
+            }
+            // The last alternative has nothing to fall back to.
+            second.set(split, split + 1);
+            for (final int jump : jumps) {
+                first.set(jump, opcodes.size());
+            }
+        }
+
+        private void concatenation() {
+            while (position < regex.length() && peek() != '|' && peek() != ')') {
+                repetition();
+            }
+        }
+
+        private void repetition() {
+            final int start = opcodes.size();
+            atom();
+            final int c = peek();
+            if (c != '+' && c != '*' && c != '?') {
+                if (c == '{') {
+                    throw unsupported();
+                }
+                return;
+            }
+            position++;
+            final int next = peek();
+            if (next == '+' || next == '*' || next == '?' || next == '{') {
+                throw unsupported();
+            }
+            switch (c) {
+                case '+':
+                    emit(SPLIT, start, opcodes.size() + 1, null);
+                    break;
+                case '*':
+                    insertSplit(start);
+                    emit(JUMP, start, 0, null);
+                    second.set(start, opcodes.size());
+                    break;
+                default:
+                    insertSplit(start);
+                    second.set(start, opcodes.size());
+                    break;
+            }
+        }
+
+        private void atom() {
+            final int c = next();
+            switch (c) {
+                case '(':
+                    if (peek() == '?') {
+                        position++;
+                        if (next() != ':') {
+                            throw unsupported();
+                        }
+                    }
+                    alternation();
+                    if (next() != ')') {
+                        throw unsupported();
+                    }
+                    return;
+                case '[':
+                    emit(CLASS, 0, 0, characterClass());
+                    return;
+                case '.':
+                    emit(CLASS, 0, 0, DOT);
+                    return;
+                case '\\':
+                    emit(CLASS, 0, 0, escape());
+                    return;
+                case '^':
+                case '$':
+                case ')':
+                case '{':
+                case '*':
+                case '+':
+                case '?':
+                case -1:
+                    throw unsupported();
+                default:
+                    emit(CLASS, 0, 0, CharClass.of(c));
+            }
+        }
+
+        private CharClass characterClass() {
+            final boolean negated = peek() == '^';
+            if (negated) {
+                position++;
+            }
+            CharClass result = CharClass.ofRanges();
+            boolean firstItem = true;
+            while (true) {
+                final int c = next();
+                if (c == -1 || c == '[' || (c == '&' && peek() == '&')) {
+                    throw unsupported();
+                }
+                if (c == ']' && !firstItem) {
+                    break;
+                }
+                firstItem = false;
+
+                final CharClass item = c == '\\' ? escape() : CharClass.of(c);
+                final int low = single(item);
+                if (low >= 0 && peek() == '-' && peekAfter() != ']' && peekAfter() != -1) {
+                    position++;
+                    final int d = next();
+                    final int high = single(d == '\\' ? escape() : CharClass.of(d));
+                    if (high < low) {
+                        throw unsupported();
+                    }
+                    result = result.union(CharClass.ofRanges(low, high));
+                } else {
+                    result = result.union(item);
+                }
+            }
+            return negated ? result.negate() : result;
+        }
+
+        private CharClass escape() {
+            final int c = next();
+            switch (c) {
+                case 'd':
+                    return DIGIT;
+                case 'D':
+                    return DIGIT.negate();
+                case 's':
+                    return SPACE;
+                case 'S':
+                    return SPACE.negate();
+                case 'w':
+                    return WORD;
+                case 'W':
+                    return WORD.negate();
+                case 't':
+                    return CharClass.of('\t');
+                case 'n':
+                    return CharClass.of('\n');
+                case 'r':
+                    return CharClass.of('\r');
+                case 'f':
+                    return CharClass.of('\f');
+                case 'u':
+                    return CharClass.of(hex(4));
+                case 'x':
+                    return CharClass.of(hex(2));
+                default:
+                    if (c == -1 || Character.isLetterOrDigit(c)) {
+                        throw unsupported();
+                    }
+                    return CharClass.of(c);
+            }
+        }
+
+        private int hex(final int digits) {
+            if (position + digits > regex.length()) {
+                throw unsupported();
+            }
+            try {
+                final int value = Integer.parseInt(regex.substring(position, position + digits), 16);
+                position += digits;
+                return value;
+            } catch (NumberFormatException e) {
+                throw unsupported();
+            }
+        }
+
+        private static int single(final CharClass item) {
+            final int[] ranges = item.ranges();
+            return ranges.length == 2 && ranges[0] == ranges[1] ? ranges[0] : -1;
+        }
+
+        private int emit(final int opcode, final int x, final int y, final CharClass c) {
+            opcodes.add(opcode);
+            first.add(x);
+            second.add(y);
+            classes.add(c);
+            return opcodes.size() - 1;
+        }
+
+        /**
+         * Inserts a SPLIT before the instructions from {@code at}, shifting their targets.
+         */
+        private void insertSplit(final int at) {
+            for (int pc = at; pc < opcodes.size(); pc++) {
+                final int opcode = opcodes.get(pc);
+                if (opcode == SPLIT || opcode == JUMP) {
+                    first.set(pc, first.get(pc) + 1);
+                }
+                if (opcode == SPLIT) {
+                    second.set(pc, second.get(pc) + 1);
+                }
+            }
+            opcodes.add(at, SPLIT);
+            first.add(at, at + 1);
+            second.add(at, 0);
+            classes.add(at, null);
+        }
+
+        private int peek() {
+            return position < regex.length() ? regex.codePointAt(position) : -1;
+        }
+
+        private int peekAfter() {
+            if (position >= regex.length()) {
+                return -1;
+            }
+            final int after = position + Character.charCount(regex.codePointAt(position));
+            return after < regex.length() ? regex.codePointAt(after) : -1;
+        }
+
+        private int next() {
+            final int c = peek();
+            if (c != -1) {
+                position += Character.charCount(c);
+            }
+            return c;
+        }
+
+        private IllegalArgumentException unsupported() {
+            return new IllegalArgumentException("Unsupported regex at index " + position + ": " + regex);
+        }
+    }
+
+}
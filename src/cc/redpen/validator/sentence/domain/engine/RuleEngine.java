@@ -0,0 +1,119 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.TextBatch;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates a fixed set of rules over a sentence.
+ */
+public interface RuleEngine {
+
+    List<Rule> getRules();
+
+    /**
+     * Streams every error to {@code listener}, grouped by rule in rule order and by position within a rule.
+     * <p>
+     * Nothing is allocated per sentence, so this is the path to use when the errors are consumed right away.
+     */
+    void evaluate(Sentence sentence, ErrorListener listener);
+
+    /**
+     * Streams the errors of every sentence, scanning them as one {@link TextBatch}; offsets are relative to the
+     * sentence and the errors are the same as separate {@link #evaluate(Sentence, ErrorListener)} calls would find.
+     */
+    void evaluate(List<Sentence> sentences, BatchErrorListener listener);
+
+    /**
+     * One result per rule in rule order; a rule that ran out of its budget has a {@link ValidationResult#isSkipped()
+     * skipped} result.
+     */
+    default List<ValidationResult> evaluate(final Sentence sentence) {
+
+        final List<Rule> rules = getRules();
+        final List<ValidationResult> results = new ArrayList<>(rules.size());
+        for (final Rule rule : rules) {
+            results.add(ValidationResult.create());
+        }
+
+        evaluate(sentence, new ErrorListener() {
+
+            // errors arrive grouped by rule in rule order, so the owner is found by walking forward
+            private int index = 0;
+
+            @Override
+            public void onError(final Rule rule, final int start, final int end) {
+                while (rules.get(index) != rule) {
+                    index++;
+                }
+                results.get(index).addErrorPosition(start, end);
+            }
+
+            @Override
+            public void onSkipped(final Rule rule) {
+                while (rules.get(index) != rule) {
+                    index++;
+                }
+                results.get(index).skip();
+            }
+        });
+
+        for (int i = 0; i < rules.size(); i++) {
+            if (results.get(i).isFailed()) {
+                results.get(i).setErrorMessage(rules.get(i).getErrorMessage());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * One list per sentence of one result per rule in rule order.
+     */
+    default List<List<ValidationResult>> evaluate(final List<Sentence> sentences) {
+
+        final List<Rule> rules = getRules();
+        final List<List<ValidationResult>> results = new ArrayList<>(sentences.size());
+        for (final Sentence sentence : sentences) {
+            final List<ValidationResult> sentenceResults = new ArrayList<>(rules.size());
+            for (final Rule rule : rules) {
+                sentenceResults.add(ValidationResult.create());
+            }
+            results.add(sentenceResults);
+        }
+
+        evaluate(sentences, new BatchErrorListener() {
+
+            private int index = 0;
+
+            @Override
+            public void onError(final int sentence, final Rule rule, final int start, final int end) {
+                while (rules.get(index) != rule) {
+                    index++;
+                }
+                results.get(sentence).get(index).addErrorPosition(start, end);
+            }
+
+            @Override
+            public void onSkipped(final int sentence, final Rule rule) {
+                while (rules.get(index) != rule) {
+                    index++;
+                }
+                results.get(sentence).get(index).skip();
+            }
+        });
+
+        for (final List<ValidationResult> sentenceResults : results) {
+            for (int i = 0; i < rules.size(); i++) {
+                if (sentenceResults.get(i).isFailed()) {
+                    sentenceResults.get(i).setErrorMessage(rules.get(i).getErrorMessage());
+                }
+            }
+        }
+        return results;
+    }
+
+}
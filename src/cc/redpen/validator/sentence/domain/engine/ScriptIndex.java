@@ -0,0 +1,221 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import java.util.Arrays;
+
+/**
+ * A text split into maximal runs of one script, held in two primitive arrays: the start of each run and its script.
+ * <p>
+ * Rules about transitions between scripts (full-width next to half-width, a run of half-width kana) read the runs
+ * instead of testing every character again. An index is reusable: {@link #reset(CharSequence, int, int)} keeps the
+ * storage, and {@link #of(CharSequence, int, int)} gives the index of the sentence last indexed on the thread, so the
+ * rules evaluated on one sentence share one pass.
+ * <p>
+ * The scripts are disjoint, and each {@link CodePointTable} class the rules test on them is a union of scripts.
+ */
+public final class ScriptIndex {
+
+    /**
+     * Half-width space.
+     */
+    public static final int SPACE = 0;
+
+    /**
+     * {@code [0-9]}.
+     */
+    public static final int DIGIT = 1;
+
+    /**
+     * {@code [A-Za-z]}.
+     */
+    public static final int LETTER = 2;
+
+    /**
+     * ASCII graphic characters that are neither digits nor letters.
+     */
+    public static final int SYMBOL = 3;
+
+    /**
+     * {@code [０-９]}.
+     */
+    public static final int FULL_WIDTH_DIGIT = 4;
+
+    /**
+     * {@code [Ａ-ｚ]} (the range includes ［＼］＾＿｀).
+     */
+    public static final int FULL_WIDTH_ALNUM = 5;
+
+    /**
+     * {@code [｡-ﾟ]}.
+     */
+    public static final int HALF_WIDTH_KANA = 6;
+
+    /**
+     * The members of {@link CodePointTable#JP_PUNCTUATION}.
+     */
+    public static final int JP_PUNCTUATION = 7;
+
+    public static final int HIRAGANA = 8;
+
+    /**
+     * Katakana and the long vowel mark, except the middle dot.
+     */
+    public static final int KATAKANA = 9;
+
+    /**
+     * CJK ideographs, 々, 〆 and 〇.
+     */
+    public static final int KANJI = 10;
+
+    /**
+     * Everything else, surrogates included.
+     */
+    public static final int OTHER = 11;
+
+    /**
+     * {@code [!-~]}.
+     */
+    public static final int HALF_WIDTH = bit(DIGIT) | bit(LETTER) | bit(SYMBOL);
+
+    private static final byte[] SCRIPTS = new byte[Character.MAX_VALUE + 1];
+
+    private static final ThreadLocal<ScriptIndex> INDEXES = ThreadLocal.withInitial(ScriptIndex::create);
+
+    static {
+        Arrays.fill(SCRIPTS, (byte) OTHER);
+        range('!', '~', SYMBOL);
+        range(' ', ' ', SPACE);
+        range('0', '9', DIGIT);
+        range('A', 'Z', LETTER);
+        range('a', 'z', LETTER);
+        range('Ａ', 'ｚ', FULL_WIDTH_ALNUM);
+        range('０', '９', FULL_WIDTH_DIGIT);
+        range('｡', 'ﾟ', HALF_WIDTH_KANA);
+        range('ぁ', 'ゖ', HIRAGANA);
+        range('ゝ', 'ゟ', HIRAGANA);
+        range('ァ', 'ヿ', KATAKANA);
+        range('ㇰ', 'ㇿ', KATAKANA);
+        range('㐀', '䶿', KANJI);
+        range('一', '鿿', KANJI);
+        range('豈', '﫿', KANJI);
+        range('々', '〇', KANJI);
+        for (final char c : "，、。．　『』「」（）【】｛｝〈〉‘’“”《》／：・".toCharArray()) {
+            SCRIPTS[c] = JP_PUNCTUATION;
+        }
+    }
+
+    // run i spans [starts[i], starts[i + 1])
+    private int[] starts = new int[17];
+    private byte[] scripts = new byte[16];
+    private int size;
+
+    private CharSequence content;
+    private int from;
+    private int to;
+
+    private ScriptIndex() {
+    }
+
+    public static ScriptIndex create() {
+        return new ScriptIndex();
+    }
+
+    /**
+     * @return the index of {@code content[from, to)} on this thread, reused if the same string was indexed last;
+     * only valid until the next call on this thread.
+     */
+    public static ScriptIndex of(final CharSequence content, final int from, final int to) {
+        final ScriptIndex index = INDEXES.get();
+        // Only a String is known not to have changed since.
+        if (content instanceof String && index.content == content && index.from == from && index.to == to) {
+            return index;
+        }
+        return index.reset(content, from, to);
+    }
+
+    public static int bit(final int script) {
+        return 1 << script;
+    }
+
+    public static int script(final char c) {
+        return SCRIPTS[c];
+    }
+
+    /**
+     * Splits {@code content[from, to)} into runs.
+     */
+    public ScriptIndex reset(final CharSequence content, final int from, final int to) {
+        this.content = content;
+        this.from = from;
+        this.to = to;
+        size = 0;
+        int position = from;
+        while (position < to) {
+            final byte script = SCRIPTS[content.charAt(position)];
+            if (size == scripts.length) {
+                scripts = Arrays.copyOf(scripts, 2 * size);
+                starts = Arrays.copyOf(starts, 2 * size + 1);
+            }
+            starts[size] = position;
+            scripts[size] = script;
+            size++;
+            position++;
+            while (position < to && SCRIPTS[content.charAt(position)] == script) {
+                position++;
+            }
+        }
+        starts[size] = to;
+        return this;
+    }
+
+    /**
+     * Drops the indexed text, keeping the storage.
+     */
+    public ScriptIndex clear() {
+        content = null;
+        size = 0;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStart(final int run) {
+        return starts[run];
+    }
+
+    public int getEnd(final int run) {
+        return starts[run + 1];
+    }
+
+    public int getScript(final int run) {
+        return scripts[run];
+    }
+
+    /**
+     * @return the run containing {@code position}, or {@link #size()} if it is past the end.
+     */
+    public int indexOf(final int position) {
+        if (position >= to) {
+            return size;
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (starts[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private static void range(final char low, final char high, final int script) {
+        for (int c = low; c <= high; c++) {
+            SCRIPTS[c] = (byte) script;
+        }
+    }
+
+}
@@ -0,0 +1,357 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The spans of a sentence that are not prose (URLs, file paths, inline code and identifiers), found in one linear
+ * pass and held as a bitmap over the chars.
+ * <p>
+ * Tokens are maximal runs of ASCII graphic characters, so a span ends where Japanese text or a space starts; only a
+ * Windows path goes on across non-ASCII folder names, the segments that start or end at a backslash, up to a space or
+ * Japanese punctuation. Inline code is enclosed in backquotes and may contain anything. A mask is reusable:
+ * {@link #reset(CharSequence)} keeps the storage.
+ */
+public final class TextMask {
+
+    public enum Kind {
+
+        /**
+         * {@code scheme://...}, {@code www.} hosts and mail addresses.
+         */
+        URLS,
+
+        /**
+         * Windows ({@code C:\...}, {@code \\server\...}) and Unix ({@code /usr/bin}, {@code ./a/b}) paths.
+         */
+        PATHS,
+
+        /**
+         * Text between backquotes.
+         */
+        CODE,
+
+        /**
+         * {@code snake_case}, {@code camelCase}, {@code qualified.names}, {@code calls()} and command-line options.
+         */
+        IDENTIFIERS;
+
+        /**
+         * Whether {@code name} names the kind, ignoring case.
+         */
+        public boolean isNamed(final String name) {
+            return name().equalsIgnoreCase(name.trim());
+        }
+    }
+
+    private static final String OPENING = "([{<\"'";
+    private static final String CLOSING = ".,;:!?]}>\"'";
+    private static final String JP_BREAKS = "　、。，．「」『』（）【】｛｝〈〉《》“”‘’";
+
+    private final Set<Kind> kinds;
+
+    // bit i set when content[i] is masked; words past (length + 63) / 64 are clear
+    private long[] bits = new long[4];
+    private int words;
+
+    // span i is [starts[i], ends[i])
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int size;
+
+    private TextMask(final Set<Kind> kinds) {
+        this.kinds = kinds.isEmpty() ? EnumSet.noneOf(Kind.class) : EnumSet.copyOf(kinds);
+    }
+
+    public static TextMask create(final Set<Kind> kinds) {
+        return new TextMask(kinds);
+    }
+
+    /**
+     * Finds the spans of {@code content}.
+     */
+    public TextMask reset(final CharSequence content) {
+
+        Arrays.fill(bits, 0, words, 0L);
+        size = 0;
+        final int length = content.length();
+        words = (length + 63) >>> 6;
+        if (bits.length < words) {
+            bits = new long[Math.max(words, 2 * bits.length)];
+        }
+
+        final boolean code = kinds.contains(Kind.CODE);
+        // After a backquote without a closing one, no later backquote has one either.
+        boolean unclosed = false;
+        int position = 0;
+        while (position < length) {
+            final char c = content.charAt(position);
+            if (c == '`' && code && !unclosed) {
+                int close = position + 1;
+                while (close < length && content.charAt(close) != '`') {
+                    close++;
+                }
+                if (close < length) {
+                    mask(position, close + 1);
+                    position = close + 1;
+                    continue;
+                }
+                unclosed = true;
+            }
+            if (isToken(c) && c != '`') {
+                int end = position + 1;
+                while (end < length && isToken(content.charAt(end)) && content.charAt(end) != '`') {
+                    end++;
+                }
+                position = classify(content, position, end);
+                continue;
+            }
+            position++;
+        }
+        return this;
+    }
+
+    /**
+     * Masks what token {@code content[from, to)} holds, if anything.
+     *
+     * @return where the scan goes on: {@code to}, or the end of a Windows path that runs past it.
+     */
+    private int classify(final CharSequence content, final int from, final int to) {
+
+        int start = from;
+        while (start < to && OPENING.indexOf(content.charAt(start)) >= 0) {
+            start++;
+        }
+        int end = trimEnd(content, start, to);
+        if (start >= end) {
+            return to;
+        }
+
+        if (kinds.contains(Kind.URLS) && isUrl(content, start, end)) {
+            mask(start, end);
+        } else if (kinds.contains(Kind.PATHS) && isWindowsPath(content, start, end)) {
+            // C:\ユーザー\報告.docx goes on, C:\Windowsフォルダーを開く stops at the Japanese text
+            int pathEnd = to;
+            while (pathEnd < content.length() && !isPathBreak(content.charAt(pathEnd))) {
+                int segmentEnd = pathEnd;
+                while (segmentEnd < content.length() && content.charAt(segmentEnd) != '\\' && !isPathBreak(content.charAt(segmentEnd))) {
+                    segmentEnd++;
+                }
+                final boolean folder = segmentEnd < content.length() && content.charAt(segmentEnd) == '\\';
+                if (!folder && content.charAt(pathEnd - 1) != '\\') {
+                    break;
+                }
+                pathEnd = folder ? segmentEnd + 1 : segmentEnd;
+            }
+            end = trimEnd(content, start, pathEnd);
+            mask(start, end);
+            return pathEnd;
+        } else if (kinds.contains(Kind.PATHS) && isPath(content, start, end)) {
+            mask(start, end);
+        } else if (kinds.contains(Kind.IDENTIFIERS) && isIdentifier(content, start, end)) {
+            mask(start, end);
+        }
+        return to;
+    }
+
+    /**
+     * Drops trailing punctuation, and closing parentheses that have no opening one in the token.
+     */
+    private static int trimEnd(final CharSequence content, final int from, final int to) {
+        int unmatched = 0;
+        for (int i = from; i < to; i++) {
+            if (content.charAt(i) == '(') {
+                unmatched--;
+            } else if (content.charAt(i) == ')') {
+                unmatched++;
+            }
+        }
+        int end = to;
+        while (end > from) {
+            final char last = content.charAt(end - 1);
+            if (last == ')' && unmatched > 0) {
+                unmatched--;
+            } else if (CLOSING.indexOf(last) < 0) {
+                break;
+            }
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isUrl(final CharSequence content, final int from, final int to) {
+        if (!isLetter(content.charAt(from))) {
+            return false;
+        }
+        int scheme = from + 1;
+        while (scheme < to && (isLetter(content.charAt(scheme)) || isDigit(content.charAt(scheme)) || "+-.".indexOf(content.charAt(scheme)) >= 0)) {
+            scheme++;
+        }
+        if (scheme + 3 < to && content.charAt(scheme) == ':' && content.charAt(scheme + 1) == '/' && content.charAt(scheme + 2) == '/') {
+            return true;
+        }
+        if (to - from > 4 && Character.toLowerCase(content.charAt(from)) == 'w' && Character.toLowerCase(content.charAt(from + 1)) == 'w'
+                && Character.toLowerCase(content.charAt(from + 2)) == 'w' && content.charAt(from + 3) == '.') {
+            return true;
+        }
+        // user@host.domain
+        int at = -1;
+        int dot = -1;
+        for (int i = from; i < to; i++) {
+            if (content.charAt(i) == '@') {
+                if (at >= 0) {
+                    return false;
+                }
+                at = i;
+            } else if (content.charAt(i) == '.' && at >= 0) {
+                dot = i;
+            }
+        }
+        return at > from && dot > at + 1 && dot < to - 1;
+    }
+
+    private static boolean isWindowsPath(final CharSequence content, final int from, final int to) {
+        return to - from >= 3 && isLetter(content.charAt(from)) && content.charAt(from + 1) == ':' && content.charAt(from + 2) == '\\'
+                || to - from >= 3 && content.charAt(from) == '\\' && content.charAt(from + 1) == '\\';
+    }
+
+    /**
+     * Unix and relative paths: {@code /a/b}, {@code ./a}, {@code ~/a}, {@code a/b/c} or {@code a\b}, with a letter.
+     */
+    private static boolean isPath(final CharSequence content, final int from, final int to) {
+        int slashes = 0;
+        int backslashes = 0;
+        boolean letter = false;
+        for (int i = from; i < to; i++) {
+            final char c = content.charAt(i);
+            if (c == '/') {
+                slashes++;
+            } else if (c == '\\') {
+                backslashes++;
+            } else if (isLetter(c)) {
+                letter = true;
+            } else if (!isDigit(c) && ".-_~+@%=".indexOf(c) < 0) {
+                return false;
+            }
+        }
+        if (!letter) {
+            return false;
+        }
+        final char first = content.charAt(from);
+        final boolean rooted = first == '/' || first == '.' || first == '~';
+        return rooted && slashes >= (first == '/' ? 2 : 1) || slashes >= 2 || backslashes >= 1;
+    }
+
+    /**
+     * {@code snake_case}, {@code camelCase}, {@code a.b}, {@code a::b}, {@code f()} and {@code -o} or {@code --option}.
+     */
+    private static boolean isIdentifier(final CharSequence content, final int from, final int to) {
+
+        final char first = content.charAt(from);
+        if (first == '-') {
+            final int name = from + 1 < to && content.charAt(from + 1) == '-' ? from + 2 : from + 1;
+            if (name >= to || !isLetter(content.charAt(name))) {
+                return false;
+            }
+            for (int i = name; i < to; i++) {
+                final char c = content.charAt(i);
+                if (!isLetter(c) && !isDigit(c) && c != '-' && c != '_' && c != '=') {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (!isLetter(first) && first != '_' && first != '$') {
+            return false;
+        }
+
+        boolean marked = false;
+        char previous = 0;
+        for (int i = from; i < to; i++) {
+            final char c = content.charAt(i);
+            if (c == '_' || c == '(' || c == ':' && previous == ':'
+                    || c == '.' && i + 1 < to && (isLetter(content.charAt(i + 1)) || content.charAt(i + 1) == '_')
+                    || previous >= 'a' && previous <= 'z' && c >= 'A' && c <= 'Z') {
+                marked = true;
+            } else if (!isLetter(c) && !isDigit(c) && "$.:)#<>,".indexOf(c) < 0) {
+                return false;
+            }
+            previous = c;
+        }
+        return marked;
+    }
+
+    private void mask(final int start, final int end) {
+        if (start >= end) {
+            return;
+        }
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, 2 * size);
+            ends = Arrays.copyOf(ends, 2 * size);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+        for (int i = start; i < end; i++) {
+            bits[i >>> 6] |= 1L << i;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStart(final int span) {
+        return starts[span];
+    }
+
+    public int getEnd(final int span) {
+        return ends[span];
+    }
+
+    public boolean isMasked(final int position) {
+        return position >>> 6 < words && (bits[position >>> 6] & 1L << position) != 0;
+    }
+
+    /**
+     * @return whether any char of {@code [start, end)} is masked.
+     */
+    public boolean overlaps(final int start, final int end) {
+        for (int position = start; position < end; ) {
+            final int word = position >>> 6;
+            if (word >= words) {
+                return false;
+            }
+            final int last = Math.min(end, (word + 1) << 6);
+            // bits [position, last) of the word
+            final long range = (last - position == 64 ? -1L : (1L << (last - position)) - 1) << position;
+            if ((bits[word] & range) != 0) {
+                return true;
+            }
+            position = last;
+        }
+        return false;
+    }
+
+    private static boolean isToken(final char c) {
+        return c >= '!' && c <= '~';
+    }
+
+    private static boolean isPathBreak(final char c) {
+        return Character.isWhitespace(c) || JP_BREAKS.indexOf(c) >= 0;
+    }
+
+    private static boolean isLetter(final char c) {
+        return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+}
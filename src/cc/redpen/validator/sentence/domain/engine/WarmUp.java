@@ -0,0 +1,72 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an engine on a built-in sample before it sees a document, so the sample pays for compiling the rules' patterns
+ * and for the interpreted first calls, and the first document runs compiled code.
+ * <p>
+ * The sample has examples of every rule, with and without errors, so every finder and every branch of the shared
+ * scans is exercised; the results are discarded.
+ */
+public final class WarmUp {
+
+    /**
+     * The sample bundled next to this class, one sentence per line.
+     */
+    public static final String SAMPLE = "ms-style-jp-sample.txt";
+
+    private WarmUp() {
+    }
+
+    /**
+     * Evaluates the sample sentence by sentence and as one batch, round after round, until {@code millis} have
+     * passed; at least one round.
+     *
+     * @return the rounds run.
+     * @throws IOException if the sample cannot be read.
+     */
+    public static int run(final RuleEngine engine, final long millis) throws IOException {
+
+        final List<Sentence> sample = readSample();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        int rounds = 0;
+        do {
+            for (final Sentence sentence : sample) {
+                engine.evaluate(sentence, (rule, start, end) -> {
+                });
+            }
+            engine.evaluate(sample, (sentence, rule, start, end) -> {
+            });
+            rounds++;
+        } while (System.nanoTime() < deadline);
+        return rounds;
+    }
+
+    static List<Sentence> readSample() throws IOException {
+        try (InputStream in = WarmUp.class.getResourceAsStream(SAMPLE)) {
+            if (in == null) {
+                throw new IOException("Bundled warm-up sample not found: " + SAMPLE);
+            }
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            final List<Sentence> sample = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    sample.add(new Sentence(line, sample.size() + 1));
+                }
+            }
+            return sample;
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package cc.redpen.validator.sentence.domain.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link RuleMetrics} of every rule, by name, with a text dump and JMX registration.
+ * <p>
+ * JMX names are {@code cc.redpen.validator.sentence:type=MSStyleJP,name=<registry>} for the registry and
+ * {@code ...,rule=<rule>} below it for each rule.
+ */
+public final class MetricsRegistry implements MetricsRegistryMBean {
+
+    private static final String DOMAIN = "cc.redpen.validator.sentence";
+
+    private static final MetricsRegistry SHARED = new MetricsRegistry("MSStyleJP");
+
+    private final String name;
+
+    private final ConcurrentMap<String, RuleMetrics> rules = new ConcurrentHashMap<>();
+
+    private volatile boolean registered = false;
+
+    private MetricsRegistry(final String name) {
+        this.name = name;
+    }
+
+    public static MetricsRegistry create(final String name) {
+        return new MetricsRegistry(name);
+    }
+
+    /**
+     * The registry every validator with metrics enabled records into, so the numbers cover the whole process.
+     */
+    public static MetricsRegistry shared() {
+        return SHARED;
+    }
+
+    public RuleMetrics get(final String rule) {
+        return rules.computeIfAbsent(rule, this::newRuleMetrics);
+    }
+
+    private RuleMetrics newRuleMetrics(final String rule) {
+        final RuleMetrics metrics = RuleMetrics.create(rule);
+        if (registered) {
+            register(metrics, objectName(rule));
+        }
+        return metrics;
+    }
+
+    public List<RuleMetrics> getAll() {
+        return new ArrayList<>(rules.values());
+    }
+
+    /**
+     * Registers the registry and its rules with the platform MBean server; rules added later are registered as they
+     * appear. Registering twice is a no-op.
+     */
+    public synchronized MetricsRegistry register() {
+        registered = true;
+        register(this, objectName(null));
+        for (final RuleMetrics metrics : rules.values()) {
+            register(metrics, objectName(metrics.getName()));
+        }
+        return this;
+    }
+
+    private static void register(final Object bean, final ObjectName objectName) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(bean, objectName);
+            }
+        } catch (JMException e) {
+            // Metrics stay readable from the dump.
+        }
+    }
+
+    public synchronized void unregister() {
+        registered = false;
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final List<ObjectName> names = new ArrayList<>();
+        names.add(objectName(null));
+        for (final String rule : rules.keySet()) {
+            names.add(objectName(rule));
+        }
+        for (final ObjectName objectName : names) {
+            try {
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                // already gone
+            }
+        }
+    }
+
+    private ObjectName objectName(final String rule) {
+        try {
+            return new ObjectName(DOMAIN + ":type=MSStyleJP,name=" + ObjectName.quote(name)
+                    + (rule == null ? "" : ",rule=" + ObjectName.quote(rule)));
+        } catch (JMException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * One line per rule, slowest total first; latencies in microseconds per sentence.
+     */
+    @Override
+    public String dump() {
+
+        final List<RuleMetrics> all = getAll();
+        all.sort(Comparator.comparingLong(RuleMetrics::getTotalLatencyNanos).reversed()
+                .thenComparing(RuleMetrics::getName));
+
+        final StringBuilder dump = new StringBuilder();
+        dump.append(String.format(Locale.ROOT, "%-32s %12s %10s %10s %10s %10s %10s%n",
+                "rule", "invocations", "matches", "mean(us)", "p50(us)", "p99(us)", "max(us)"));
+        for (final RuleMetrics metrics : all) {
+            final LatencyHistogram.Snapshot latency = metrics.getLatency().snapshot();
+            if (latency.getCount() == 0) {
+                dump.append(String.format(Locale.ROOT, "%-32s %12d %10d %10s %10s %10s %10s%n",
+                        metrics.getName(), metrics.getInvocations(), metrics.getMatches(), "-", "-", "-", "-"));
+            } else {
+                dump.append(String.format(Locale.ROOT, "%-32s %12d %10d %10.2f %10.2f %10.2f %10.2f%n",
+                        metrics.getName(), metrics.getInvocations(), metrics.getMatches(),
+                        latency.getMean() / 1000,
+                        latency.getValueAtPercentile(50) / 1000.0,
+                        latency.getValueAtPercentile(99) / 1000.0,
+                        latency.getMax() / 1000.0));
+            }
+        }
+        return dump.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (final RuleMetrics metrics : rules.values()) {
+            metrics.reset();
+        }
+    }
+
+}
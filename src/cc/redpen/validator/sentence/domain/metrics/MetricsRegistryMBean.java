@@ -0,0 +1,12 @@
+package cc.redpen.validator.sentence.domain.metrics;
+
+/**
+ * JMX operations over every rule of a {@link MetricsRegistry}.
+ */
+public interface MetricsRegistryMBean {
+
+    String dump();
+
+    void reset();
+
+}
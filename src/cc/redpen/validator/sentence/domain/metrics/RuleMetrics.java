@@ -0,0 +1,150 @@
+package cc.redpen.validator.sentence.domain.metrics;
+
+import cc.redpen.validator.sentence.domain.model.BatchSink;
+import cc.redpen.validator.sentence.domain.model.PositionSink;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation count, match count and latency histogram of one rule.
+ * <p>
+ * Every counter is striped ({@link LongAdder}, {@link LatencyHistogram}), so rules evaluated in parallel record
+ * without contention.
+ */
+public final class RuleMetrics implements RuleMetricsMBean {
+
+    @Getter
+    private final String name;
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+
+    @Getter
+    private final LatencyHistogram latency = LatencyHistogram.create();
+
+    private final ThreadLocal<Counter> counters = ThreadLocal.withInitial(Counter::new);
+
+    private RuleMetrics(final String name) {
+        this.name = name;
+    }
+
+    public static RuleMetrics create(final String name) {
+        return new RuleMetrics(name);
+    }
+
+    /**
+     * Records {@code sentences} evaluations that found {@code matches} errors in {@code nanos}; a negative
+     * {@code nanos} records no latency, for rules whose time is not separable.
+     */
+    public void record(final int sentences, final int matches, final long nanos) {
+        this.invocations.add(sentences);
+        this.matches.add(matches);
+        if (nanos >= 0 && sentences > 0) {
+            latency.record(sentences > 1 ? nanos / sentences : nanos);
+        }
+    }
+
+    /**
+     * A per-thread sink that counts what it forwards to {@code target}; read the count with {@link Counter#take()}.
+     */
+    public Counter counting(final PositionSink target) {
+        final Counter counter = counters.get();
+        counter.target = target;
+        counter.batchTarget = null;
+        counter.count = 0;
+        return counter;
+    }
+
+    public Counter counting(final BatchSink target) {
+        final Counter counter = counters.get();
+        counter.target = null;
+        counter.batchTarget = target;
+        counter.count = 0;
+        return counter;
+    }
+
+    @Override
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    @Override
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    @Override
+    public long getTotalLatencyNanos() {
+        return latency.snapshot().getTotal();
+    }
+
+    @Override
+    public double getMeanLatencyNanos() {
+        return latency.snapshot().getMean();
+    }
+
+    @Override
+    public long getP50LatencyNanos() {
+        return latency.snapshot().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP99LatencyNanos() {
+        return latency.snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getMaxLatencyNanos() {
+        return latency.snapshot().getMax();
+    }
+
+    @Override
+    public void reset() {
+        invocations.reset();
+        matches.reset();
+        latency.reset();
+    }
+
+    /**
+     * Forwards positions and counts them.
+     */
+    public static final class Counter implements PositionSink, BatchSink {
+
+        private PositionSink target;
+        private BatchSink batchTarget;
+        private int count;
+
+        @Override
+        public void accept(final int start, final int end) {
+            count++;
+            target.accept(start, end);
+        }
+
+        @Override
+        public void accept(final int sentence, final int start, final int end) {
+            count++;
+            batchTarget.accept(sentence, start, end);
+        }
+
+        @Override
+        public void skip() {
+            target.skip();
+        }
+
+        @Override
+        public void skip(final int sentence) {
+            batchTarget.skip(sentence);
+        }
+
+        /**
+         * @return the number of positions forwarded, releasing the target.
+         */
+        public int take() {
+            target = null;
+            batchTarget = null;
+            return count;
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package cc.redpen.validator.sentence.domain.metrics;
+
+/**
+ * JMX view of one rule's {@link RuleMetrics}; latencies are in nanoseconds per sentence.
+ */
+public interface RuleMetricsMBean {
+
+    String getName();
+
+    long getInvocations();
+
+    long getMatches();
+
+    long getTotalLatencyNanos();
+
+    double getMeanLatencyNanos();
+
+    long getP50LatencyNanos();
+
+    long getP99LatencyNanos();
+
+    long getMaxLatencyNanos();
+
+    void reset();
+
+}
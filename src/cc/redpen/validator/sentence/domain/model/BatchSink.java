@@ -0,0 +1,17 @@
+package cc.redpen.validator.sentence.domain.model;
+
+/**
+ * Receives errors found in a {@link TextBatch}, with offsets relative to their sentence.
+ */
+@FunctionalInterface
+public interface BatchSink {
+
+    void accept(int sentence, int start, int end);
+
+    /**
+     * The rule gave up on {@code sentence}, as in {@link PositionSink#skip()}.
+     */
+    default void skip(final int sentence) {
+    }
+
+}
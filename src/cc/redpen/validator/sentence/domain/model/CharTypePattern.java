@@ -0,0 +1,137 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.validator.sentence.domain.engine.CodePointTable;
+import lombok.Getter;
+
+/**
+ * Rule over {@link CodePointTable} classes, equivalent to a regex of the form {@code X+} or {@code (AB|CD|...)} where
+ * every letter is a (possibly negated) character class.
+ * <p>
+ * Each class test is a table lookup. Starts advance one char at a time and a negated class consumes a whole code
+ * point, exactly as {@link java.util.regex.Matcher#find()} does, so positions are the same as the reference regex.
+ */
+public class CharTypePattern implements ErrorFinder {
+
+    @Getter
+    private final String errorMessage;
+
+    private final Type run;
+
+    // alternatives in priority order: pairs[2 * i] followed by pairs[2 * i + 1]
+    private final Type[] pairs;
+
+    private CharTypePattern(final String errorMessage, final Type run, final Type[] pairs) {
+        this.errorMessage = errorMessage;
+        this.run = run;
+        this.pairs = pairs;
+    }
+
+    /**
+     * {@code [type]+}.
+     */
+    public static CharTypePattern run(final Type type, final String errorMessage) {
+        return new CharTypePattern(errorMessage, type, null);
+    }
+
+    /**
+     * {@code (first second|first second|...)}, given as alternating first and second classes.
+     */
+    public static CharTypePattern pairs(final String errorMessage, final Type... pairs) {
+        if (pairs.length == 0 || pairs.length % 2 != 0) {
+            throw new IllegalArgumentException("Pairs must be given as first and second classes.");
+        }
+        return new CharTypePattern(errorMessage, null, pairs.clone());
+    }
+
+    @Override
+    public void findAll(final CharSequence content, final int from, final int to, final PositionSink sink) {
+        if (run != null) {
+            findRuns(content, from, to, sink);
+        } else {
+            findPairs(content, from, to, sink);
+        }
+    }
+
+    private void findRuns(final CharSequence content, final int from, final int to, final PositionSink sink) {
+
+        int position = from;
+        while (position < to) {
+            int end = position;
+            int consumed;
+            while (end < to && (consumed = run.length(content, end, to)) > 0) {
+                end += consumed;
+            }
+            if (end > position) {
+                sink.accept(position, end);
+                position = end;
+            } else {
+                position++;
+            }
+        }
+    }
+
+    private void findPairs(final CharSequence content, final int from, final int to, final PositionSink sink) {
+
+        int position = from;
+        search:
+        while (position < to) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                final int first = pairs[i].length(content, position, to);
+                if (first < 0 || position + first >= to) {
+                    continue;
+                }
+                final int second = pairs[i + 1].length(content, position + first, to);
+                if (second < 0) {
+                    continue;
+                }
+                final int end = position + first + second;
+                sink.accept(position, end);
+                position = end;
+                continue search;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * A set of {@link CodePointTable} classes, or its complement.
+     */
+    public static final class Type {
+
+        private final int types;
+        private final boolean negated;
+
+        private Type(final int types, final boolean negated) {
+            this.types = types;
+            this.negated = negated;
+        }
+
+        public static Type of(final int types) {
+            return new Type(types, false);
+        }
+
+        public static Type not(final int types) {
+            return new Type(types, true);
+        }
+
+        /**
+         * @return the chars the class consumes at {@code index} (before {@code limit}), or -1 if the code point there
+         * is not a member.
+         */
+        int length(final CharSequence content, final int index, final int limit) {
+            final char c = content.charAt(index);
+            if (!negated) {
+                // Surrogates belong to no class, so a member is always a single char.
+                return CodePointTable.is(c, types) ? 1 : -1;
+            }
+            if (Character.isHighSurrogate(c)
+                    && index + 1 < limit
+                    && Character.isLowSurrogate(content.charAt(index + 1))) {
+                // Supplementary code points belong to no class.
+                return 2;
+            }
+            return CodePointTable.is(c, types) ? -1 : 1;
+        }
+    }
+
+}
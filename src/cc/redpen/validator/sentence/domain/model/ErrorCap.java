@@ -0,0 +1,83 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import lombok.Getter;
+
+/**
+ * Bounds the errors a finder reports in one sentence, passing on one more so the receiver can tell the rule had more.
+ */
+public final class ErrorCap {
+
+    /**
+     * Errors passed on per sentence before the one that stops the finder.
+     */
+    @Getter
+    private final int maxErrors;
+
+    private final ThreadLocal<CappedSink> sinks = ThreadLocal.withInitial(CappedSink::new);
+
+    private ErrorCap(final int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * @param maxErrors errors per sentence; 0 or less for no limit.
+     * @return the cap, or {@code null} when it is not limited.
+     */
+    public static ErrorCap create(final int maxErrors) {
+        return maxErrors > 0 ? new ErrorCap(maxErrors) : null;
+    }
+
+    /**
+     * Starts a new sentence on this thread.
+     *
+     * @return {@code sink}, counting positions against the cap; only valid until the next call on this thread.
+     */
+    PositionSink wrap(final PositionSink sink) {
+        return sinks.get().reset(sink);
+    }
+
+    /**
+     * Drops the sink last wrapped on this thread, so the thread does not keep it reachable.
+     */
+    void release() {
+        sinks.get().target = null;
+    }
+
+    /**
+     * Thrown through the finder once the position past the cap is passed on; shared, as it carries no state.
+     */
+    static final class Reached extends RuntimeException {
+
+        static final Reached INSTANCE = new Reached();
+
+        private Reached() {
+            super("Error cap reached", null, false, false);
+        }
+    }
+
+    private final class CappedSink implements PositionSink {
+
+        private PositionSink target;
+        private int count;
+
+        private CappedSink reset(final PositionSink target) {
+            this.target = target;
+            this.count = 0;
+            return this;
+        }
+
+        @Override
+        public void accept(final int start, final int end) {
+            target.accept(start, end);
+            if (++count > maxErrors) {
+                throw Reached.INSTANCE;
+            }
+        }
+
+        @Override
+        public void skip() {
+            target.skip();
+        }
+    }
+
+}
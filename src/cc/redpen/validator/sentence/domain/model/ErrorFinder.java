@@ -0,0 +1,32 @@
+package cc.redpen.validator.sentence.domain.model;
+
+/**
+ * Something that finds style errors in a sentence and explains them with one message.
+ */
+public interface ErrorFinder {
+
+    /**
+     * Passes the start and end offsets of every error in {@code content[from, to)} to {@code sink}, in increasing
+     * order. The region is treated as the whole input, and offsets are those of {@code content}.
+     * <p>
+     * Implementations keep their scratch state per thread, so a sentence without errors allocates nothing.
+     */
+    void findAll(CharSequence content, int from, int to, PositionSink sink);
+
+    String getErrorMessage();
+
+    default void findAll(final CharSequence content, final PositionSink sink) {
+        findAll(content, 0, content.length(), sink);
+    }
+
+    /**
+     * Finds the errors of every sentence in {@code batch}, sentence by sentence, exactly as separate calls would.
+     */
+    default void findAll(final TextBatch batch, final BatchSink sink) {
+        final RegionSink region = new RegionSink(sink);
+        for (int sentence = 0; sentence < batch.size(); sentence++) {
+            findAll(batch.getText(), batch.getStart(sentence), batch.getEnd(sentence), region.at(batch, sentence));
+        }
+    }
+
+}
@@ -1,24 +1,93 @@
 package cc.redpen.validator.sentence.domain.model;
 
+import cc.redpen.validator.sentence.domain.engine.RegexProgram;
 import lombok.Getter;
 
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class ErrorPattern {
+/**
+ * Rule defined by a regex; the {@link Pattern} and the {@link RegexProgram} are compiled on first use.
+ */
+public class ErrorPattern implements ErrorFinder {
 
     @Getter
-    private final Pattern errorPattern;
+    private final String regex;
 
     @Getter
     private final String errorMessage;
 
-    private ErrorPattern(final String errorPattern, final String errorMessage) {
-        this.errorPattern = Pattern.compile(errorPattern);
+    private volatile Pattern errorPattern;
+
+    private volatile RegexProgram program;
+    private volatile boolean programResolved;
+
+    // Matcher.reset reuses the group arrays, so a cached matcher finds nothing without allocating.
+    private final ThreadLocal<Matcher> matchers;
+
+    private ErrorPattern(final String regex, final String errorMessage, final RegexProgram program, final boolean programResolved) {
+        this.regex = regex;
         this.errorMessage = errorMessage;
+        this.program = program;
+        this.programResolved = programResolved;
+        this.matchers = ThreadLocal.withInitial(() -> getErrorPattern().matcher(""));
     }
 
     public static ErrorPattern create(final String pattern, final String errorMessage) {
-        return new ErrorPattern(pattern, errorMessage);
+        return new ErrorPattern(pattern, errorMessage, null, false);
+    }
+
+    /**
+     * A pattern whose program is already compiled ({@code null} when outside the supported subset).
+     */
+    public static ErrorPattern create(final String pattern, final String errorMessage, final RegexProgram program) {
+        return new ErrorPattern(pattern, errorMessage, program, true);
+    }
+
+    public static ErrorPattern create(final LexiconPattern lexicon) {
+        return create(lexicon.toRegex(), lexicon.getErrorMessage());
+    }
+
+    public Pattern getErrorPattern() {
+        Pattern pattern = errorPattern;
+        if (pattern == null) {
+            // Racing threads may both compile; either result is the same pattern.
+            pattern = Pattern.compile(regex);
+            errorPattern = pattern;
+        }
+        return pattern;
+    }
+
+    /**
+     * @return the program {@link cc.redpen.validator.sentence.domain.engine.MultiPatternMatcher} runs, or
+     * {@code null} when the regex is outside the subset {@link RegexProgram} supports.
+     */
+    public RegexProgram getProgram() {
+        if (!programResolved) {
+            RegexProgram compiled;
+            try {
+                compiled = RegexProgram.compile(regex);
+            } catch (IllegalArgumentException e) {
+                compiled = null;
+            }
+            program = compiled;
+            programResolved = true;
+        }
+        return program;
+    }
+
+    @Override
+    public void findAll(final CharSequence content, final int from, final int to, final PositionSink sink) {
+        // Default (opaque, anchoring) bounds make the region behave as the whole input.
+        final Matcher matcher = matchers.get().reset(content).region(from, to);
+        try {
+            while (matcher.find()) {
+                sink.accept(matcher.start(), matcher.end());
+            }
+        } finally {
+            // Do not keep the sentence reachable from the thread.
+            matcher.reset("");
+        }
     }
 
 }
@@ -0,0 +1,215 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.validator.sentence.domain.engine.KatakanaRuns;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rule over the {@link KatakanaRuns} of a sentence: the runs are extracted in one pass and each one is checked on its
+ * own, so several such rules can share the pass (see {@link #check}).
+ * <p>
+ * Besides the general long vowel rule, the counters and the long vowel exceptions are checked on the runs, with the
+ * same positions as their reference regexes.
+ */
+public class KatakanaPattern implements ErrorFinder {
+
+    @Getter
+    private final String errorMessage;
+
+    private final Check check;
+
+    private final ThreadLocal<Scratch> scratches;
+
+    private KatakanaPattern(final String errorMessage, final Check check) {
+        this.errorMessage = errorMessage;
+        this.check = check;
+        this.scratches = ThreadLocal.withInitial(Scratch::new);
+    }
+
+    /**
+     * {@code \d+ (counter1|counter2|...)} followed by one of {@code units} if any: a counter is the first kana of a run.
+     */
+    public static KatakanaPattern counter(final String errorMessage, final String counters, final String units) {
+        return new KatakanaPattern(errorMessage, (content, from, to, start, end, morae, sink) -> {
+            if (counters.indexOf(content.charAt(start)) < 0 || start - 2 < from
+                    || content.charAt(start - 1) != ' ' || !isDigit(content.charAt(start - 2))) {
+                return;
+            }
+            if (units != null && (start + 1 >= to || units.indexOf(content.charAt(start + 1)) < 0)) {
+                return;
+            }
+            int digits = start - 2;
+            while (digits > from && isDigit(content.charAt(digits - 1))) {
+                digits--;
+            }
+            sink.accept(digits, start + (units == null ? 1 : 2));
+        });
+    }
+
+    /**
+     * A lexicon of katakana words, whose words can only be found inside runs.
+     * <p>
+     * The character after the run is part of the checked region, as the lexicon's suffix may consume it.
+     */
+    public static KatakanaPattern lexicon(final LexiconPattern lexicon) {
+        return new KatakanaPattern(lexicon.getErrorMessage(), (content, from, to, start, end, morae, sink) -> {
+            int limit = end;
+            if (limit < to) {
+                limit += Character.isHighSurrogate(content.charAt(limit))
+                        && limit + 1 < to
+                        && Character.isLowSurrogate(content.charAt(limit + 1)) ? 2 : 1;
+            }
+            lexicon.findAll(content, start, limit, sink);
+        });
+    }
+
+    /**
+     * The general long vowel rule, on the end of each run: a word of 4 morae or more, the mark included, that ends with
+     * a long vowel mark after a kana read with another vowel than {@code a} takes no mark (メモリー).
+     * <p>
+     * The other half of the rule, a mark after {@code -er}, {@code -or} and {@code -ar} (サーバー), cannot be told from
+     * the many loanwords ending with the same kana (データ, テーマ, コロナ), so it is left to the exception lexicons.
+     * Words ending with one of the exceptions are left to their own rules.
+     */
+    public static KatakanaPattern longVowel(final String errorMessage, final List<String> exceptions) {
+        final Endings endings = Endings.create(exceptions);
+        return new KatakanaPattern(errorMessage, (content, from, to, start, end, morae, sink) -> {
+            if (content.charAt(end - 1) != KatakanaRuns.LONG_VOWEL || morae < 4) {
+                return;
+            }
+            int stem = end - 1;
+            while (stem > start && content.charAt(stem - 1) == KatakanaRuns.LONG_VOWEL) {
+                stem--;
+            }
+            if (stem == start) {
+                return;
+            }
+            final char vowel = KatakanaRuns.vowel(content.charAt(stem - 1));
+            if (vowel != 0 && vowel != 'a' && !endings.any(content, start, stem)) {
+                sink.accept(start, end);
+            }
+        });
+    }
+
+    @Override
+    public void findAll(final CharSequence content, final int from, final int to, final PositionSink sink) {
+        final Scratch scratch = scratches.get().reset(content, from, to, sink);
+        try {
+            KatakanaRuns.scan(content, from, to, scratch);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Checks one run of a scan of {@code content[from, to)}.
+     */
+    public void check(final CharSequence content, final int from, final int to, final int start, final int end, final int morae, final PositionSink sink) {
+        check.check(content, from, to, start, end, morae, sink);
+    }
+
+    private static boolean isDigit(final char c) {
+        return '0' <= c && c <= '9';
+    }
+
+    @FunctionalInterface
+    private interface Check {
+
+        void check(CharSequence content, int from, int to, int start, int end, int morae, PositionSink sink);
+    }
+
+    /**
+     * Words by their last char, for testing how a run ends without a substring.
+     */
+    private static final class Endings {
+
+        private final char[] lasts;
+        private final String[][] words;
+
+        private Endings(final char[] lasts, final String[][] words) {
+            this.lasts = lasts;
+            this.words = words;
+        }
+
+        private static Endings create(final List<String> words) {
+            final String[] sorted = words.toArray(new String[0]);
+            if (sorted.length == 0) {
+                return new Endings(new char[0], new String[0][]);
+            }
+            Arrays.sort(sorted, (a, b) -> Character.compare(a.charAt(a.length() - 1), b.charAt(b.length() - 1)));
+            final List<Character> lasts = new ArrayList<>();
+            final List<String[]> groups = new ArrayList<>();
+            int first = 0;
+            for (int i = 1; i <= sorted.length; i++) {
+                final char last = sorted[first].charAt(sorted[first].length() - 1);
+                if (i == sorted.length || sorted[i].charAt(sorted[i].length() - 1) != last) {
+                    lasts.add(last);
+                    groups.add(Arrays.copyOfRange(sorted, first, i));
+                    first = i;
+                }
+            }
+            final char[] chars = new char[lasts.size()];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = lasts.get(i);
+            }
+            return new Endings(chars, groups.toArray(new String[0][]));
+        }
+
+        /**
+         * @return whether {@code content[start, end)} ends with one of the words.
+         */
+        private boolean any(final CharSequence content, final int start, final int end) {
+            final int group = Arrays.binarySearch(lasts, content.charAt(end - 1));
+            if (group < 0) {
+                return false;
+            }
+            search:
+            for (final String word : words[group]) {
+                final int wordStart = end - word.length();
+                if (wordStart < start) {
+                    continue;
+                }
+                for (int i = 0; i < word.length(); i++) {
+                    if (content.charAt(wordStart + i) != word.charAt(i)) {
+                        continue search;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Per-thread adapter from the runs of one scan to the check, reused across sentences.
+     */
+    private final class Scratch implements KatakanaRuns.Run {
+
+        private CharSequence content;
+        private int from;
+        private int to;
+        private PositionSink sink;
+
+        private Scratch reset(final CharSequence content, final int from, final int to, final PositionSink sink) {
+            this.content = content;
+            this.from = from;
+            this.to = to;
+            this.sink = sink;
+            return this;
+        }
+
+        private void release() {
+            content = null;
+            sink = null;
+        }
+
+        @Override
+        public void accept(final int start, final int end, final int morae) {
+            check.check(content, from, to, start, end, morae, sink);
+        }
+    }
+
+}
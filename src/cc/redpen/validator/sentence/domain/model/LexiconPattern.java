@@ -0,0 +1,285 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.validator.sentence.domain.engine.AhoCorasick;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Word list rule equivalent to the regex {@code prefix(word1|word2|...)suffix}.
+ * <p>
+ * Every word is found by one {@link AhoCorasick} pass, then the leftmost-first, non-overlapping semantics of
+ * {@link java.util.regex.Matcher#find()} are replayed over the hits, so the reported positions are the same as the
+ * {@link ErrorPattern} built from {@link #toRegex()}. The automaton is built on first use.
+ */
+public class LexiconPattern implements ErrorFinder {
+
+    // a scratch grown past this many chars by a long batch is let go once the batch is replayed
+    private static final int KEPT_CHARS = 4096;
+
+    @Getter
+    private final List<String> words;
+
+    @Getter
+    private final Prefix prefix;
+
+    @Getter
+    private final Suffix suffix;
+
+    @Getter
+    private final String errorMessage;
+
+    private volatile AhoCorasick automaton;
+
+    private final ThreadLocal<Scratch> scratches;
+
+    private LexiconPattern(final List<String> words, final Prefix prefix, final Suffix suffix, final String errorMessage, final AhoCorasick automaton) {
+        this.words = Collections.unmodifiableList(words);
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.errorMessage = errorMessage;
+        this.automaton = automaton;
+        this.scratches = ThreadLocal.withInitial(Scratch::new);
+    }
+
+    public static LexiconPattern create(final Prefix prefix, final Suffix suffix, final String errorMessage, final String... words) {
+        return new LexiconPattern(Arrays.asList(words), prefix, suffix, errorMessage, null);
+    }
+
+    /**
+     * A lexicon whose automaton is already built over {@code words}, in the same order.
+     */
+    public static LexiconPattern create(final Prefix prefix, final Suffix suffix, final String errorMessage, final List<String> words, final AhoCorasick automaton) {
+        return new LexiconPattern(new ArrayList<>(words), prefix, suffix, errorMessage, automaton);
+    }
+
+    public static LexiconPattern create(final String errorMessage, final String... words) {
+        return create(Prefix.NONE, Suffix.NONE, errorMessage, words);
+    }
+
+    public AhoCorasick getAutomaton() {
+        AhoCorasick built = automaton;
+        if (built == null) {
+            // Racing threads may both build; either result is the same automaton.
+            built = AhoCorasick.create(words);
+            automaton = built;
+        }
+        return built;
+    }
+
+    /**
+     * The regex the lexicon stands for, used as its reference implementation.
+     */
+    public String toRegex() {
+        return "(" + prefix.regex + "(" + String.join("|", words) + ")" + suffix.regex + ")";
+    }
+
+    @Override
+    public void findAll(final CharSequence content, final int from, final int to, final PositionSink sink) {
+
+        final Scratch scratch = scratches.get();
+        final int[] best = scratch.reset(content, from, to, null);
+        try {
+            getAutomaton().scan(content, from, to, scratch);
+        } finally {
+            scratch.release();
+        }
+
+        try {
+            replay(content, from, to, best, sink);
+        } finally {
+            scratch.shrink();
+        }
+    }
+
+    /**
+     * One automaton pass over the whole buffer; hits that run past the end of their sentence are dropped, then each
+     * sentence is replayed on its own.
+     */
+    @Override
+    public void findAll(final TextBatch batch, final BatchSink sink) {
+
+        final CharSequence text = batch.getText();
+
+        final Scratch scratch = scratches.get();
+        final int[] best = scratch.reset(text, 0, text.length(), batch);
+        try {
+            getAutomaton().scan(text, 0, text.length(), scratch);
+        } finally {
+            scratch.release();
+        }
+
+        final RegionSink region = new RegionSink(sink);
+        try {
+            for (int sentence = 0; sentence < batch.size(); sentence++) {
+                replay(text, batch.getStart(sentence), batch.getEnd(sentence), best, region.at(batch, sentence));
+            }
+        } finally {
+            scratch.shrink();
+        }
+    }
+
+    /**
+     * Replays {@link java.util.regex.Matcher#find()} over {@code content[from, to)}, given the best word per start.
+     */
+    private void replay(final CharSequence content, final int from, final int to, final int[] best, final PositionSink sink) {
+
+        final AhoCorasick automaton = getAutomaton();
+        int position = from;
+        while (position < to) {
+            final int start;
+            final int wordStart;
+            if (prefix == Prefix.NUMBER) {
+                if (!isDigit(content.charAt(position))) {
+                    position++;
+                    continue;
+                }
+                int digitsEnd = position;
+                while (digitsEnd < to && isDigit(content.charAt(digitsEnd))) {
+                    digitsEnd++;
+                }
+                if (digitsEnd + 1 >= to || content.charAt(digitsEnd) != ' ' || best[digitsEnd + 1] == 0) {
+                    position = digitsEnd;
+                    continue;
+                }
+                start = position;
+                wordStart = digitsEnd + 1;
+            } else {
+                if (best[position] == 0) {
+                    position++;
+                    continue;
+                }
+                start = position;
+                wordStart = position;
+            }
+
+            final int wordEnd = wordStart + automaton.length(best[wordStart] - 1);
+            final int end = wordEnd + suffix.length(content, wordEnd, to);
+            sink.accept(start, end);
+            position = end;
+        }
+    }
+
+    /**
+     * Per-thread hit table, reused across sentences.
+     */
+    private final class Scratch implements AhoCorasick.Hit {
+
+        // best[start] = highest-priority word starting at start whose right context holds, plus one (0 = none)
+        private int[] best = new int[64];
+
+        private CharSequence content;
+
+        // end of the scanned region, unless a whole batch is scanned
+        private int limit;
+        private TextBatch batch;
+
+        private int[] reset(final CharSequence content, final int from, final int to, final TextBatch batch) {
+            if (best.length <= to) {
+                best = new int[Math.max(to + 1, 2 * best.length)];
+            } else {
+                Arrays.fill(best, from, to + 1, 0);
+            }
+            this.content = content;
+            this.limit = to;
+            this.batch = batch;
+            return best;
+        }
+
+        private void release() {
+            content = null;
+            batch = null;
+        }
+
+        private void shrink() {
+            if (best.length > KEPT_CHARS) {
+                best = new int[64];
+            }
+        }
+
+        @Override
+        public void accept(final int word, final int start, final int end) {
+            final int regionEnd = batch == null ? limit : batch.getEnd(batch.indexOf(start));
+            if (end > regionEnd || suffix.length(content, end, regionEnd) < 0) {
+                return;
+            }
+            if (best[start] == 0 || word < best[start] - 1) {
+                best[start] = word + 1;
+            }
+        }
+    }
+
+    private static boolean isDigit(final char c) {
+        return '0' <= c && c <= '9';
+    }
+
+    /**
+     * Left context of the words.
+     */
+    public enum Prefix {
+
+        NONE(""),
+
+        /**
+         * {@code \d+ }: half-width digits and a space.
+         */
+        NUMBER("\\d+ ");
+
+        private final String regex;
+
+        Prefix(final String regex) {
+            this.regex = regex;
+        }
+    }
+
+    /**
+     * Right context of the words, consumed as part of the match.
+     */
+    public enum Suffix {
+
+        NONE(""),
+
+        /**
+         * {@code [ー]}: followed by a long vowel mark.
+         */
+        LONG_VOWEL("[ー]"),
+
+        /**
+         * {@code [^ー]}: followed by any character but a long vowel mark.
+         */
+        NOT_LONG_VOWEL("[^ー]");
+
+        private static final char MARK = 'ー';
+
+        private final String regex;
+
+        Suffix(final String regex) {
+            this.regex = regex;
+        }
+
+        /**
+         * @return the number of chars the context consumes at {@code end} (before {@code limit}), or -1 if it does
+         * not hold.
+         */
+        int length(final CharSequence content, final int end, final int limit) {
+            switch (this) {
+                case LONG_VOWEL:
+                    return end < limit && content.charAt(end) == MARK ? 1 : -1;
+                case NOT_LONG_VOWEL:
+                    if (end >= limit || content.charAt(end) == MARK) {
+                        return -1;
+                    }
+                    // A character class consumes a whole code point.
+                    return Character.isHighSurrogate(content.charAt(end))
+                            && end + 1 < limit
+                            && Character.isLowSurrogate(content.charAt(end + 1)) ? 2 : 1;
+                default:
+                    return 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import lombok.Getter;
+
+/**
+ * Bounds the characters a backtracking regex reads, and the time it spends, on one sentence.
+ */
+public final class MatchBudget {
+
+    /**
+     * Reads between two looks at the clock.
+     */
+    static final int CLOCK_INTERVAL = 1024;
+
+    /**
+     * Character reads allowed per sentence, or {@link Long#MAX_VALUE}.
+     */
+    @Getter
+    private final long maxSteps;
+
+    /**
+     * Time allowed per sentence, or {@link Long#MAX_VALUE}.
+     */
+    @Getter
+    private final long maxNanos;
+
+    private final ThreadLocal<BoundedText> texts = ThreadLocal.withInitial(BoundedText::new);
+
+    private MatchBudget(final long maxSteps, final long maxNanos) {
+        this.maxSteps = maxSteps;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @param maxSteps  character reads allowed per sentence; 0 or less for no limit.
+     * @param maxMillis milliseconds allowed per sentence; 0 or less for no limit.
+     * @return the budget, or {@code null} when neither is limited.
+     */
+    public static MatchBudget create(final long maxSteps, final long maxMillis) {
+        if (maxSteps <= 0 && maxMillis <= 0) {
+            return null;
+        }
+        return new MatchBudget(
+                maxSteps > 0 ? maxSteps : Long.MAX_VALUE,
+                maxMillis > 0 ? maxMillis * 1_000_000 : Long.MAX_VALUE
+        );
+    }
+
+    /**
+     * Starts a new budget on this thread.
+     *
+     * @return {@code content}, counting reads against the budget; only valid until the next call on this thread.
+     */
+    CharSequence wrap(final CharSequence content) {
+        return texts.get().reset(content);
+    }
+
+    /**
+     * Drops the content last wrapped on this thread, so the thread does not keep it reachable.
+     */
+    void release() {
+        texts.get().content = null;
+    }
+
+    /**
+     * Thrown through the matcher when the budget is spent; shared, as it carries no state.
+     */
+    static final class Exceeded extends RuntimeException {
+
+        static final Exceeded INSTANCE = new Exceeded();
+
+        private Exceeded() {
+            super("Match budget exceeded", null, false, false);
+        }
+    }
+
+    private final class BoundedText implements CharSequence {
+
+        private CharSequence content;
+        private long steps;
+        private long nextClock;
+        private long deadline;
+
+        private BoundedText reset(final CharSequence content) {
+            this.content = content;
+            this.steps = 0;
+            this.nextClock = maxNanos == Long.MAX_VALUE ? Long.MAX_VALUE : CLOCK_INTERVAL;
+            this.deadline = maxNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + maxNanos;
+            return this;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (++steps > maxSteps) {
+                throw Exceeded.INSTANCE;
+            }
+            if (steps >= nextClock) {
+                nextClock += CLOCK_INTERVAL;
+                if (System.nanoTime() - deadline > 0) {
+                    throw Exceeded.INSTANCE;
+                }
+            }
+            return content.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return content.length();
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return content.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return content.toString();
+        }
+    }
+
+}
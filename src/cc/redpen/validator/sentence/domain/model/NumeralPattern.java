@@ -0,0 +1,87 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.validator.sentence.domain.engine.DoubleArrayTrie;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rule over runs of numerals, {@code [numeral]+}, that leaves the numerals of fixed expressions alone (一般, 十分,
+ * 四捨五入).
+ * <p>
+ * The expressions are looked up in a {@link DoubleArrayTrie} in the same pass as the numerals: wherever no run is open,
+ * the longest expression starting there is skipped as a whole. An expression is not looked up inside a run, so 十分 in
+ * 三十分 is still a numeral. Each position reads at most one expression, so the rule stays linear however many
+ * expressions it has. The trie is built on first use.
+ */
+public class NumeralPattern implements ErrorFinder {
+
+    @Getter
+    private final String errorMessage;
+
+    private final CharTypePattern.Type numeral;
+
+    private final List<String> words;
+
+    private volatile DoubleArrayTrie expressions;
+
+    private NumeralPattern(final String errorMessage, final CharTypePattern.Type numeral, final List<String> words) {
+        this.errorMessage = errorMessage;
+        this.numeral = numeral;
+        this.words = words;
+    }
+
+    public static NumeralPattern create(final String errorMessage, final CharTypePattern.Type numeral, final List<String> expressions) {
+        return new NumeralPattern(errorMessage, numeral, new ArrayList<>(expressions));
+    }
+
+    public static NumeralPattern create(final String errorMessage, final CharTypePattern.Type numeral, final String... expressions) {
+        return create(errorMessage, numeral, Arrays.asList(expressions));
+    }
+
+    public DoubleArrayTrie getExpressions() {
+        DoubleArrayTrie built = expressions;
+        if (built == null) {
+            // Racing threads may both build; either result is the same trie.
+            built = DoubleArrayTrie.create(words);
+            expressions = built;
+        }
+        return built;
+    }
+
+    @Override
+    public void findAll(final CharSequence content, final int from, final int to, final PositionSink sink) {
+
+        final DoubleArrayTrie expressions = getExpressions();
+        int run = -1;
+        int position = from;
+        while (position < to) {
+            if (run < 0) {
+                final int expression = expressions.match(content, position, to);
+                if (expression > 0) {
+                    position += expression;
+                    continue;
+                }
+            }
+            final int consumed = numeral.length(content, position, to);
+            if (consumed > 0) {
+                if (run < 0) {
+                    run = position;
+                }
+                position += consumed;
+            } else {
+                if (run >= 0) {
+                    sink.accept(run, position);
+                    run = -1;
+                }
+                position++;
+            }
+        }
+        if (run >= 0) {
+            sink.accept(run, to);
+        }
+    }
+
+}
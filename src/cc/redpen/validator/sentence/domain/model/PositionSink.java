@@ -0,0 +1,18 @@
+package cc.redpen.validator.sentence.domain.model;
+
+/**
+ * Receives the start and end offsets of errors as they are found.
+ */
+@FunctionalInterface
+public interface PositionSink {
+
+    void accept(int start, int end);
+
+    /**
+     * The rule gave up on the sentence when its {@link MatchBudget} ran out; positions accepted before are errors,
+     * the rest of the sentence was not searched.
+     */
+    default void skip() {
+    }
+
+}
@@ -0,0 +1,33 @@
+package cc.redpen.validator.sentence.domain.model;
+
+/**
+ * Maps the buffer offsets of one {@link TextBatch} region back to its sentence; moved from region to region.
+ */
+final class RegionSink implements PositionSink {
+
+    private final BatchSink target;
+
+    private int sentence;
+    private int offset;
+
+    RegionSink(final BatchSink target) {
+        this.target = target;
+    }
+
+    RegionSink at(final TextBatch batch, final int sentence) {
+        this.sentence = sentence;
+        this.offset = batch.getStart(sentence);
+        return this;
+    }
+
+    @Override
+    public void accept(final int start, final int end) {
+        target.accept(sentence, start - offset, end - offset);
+    }
+
+    @Override
+    public void skip() {
+        target.skip(sentence);
+    }
+
+}
@@ -0,0 +1,218 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.metrics.RuleMetrics;
+import lombok.Getter;
+
+public class Rule {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final Group group;
+
+    /**
+     * The regex the rule is defined by, or {@code null} when the rule is not a single pattern.
+     */
+    @Getter
+    private final ErrorPattern errorPattern;
+
+    /**
+     * What actually finds the errors; the reference {@link #errorPattern} itself unless a faster equivalent exists.
+     */
+    @Getter
+    private final ErrorFinder finder;
+
+    /**
+     * Where evaluations are recorded, or {@code null} when the rule is not metered.
+     */
+    @Getter
+    private final RuleMetrics metrics;
+
+    /**
+     * What one sentence may cost the finder, or {@code null} when it is not bounded.
+     */
+    @Getter
+    private final MatchBudget budget;
+
+    /**
+     * How many errors the finder reports per sentence, or {@code null} when it is not capped.
+     */
+    @Getter
+    private final ErrorCap cap;
+
+    private Rule(final String name, final Group group, final ErrorPattern errorPattern, final ErrorFinder finder, final RuleMetrics metrics, final MatchBudget budget, final ErrorCap cap) {
+        this.name = name;
+        this.group = group;
+        this.errorPattern = errorPattern;
+        this.finder = finder;
+        this.metrics = metrics;
+        this.budget = budget;
+        this.cap = cap;
+    }
+
+    public static Rule create(final String name, final Group group, final ErrorPattern errorPattern, final ErrorFinder finder) {
+        return new Rule(name, group, errorPattern, finder, null, null, null);
+    }
+
+    public static Rule create(final String name, final Group group, final ErrorPattern errorPattern) {
+        return new Rule(name, group, errorPattern, errorPattern, null, null, null);
+    }
+
+    /**
+     * The same rule, recording every evaluation in {@code metrics}; unmetered rules pay nothing for instrumentation.
+     */
+    public Rule metered(final RuleMetrics metrics) {
+        return new Rule(name, group, errorPattern, finder, metrics, budget, cap);
+    }
+
+    /**
+     * The same rule, giving up on a sentence once {@code budget} is spent and telling the sink to
+     * {@link PositionSink#skip() skip} it.
+     * <p>
+     * Only a backtracking {@link ErrorPattern} can take more than linear time; rules found by a table or an automaton
+     * are returned as they are, so they keep reading the content directly.
+     */
+    public Rule budgeted(final MatchBudget budget) {
+        if (budget == null || !(finder instanceof ErrorPattern)) {
+            return this;
+        }
+        return new Rule(name, group, errorPattern, finder, metrics, budget, cap);
+    }
+
+    /**
+     * The same rule, whose finder stops searching a sentence after the position past {@code cap}; engines that
+     * evaluate the rule in a shared scan keep as many positions, and end the scan once all its rules have them.
+     */
+    public Rule capped(final ErrorCap cap) {
+        if (cap == null) {
+            return this;
+        }
+        return new Rule(name, group, errorPattern, finder, metrics, budget, cap);
+    }
+
+    public String getErrorMessage() {
+        return finder.getErrorMessage();
+    }
+
+    /**
+     * Streams the error positions in {@code sentence} to {@code sink} without allocating a result.
+     */
+    public void findAll(final Sentence sentence, final PositionSink sink) {
+        findAll(sentence.getContent(), sink);
+    }
+
+    /**
+     * Streams the error positions in the sentence {@code content} to {@code sink}, within the budget and cap.
+     */
+    public void findAll(final CharSequence content, final PositionSink sink) {
+        if (metrics == null) {
+            find(content, sink);
+            return;
+        }
+        final RuleMetrics.Counter counter = metrics.counting(sink);
+        final long start = System.nanoTime();
+        try {
+            find(content, counter);
+        } finally {
+            metrics.record(1, counter.take(), System.nanoTime() - start);
+        }
+    }
+
+    private void find(final CharSequence content, final PositionSink sink) {
+        if (budget == null && cap == null) {
+            finder.findAll(content, sink);
+            return;
+        }
+        try {
+            finder.findAll(budget == null ? content : budget.wrap(content), cap == null ? sink : cap.wrap(sink));
+        } catch (MatchBudget.Exceeded e) {
+            sink.skip();
+        } catch (ErrorCap.Reached e) {
+            // the rest of the sentence is not needed
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        if (budget != null) {
+            budget.release();
+        }
+        if (cap != null) {
+            cap.release();
+        }
+    }
+
+    /**
+     * Streams the error positions of every sentence in {@code batch} to {@code sink}, sentence by sentence.
+     */
+    public void findAll(final TextBatch batch, final BatchSink sink) {
+        if (metrics == null) {
+            find(batch, sink);
+            return;
+        }
+        final RuleMetrics.Counter counter = metrics.counting(sink);
+        final long start = System.nanoTime();
+        try {
+            find(batch, counter);
+        } finally {
+            metrics.record(batch.size(), counter.take(), System.nanoTime() - start);
+        }
+    }
+
+    private void find(final TextBatch batch, final BatchSink sink) {
+        if (budget == null && cap == null) {
+            finder.findAll(batch, sink);
+            return;
+        }
+        // Each sentence has its own budget and cap, so one pathological sentence does not stop the rest of the batch.
+        final RegionSink region = new RegionSink(sink);
+        try {
+            for (int sentence = 0; sentence < batch.size(); sentence++) {
+                final PositionSink target = region.at(batch, sentence);
+                try {
+                    finder.findAll(
+                            budget == null ? batch.getText() : budget.wrap(batch.getText()),
+                            batch.getStart(sentence), batch.getEnd(sentence),
+                            cap == null ? target : cap.wrap(target)
+                    );
+                } catch (MatchBudget.Exceeded e) {
+                    sink.skip(sentence);
+                } catch (ErrorCap.Reached e) {
+                    // on to the next sentence
+                }
+            }
+        } finally {
+            release();
+        }
+    }
+
+    public ValidationResult apply(final Sentence sentence) {
+        final ValidationResult result = ValidationResult.create();
+        findAll(sentence, result);
+        if (result.isFailed()) {
+            result.setErrorMessage(getErrorMessage());
+        }
+        return result;
+    }
+
+    public enum Group {
+        CHARACTERS,
+        SPACES,
+        NUMBERS,
+        TONE,
+        FREQUENT_ERRORS,
+        TERMINOLOGY;
+
+        /**
+         * Whether {@code name} names the group, ignoring case and underscores ({@code FrequentErrors},
+         * {@code frequent_errors}).
+         */
+        public boolean isNamed(final String name) {
+            return name().replace("_", "").equalsIgnoreCase(name.replace("_", ""));
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Resolves which rules to evaluate from names of rules or of their {@link Rule.Group}s.
+ */
+public final class RuleSelection {
+
+    private RuleSelection() {
+    }
+
+    /**
+     * @param enabled  rule or group names to evaluate; empty for every rule.
+     * @param disabled rule or group names to leave out, applied after {@code enabled}.
+     * @return the selected rules, in their original order.
+     * @throws IllegalArgumentException if a name matches no rule nor group.
+     */
+    public static List<Rule> select(final List<Rule> rules, final Collection<String> enabled, final Collection<String> disabled) {
+
+        check(rules, enabled);
+        check(rules, disabled);
+
+        final List<Rule> selected = new ArrayList<>();
+        for (final Rule rule : rules) {
+            if ((enabled.isEmpty() || matchesAny(rule, enabled)) && !matchesAny(rule, disabled)) {
+                selected.add(rule);
+            }
+        }
+        return selected;
+    }
+
+    private static void check(final List<Rule> rules, final Collection<String> names) {
+        for (final String name : names) {
+            if (rules.stream().noneMatch(rule -> matches(rule, name))) {
+                throw new IllegalArgumentException("Unknown rule or group: " + name);
+            }
+        }
+    }
+
+    private static boolean matchesAny(final Rule rule, final Collection<String> names) {
+        for (final String name : names) {
+            if (matches(rule, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(final Rule rule, final String name) {
+        return rule.getName().equalsIgnoreCase(name) || rule.getGroup().isNamed(name);
+    }
+
+}
@@ -0,0 +1,128 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.validator.sentence.domain.engine.ScriptIndex;
+import lombok.Getter;
+
+/**
+ * Rule over the runs of a {@link ScriptIndex}, equivalent to a regex of the form {@code [X]+}, or
+ * {@code ([A][B]|[B][A])} where {@code A} and {@code B} have no script in common, every class being a union of scripts.
+ * <p>
+ * The first shape is read off the runs directly. In the second, a match can only straddle the boundary of two runs,
+ * so only boundaries are tested; a class consumes a whole code point and matches do not overlap, exactly as
+ * {@link java.util.regex.Matcher#find()} does, so positions are the same as the reference regex.
+ */
+public class ScriptPattern implements ErrorFinder {
+
+    @Getter
+    private final String errorMessage;
+
+    // script bits of the run, or of the first class; 0 for the second shape
+    private final int run;
+
+    private final int first;
+    private final int second;
+
+    private ScriptPattern(final String errorMessage, final int run, final int first, final int second) {
+        this.errorMessage = errorMessage;
+        this.run = run;
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * {@code [scripts]+}.
+     */
+    public static ScriptPattern run(final String errorMessage, final int scripts) {
+        return new ScriptPattern(errorMessage, scripts, 0, 0);
+    }
+
+    /**
+     * {@code ([first][second]|[second][first])}.
+     */
+    public static ScriptPattern boundaries(final String errorMessage, final int first, final int second) {
+        if ((first & second) != 0) {
+            throw new IllegalArgumentException("The classes of a boundary must have no script in common.");
+        }
+        return new ScriptPattern(errorMessage, 0, first, second);
+    }
+
+    @Override
+    public void findAll(final CharSequence content, final int from, final int to, final PositionSink sink) {
+        findAll(ScriptIndex.of(content, from, to), content, from, to, sink);
+    }
+
+    /**
+     * Reads every sentence off the index of the whole batch, which the batch builds once for all rules.
+     */
+    @Override
+    public void findAll(final TextBatch batch, final BatchSink sink) {
+        final ScriptIndex index = batch.getScripts();
+        final RegionSink region = new RegionSink(sink);
+        for (int sentence = 0; sentence < batch.size(); sentence++) {
+            findAll(index, batch.getText(), batch.getStart(sentence), batch.getEnd(sentence), region.at(batch, sentence));
+        }
+    }
+
+    /**
+     * Finds the errors of {@code content[from, to)}, given an index of a text containing it.
+     */
+    public void findAll(final ScriptIndex index, final CharSequence content, final int from, final int to, final PositionSink sink) {
+        if (from >= to) {
+            return;
+        }
+        if (run != 0) {
+            findRuns(index, from, to, sink);
+        } else {
+            findBoundaries(index, content, from, to, sink);
+        }
+    }
+
+    private void findRuns(final ScriptIndex index, final int from, final int to, final PositionSink sink) {
+
+        int start = -1;
+        for (int i = index.indexOf(from); i < index.size() && index.getStart(i) < to; i++) {
+            if ((ScriptIndex.bit(index.getScript(i)) & run) != 0) {
+                if (start < 0) {
+                    start = Math.max(index.getStart(i), from);
+                }
+            } else if (start >= 0) {
+                sink.accept(start, index.getStart(i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            sink.accept(start, to);
+        }
+    }
+
+    private void findBoundaries(final ScriptIndex index, final CharSequence content, final int from, final int to, final PositionSink sink) {
+
+        int last = from;
+        for (int i = index.indexOf(from) + 1; i < index.size() && index.getStart(i) < to; i++) {
+            final int boundary = index.getStart(i);
+            final int left = ScriptIndex.bit(index.getScript(i - 1));
+            final int right = ScriptIndex.bit(index.getScript(i));
+            if (!((left & first) != 0 && (right & second) != 0 || (left & second) != 0 && (right & first) != 0)) {
+                continue;
+            }
+            int start = boundary - 1;
+            if (start - 1 >= from
+                    && Character.isLowSurrogate(content.charAt(start))
+                    && Character.isHighSurrogate(content.charAt(start - 1))) {
+                start--;
+            }
+            if (start < last) {
+                continue;
+            }
+            int end = boundary + 1;
+            if (end < to
+                    && Character.isHighSurrogate(content.charAt(boundary))
+                    && Character.isLowSurrogate(content.charAt(end))) {
+                end++;
+            }
+            sink.accept(start, end);
+            last = end;
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.validator.sentence.domain.engine.MappedDoubleArrayTrie;
+import lombok.Getter;
+
+/**
+ * Rule over a list of approved and forbidden terms, reporting every forbidden term.
+ */
+public class TermPattern implements ErrorFinder {
+
+    /**
+     * Value of a term to report.
+     */
+    public static final byte FORBIDDEN = 1;
+
+    /**
+     * Value of a term to leave alone.
+     */
+    public static final byte APPROVED = 2;
+
+    @Getter
+    private final String errorMessage;
+
+    private final MappedDoubleArrayTrie terms;
+
+    /**
+     * The number of terms in the list.
+     */
+    @Getter
+    private final int size;
+
+    /**
+     * Identifies the terms: the file they were mapped from, with its size and modification time.
+     */
+    @Getter
+    private final String source;
+
+    private TermPattern(final String errorMessage, final MappedDoubleArrayTrie terms, final int size, final String source) {
+        this.errorMessage = errorMessage;
+        this.terms = terms;
+        this.size = size;
+        this.source = source;
+    }
+
+    /**
+     * @param terms  whose word values are {@link #FORBIDDEN} or {@link #APPROVED}.
+     * @param source identifies the terms, so rules over different lists are told apart.
+     */
+    public static TermPattern create(final String errorMessage, final MappedDoubleArrayTrie terms, final int size, final String source) {
+        return new TermPattern(errorMessage, terms, size, source);
+    }
+
+    @Override
+    public void findAll(final CharSequence content, final int from, final int to, final PositionSink sink) {
+
+        // Leftmost-longest without overlap, so an approved term shadows the forbidden terms it contains.
+        int position = from;
+        while (position < to) {
+            final int match = terms.match(content, position, to);
+            if (match == 0) {
+                position++;
+                continue;
+            }
+            final int end = position + MappedDoubleArrayTrie.length(match);
+            if (MappedDoubleArrayTrie.value(match) == FORBIDDEN) {
+                sink.accept(position, end);
+            }
+            position = end;
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.engine.ScriptIndex;
+
+import java.util.List;
+
+/**
+ * Sentences concatenated into one buffer, with a boundary table mapping buffer offsets back to sentences.
+ * <p>
+ * Sentences are laid end to end without separators; finders scan each sentence's region as if it were the whole
+ * input, so no match crosses a boundary. A batch is reusable: {@link #reset(List)} keeps the storage.
+ */
+public final class TextBatch {
+
+    private final StringBuilder text;
+
+    // sentence i spans [offsets[i], offsets[i + 1])
+    private int[] offsets;
+
+    private int size;
+
+    private final ScriptIndex scripts;
+
+    // whether scripts holds the runs of the current text
+    private boolean indexed;
+
+    private TextBatch() {
+        this.text = new StringBuilder();
+        this.offsets = new int[16];
+        this.size = 0;
+        this.scripts = ScriptIndex.create();
+    }
+
+    public static TextBatch create() {
+        return new TextBatch();
+    }
+
+    public TextBatch reset(final List<Sentence> sentences) {
+        text.setLength(0);
+        indexed = false;
+        size = sentences.size();
+        if (offsets.length <= size) {
+            offsets = new int[Math.max(size + 1, 2 * offsets.length)];
+        }
+        for (int i = 0; i < size; i++) {
+            offsets[i] = text.length();
+            text.append(sentences.get(i).getContent());
+        }
+        offsets[size] = text.length();
+        return this;
+    }
+
+    /**
+     * Drops the text, keeping the storage for reuse.
+     */
+    public TextBatch clear() {
+        text.setLength(0);
+        scripts.clear();
+        indexed = false;
+        size = 0;
+        return this;
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    /**
+     * @return the script runs of the whole text, built by the first rule that asks and shared by the others.
+     */
+    public synchronized ScriptIndex getScripts() {
+        if (!indexed) {
+            scripts.reset(text, 0, text.length());
+            indexed = true;
+        }
+        return scripts;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStart(final int sentence) {
+        return offsets[sentence];
+    }
+
+    public int getEnd(final int sentence) {
+        return offsets[sentence + 1];
+    }
+
+    /**
+     * @return the sentence whose region contains the buffer offset {@code position}.
+     */
+    public int indexOf(final int position) {
+        // last sentence starting at or before the position; empty sentences before it are skipped
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int middle = (low + high + 1) >>> 1;
+            if (offsets[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+}
@@ -7,17 +7,29 @@ import lombok.Setter;
 import java.util.ArrayList;
 import java.util.List;
 
-public class ValidationResult {
+/**
+ * Error positions of one rule, stored as primitive start/end pairs.
+ */
+public class ValidationResult implements PositionSink {
 
-    @Getter
-    private final List<Position> errorPositions;
+    private static final int[] EMPTY = new int[0];
+
+    // start and end of the i-th error at 2 * i and 2 * i + 1
+    private int[] positions;
+
+    private int size;
+
+    // whether the rule ran out of its match budget
+    private boolean skipped;
 
     @Getter
     @Setter
     private String errorMessage;
 
     private ValidationResult() {
-        this.errorPositions = new ArrayList<>();
+        this.positions = EMPTY;
+        this.size = 0;
+        this.skipped = false;
         this.errorMessage = null;
     }
 
@@ -26,16 +38,74 @@ public class ValidationResult {
     }
 
     public ValidationResult addErrorPosition(final int start, final int end) {
-        errorPositions.add(new Position(start, end));
+        if (2 * size == positions.length) {
+            final int[] grown = new int[Math.max(8, 2 * positions.length)];
+            System.arraycopy(positions, 0, grown, 0, positions.length);
+            positions = grown;
+        }
+        positions[2 * size] = start;
+        positions[2 * size + 1] = end;
+        size++;
+        return this;
+    }
+
+    @Override
+    public void accept(final int start, final int end) {
+        addErrorPosition(start, end);
+    }
+
+    @Override
+    public void skip() {
+        skipped = true;
+    }
+
+    /**
+     * Forgets the positions, the skip and the message, keeping the storage for reuse.
+     */
+    public ValidationResult clear() {
+        size = 0;
+        skipped = false;
+        errorMessage = null;
         return this;
     }
 
+    public int getErrorCount() {
+        return size;
+    }
+
+    public int getStart(final int index) {
+        return positions[2 * index];
+    }
+
+    public int getEnd(final int index) {
+        return positions[2 * index + 1];
+    }
+
+    /**
+     * The positions as {@link Position}s (row = start, col = end); allocates a new list on every call.
+     */
+    public List<Position> getErrorPositions() {
+        final List<Position> errorPositions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            errorPositions.add(new Position(getStart(i), getEnd(i)));
+        }
+        return errorPositions;
+    }
+
     public boolean isFailed() {
-        return 0 < errorPositions.size();
+        return 0 < size;
+    }
+
+    /**
+     * Whether the rule gave up on the sentence when its {@link MatchBudget} ran out; the positions found before are
+     * still errors.
+     */
+    public boolean isSkipped() {
+        return skipped;
     }
 
     public boolean isSucceed() {
-        return 0 == errorPositions.size();
+        return 0 == size;
     }
 
 }
@@ -1,51 +1,66 @@
 package cc.redpen.validator.sentence.domain.style;
 
 import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.engine.AdaptiveRuleEngine;
+import cc.redpen.validator.sentence.domain.engine.CodePointTable;
+import cc.redpen.validator.sentence.domain.engine.ScriptIndex;
+import cc.redpen.validator.sentence.domain.model.CharTypePattern;
+import cc.redpen.validator.sentence.domain.model.CharTypePattern.Type;
+import cc.redpen.validator.sentence.domain.model.ErrorFinder;
 import cc.redpen.validator.sentence.domain.model.ErrorPattern;
+import cc.redpen.validator.sentence.domain.model.KatakanaPattern;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern.Prefix;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern.Suffix;
+import cc.redpen.validator.sentence.domain.model.NumeralPattern;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.Rule.Group;
+import cc.redpen.validator.sentence.domain.model.ScriptPattern;
 import cc.redpen.validator.sentence.domain.model.ValidationResult;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.BiFunction;
-import java.util.function.BiPredicate;
 import java.util.function.Function;
-import java.util.regex.Matcher;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface MSStyleJP {
 
 
     default List<ValidationResult> validateMSStyle(final Sentence sentence) {
 
-        return validators
+        return rules
                 .stream()
-                .parallel()
-                .map(v -> v.apply(sentence))
+                .map(rule -> rule.apply(sentence))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Validates the sentences as one batch: one list of results per sentence, equal to
+     * {@link #validateMSStyle(Sentence)} on each.
+     */
+    default List<List<ValidationResult>> validateMSStyle(final List<Sentence> sentences) {
+
+        return batchEngine.evaluate(sentences);
+    }
+
 
     /*------------------------------------------------------------------------------------------------------------------
      * Common
      *----------------------------------------------------------------------------------------------------------------*/
-    BiPredicate<String, String> matches = (sentence, pattern)
-            -> sentence.matches(String.format(".*%s.*", pattern));
-
-
-    BiFunction<Sentence, ErrorPattern, ValidationResult> valid = (sentence, pattern)
+    /**
+     * Scans the sentence once with the rule's finder and collects every error.
+     */
+    BiFunction<Sentence, ErrorFinder, ValidationResult> valid = (sentence, finder)
             -> {
 
         ValidationResult result = ValidationResult.create();
 
-        final boolean valid = matches.negate().test(sentence.getContent(), pattern.getErrorPattern().pattern());
-        if (valid) {
-            return result;
-        }
+        finder.findAll(sentence.getContent(), result);
 
-        result.setErrorMessage(pattern.getErrorMessage());
-        final Matcher matcher = pattern.getErrorPattern().matcher(sentence.getContent());
-        while (matcher.find()) {
-            result.addErrorPosition(matcher.start(), matcher.end());
+        if (result.isFailed()) {
+            result.setErrorMessage(finder.getErrorMessage());
         }
 
         return result;
@@ -62,7 +77,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateKatakana = sentence
             -> valid.apply(
             sentence,
-            Error.Characters.Katakana.HALF_WIDTH
+            Scripts.Characters.Katakana.HALF_WIDTH
     );
 
 
@@ -72,7 +87,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateKatakanaKa = (sentence)
             -> valid.apply(
             sentence,
-            Error.Characters.Katakana.KA
+            Runs.Characters.Katakana.KA
     );
 
     /**
@@ -81,7 +96,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateKatakanaKo = (sentence)
             -> valid.apply(
             sentence,
-            Error.Characters.Katakana.KO
+            Runs.Characters.Katakana.KO
     );
 
     /**
@@ -90,7 +105,10 @@ public interface MSStyleJP {
      * When the English term consists of a prefix and a stem word, the words should be considered one by one.
      */
     Function<Sentence, ValidationResult> validateLongVowel = (sentence)
-            -> null;
+            -> valid.apply(
+            sentence,
+            Runs.Characters.LongVowel.GENERAL
+    );
 
     /**
      * In principle, use a long vowel when a source English term has following suffixes: -er, -or, -ar
@@ -102,7 +120,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateLongVowelExceptionUse = (sentence)
             -> valid.apply(
             sentence,
-            Error.Characters.LongVowel.EXCEPTION_USE
+            Runs.Characters.LongVowel.EXCEPTION_USE
     );
 
 
@@ -116,7 +134,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateLongVowelExceptionNotUse = (sentence)
             -> valid.apply(
             sentence,
-            Error.Characters.LongVowel.EXCEPTION_NOT_USE
+            Runs.Characters.LongVowel.EXCEPTION_NOT_USE
     );
 
     /**
@@ -127,7 +145,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateEnglishLetters = (sentence)
             -> valid.apply(
             sentence,
-            Error.Characters.EnglishLetters.FULL_WIDTH
+            Scripts.Characters.EnglishLetters.FULL_WIDTH
     );
 
     /**
@@ -137,7 +155,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateSpacesFullHalf = (sentence)
             -> valid.apply(
             sentence,
-            Error.Characters.Spaces.FULL_HALF
+            Scripts.Characters.Spaces.FULL_HALF
     );
 
     /**
@@ -283,7 +301,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateSpacesParenthesis = (sentence)
             -> valid.apply(
             sentence,
-            Error.Characters.Spaces.PARENTHESIS
+            Table.Characters.Spaces.PARENTHESIS
     );
 
     /**
@@ -307,17 +325,19 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateArabicNumeralsFull = (sentence)
             -> valid.apply(
             sentence,
-            Error.Numbers.ARABIC_NUMERALS_FULL
+            Scripts.Numbers.ARABIC_NUMERALS_FULL
     );
 
     /**
      * Numbers can be written with Arabic and Chinese numerals.
      * Use Arabic numerals when the numeral can be replaced by other numerals.
+     * <p>
+     * Numerals of fixed expressions (一般, 十分, 四捨五入) cannot be replaced.
      */
     Function<Sentence, ValidationResult> validateChineseNumerals = (sentence)
             -> valid.apply(
             sentence,
-            Error.Numbers.CHINESE_NUMERALS
+            Lexicon.Numbers.CHINESE_NUMERALS
     );
 
     /**
@@ -326,7 +346,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateMeasurementUnits = (sentence)
             -> valid.apply(
             sentence,
-            Error.Numbers.MEASUREMENT_UNITS
+            Lexicon.Numbers.MEASUREMENT_UNITS
     );
 
     /**
@@ -348,7 +368,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateToneHumbleExpression = (sentence)
             -> valid.apply(
             sentence,
-            Error.Tone.HUMBLE_EXPRESSION
+            Lexicon.Tone.HUMBLE_EXPRESSION
     );
 
     /**
@@ -358,7 +378,7 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateTonePoliteExpression = (sentence)
             -> valid.apply(
             sentence,
-            Error.Tone.POLITE_EXPRESSION
+            Lexicon.Tone.POLITE_EXPRESSION
     );
 
     /**
@@ -368,38 +388,44 @@ public interface MSStyleJP {
     Function<Sentence, ValidationResult> validateFrequentErrorsFusei = (sentence)
             -> valid.apply(
             sentence,
-            Error.FrequentErrors.Fusei
+            Lexicon.FrequentErrors.Fusei
     );
 
-    List<Function<Sentence, ValidationResult>> validators = Arrays.asList(
-            validateKatakana,
-            validateKatakanaKa,
-            validateKatakanaKo,
-            //validateLongVowel,
-            validateLongVowelExceptionUse,
-            validateLongVowelExceptionNotUse,
-            validateEnglishLetters,
-            validateSpacesFullHalf,
-            validateSpacesFullStop,
-            validateSpacesComma,
-            validateSpacesAngle,
-            validateSpacesParentheses,
-            validateSpacesQuotationMarks,
-            validateSpacesBrackets,
-            validateSpacesSlash,
-            validateSpacesFullWidth,
-            validateSpacesAccessKey,
-            validateSpacesParenthesis,
-            validateSpacesMarkEndHalfStart,
-            validateArabicNumeralsFull,
-            //validateChineseNumerals,
-            validateMeasurementUnits,
-            validateMeasurementUnitsWithoutASpace,
-            validateToneHumbleExpression,
-            validateTonePoliteExpression,
-            validateFrequentErrorsFusei
+    List<Rule> rules = Arrays.asList(
+            Rule.create("Katakana", Group.CHARACTERS, Error.Characters.Katakana.HALF_WIDTH, Scripts.Characters.Katakana.HALF_WIDTH),
+            Rule.create("KatakanaKa", Group.CHARACTERS, Error.Characters.Katakana.KA, Runs.Characters.Katakana.KA),
+            Rule.create("KatakanaKo", Group.CHARACTERS, Error.Characters.Katakana.KO, Runs.Characters.Katakana.KO),
+            Rule.create("LongVowel", Group.CHARACTERS, null, Runs.Characters.LongVowel.GENERAL),
+            Rule.create("LongVowelExceptionUse", Group.CHARACTERS, Error.Characters.LongVowel.EXCEPTION_USE, Runs.Characters.LongVowel.EXCEPTION_USE),
+            Rule.create("LongVowelExceptionNotUse", Group.CHARACTERS, Error.Characters.LongVowel.EXCEPTION_NOT_USE, Runs.Characters.LongVowel.EXCEPTION_NOT_USE),
+            Rule.create("EnglishLetters", Group.CHARACTERS, Error.Characters.EnglishLetters.FULL_WIDTH, Scripts.Characters.EnglishLetters.FULL_WIDTH),
+            Rule.create("SpacesFullHalf", Group.SPACES, Error.Characters.Spaces.FULL_HALF, Scripts.Characters.Spaces.FULL_HALF),
+            Rule.create("SpacesFullStop", Group.SPACES, Error.Characters.Spaces.FULL_STOP),
+            Rule.create("SpacesComma", Group.SPACES, Error.Characters.Spaces.COMMA),
+            Rule.create("SpacesAngle", Group.SPACES, Error.Characters.Spaces.ANGLE),
+            Rule.create("SpacesParentheses", Group.SPACES, Error.Characters.Spaces.PARENTHESES),
+            Rule.create("SpacesQuotationMarks", Group.SPACES, Error.Characters.Spaces.QUOTATION_MARKS),
+            Rule.create("SpacesBrackets", Group.SPACES, Error.Characters.Spaces.BRACKETS),
+            Rule.create("SpacesSlash", Group.SPACES, Error.Characters.Spaces.SLASH),
+            Rule.create("SpacesFullWidth", Group.SPACES, Error.Characters.Spaces.FULL_WIDTH),
+            Rule.create("SpacesAccessKey", Group.SPACES, Error.Characters.Spaces.ACCESS_KEY),
+            Rule.create("SpacesParenthesis", Group.SPACES, Error.Characters.Spaces.PARENTHESIS, Table.Characters.Spaces.PARENTHESIS),
+            Rule.create("SpacesMarkEndHalfStart", Group.SPACES, Error.Characters.Spaces.MARK_END_HALF_START),
+            Rule.create("ArabicNumeralsFull", Group.NUMBERS, Error.Numbers.ARABIC_NUMERALS_FULL, Scripts.Numbers.ARABIC_NUMERALS_FULL),
+            Rule.create("ChineseNumerals", Group.NUMBERS, null, Lexicon.Numbers.CHINESE_NUMERALS),
+            Rule.create("MeasurementUnits", Group.NUMBERS, Error.Numbers.MEASUREMENT_UNITS, Lexicon.Numbers.MEASUREMENT_UNITS),
+            Rule.create("MeasurementUnitsWithoutASpace", Group.NUMBERS, Error.Numbers.MEASUREMENT_UNITS_WITHOUT_A_SPACE),
+            Rule.create("ToneHumbleExpression", Group.TONE, Error.Tone.HUMBLE_EXPRESSION, Lexicon.Tone.HUMBLE_EXPRESSION),
+            Rule.create("TonePoliteExpression", Group.TONE, Error.Tone.POLITE_EXPRESSION, Lexicon.Tone.POLITE_EXPRESSION),
+            Rule.create("FrequentErrorsFusei", Group.FREQUENT_ERRORS, Error.FrequentErrors.Fusei, Lexicon.FrequentErrors.Fusei)
     );
 
+    /**
+     * Evaluates {@link #rules} for the default {@link #validateMSStyle(List)}, which would otherwise build an engine
+     * and its per-thread buffers on every call.
+     */
+    AdaptiveRuleEngine batchEngine = AdaptiveRuleEngine.sequential(rules);
+
     /*------------------------------------------------------------------------------------------------------------------
      * Regex
      *----------------------------------------------------------------------------------------------------------------*/
@@ -427,13 +453,11 @@ public interface MSStyleJP {
             interface LongVowel {
 
                 ErrorPattern EXCEPTION_USE = ErrorPattern.create(
-                        "(アカデミ|アドベンチャ|アレルギ|アスキ|バルコニ|バーベキュ|バースデ|ブルーベリ|カロリ|セレモニ|チータ|チンパンジ|コーヒ|カンパニ|コンピテンシ|マホガニ|マーキ|ムービ|ミステリ|ネイチャ|ネービ|アウトロ|ペイズリ|パンジ|パスキ|パススル|ペッカリ|フォトグラフィ|ポリシ|プレーリ|パブリシティ|クランベリ|デイリ|ドルビ|ドリルスル|イージ|エコノミ|エナジ|エネルギ|ファンシ|ファンタジ|フロッピ|フリークエンシ|ギャラリ|ハーモニ|ヘルシ|ヒーロ|ホットキ|ハウツ|ラズベリ|ランデブ|レスキュ|ロータリ|シーナリ|スクリュ|シーソ|シャンプ|スプレ|ストーリ|ストロベリ|サマリ|シナジ|タクシ|テンキ|タイムリ|トレジャ|トロリ|トロフィ|バリュ|インタビュ|ベンチャ|ジュエリ|ビクトリ|カンガル|ウィスキ|ワークフロ|ラグジュアリ)[^ー]",
-                        "Use a long vowel when a source English term has following terms should be handled differently."
+                        Lexicon.Characters.LongVowel.EXCEPTION_USE
                 );
 
                 ErrorPattern EXCEPTION_NOT_USE = ErrorPattern.create(
-                        "(アクセラレータ|バリア|バザール|ベア|ビール|キャリア|センチメートル|クリア|コンパイラ|コネクタ|コンベヤ|メートル|ミリメートル|アウトドア|ピア|ポリエステル|プレミア|プロセッサ|プログラマ|プロペラ|ラジエータ|ドル|ドア|エンジニア|エクステリア|フロア|フォーマッタ|フロンティア|ギア|ユーモア|リア|レジスタ|スケジューラ|シニア|スリッパ|ステラ|タール|ターミネータ|トランジスタ|インドア|インテリア|ジュニア|ボランティア|リニア)[ー]",
-                        "Do not use a long vowel when a source English term has following terms should be handled differently."
+                        Lexicon.Characters.LongVowel.EXCEPTION_NOT_USE
                 );
 
             }
@@ -515,8 +539,7 @@ public interface MSStyleJP {
                     "Use Arabic numerals when the numeral can be replaced by other numerals."
             );
             ErrorPattern MEASUREMENT_UNITS = ErrorPattern.create(
-                    "(\\d+ (キロメートル|メートル|デシメートル|センチメートル|ミリメートル|ミリ|ヘクトリットル|リットル|デシリットル|センチリットル|ミリリットル|トン|キログラム|lb|グラム|デシグラム|センチグラム|ミリグラム|in|ft|mi|gal|テラバイト|ギガバイト|メガバイト|キロバイト|B|b|ビット/秒|ギガヘルツ|メガヘルツ|キロヘルツ|ヘルツ|ドット|ドット/インチ|ドット/インチ|sec|ms))",
-                    "Do not use the measurement unit unless necessary."
+                    Lexicon.Numbers.MEASUREMENT_UNITS
             );
             ErrorPattern MEASUREMENT_UNITS_WITHOUT_A_SPACE = ErrorPattern.create(
                     "(\\d (°|%|mm))",
@@ -528,24 +551,229 @@ public interface MSStyleJP {
         interface Tone {
 
             ErrorPattern HUMBLE_EXPRESSION = ErrorPattern.create(
-                    "(当社|我社)",
-                    "In materials in which “supplier-customer” relationship should be considered, use 弊社."
+                    Lexicon.Tone.HUMBLE_EXPRESSION
             );
             ErrorPattern POLITE_EXPRESSION = ErrorPattern.create(
-                    "(ご注意ください|ご確認ください)",
-                    "Do not use excessively polite expression unless necessary."
+                    Lexicon.Tone.POLITE_EXPRESSION
             );
         }
 
         interface FrequentErrors {
 
             ErrorPattern Fusei = ErrorPattern.create(
-                    "(不正)",
-                    "Avoid using the term “不正” unless it pertains to something prohibited by law."
+                    Lexicon.FrequentErrors.Fusei
+            );
+
+        }
+
+
+    }
+
+    /*------------------------------------------------------------------------------------------------------------------
+     * Code point table
+     *----------------------------------------------------------------------------------------------------------------*/
+
+    interface Table {
+
+        interface Characters {
+
+            interface Spaces {
+
+                CharTypePattern PARENTHESIS = CharTypePattern.pairs(
+                        Error.Characters.Spaces.PARENTHESIS.getErrorMessage(),
+                        Type.of(CodePointTable.HALF_WIDTH),
+                        Type.of(CodePointTable.OPEN_PARENTHESIS),
+                        Type.of(CodePointTable.CLOSE_PARENTHESIS),
+                        Type.of(CodePointTable.HALF_WIDTH)
+                );
+            }
+        }
+
+    }
+
+    /*------------------------------------------------------------------------------------------------------------------
+     * Script runs
+     *----------------------------------------------------------------------------------------------------------------*/
+
+    interface Scripts {
+
+        interface Characters {
+
+            interface Katakana {
+
+                ScriptPattern HALF_WIDTH = ScriptPattern.run(
+                        Error.Characters.Katakana.HALF_WIDTH.getErrorMessage(),
+                        ScriptIndex.bit(ScriptIndex.HALF_WIDTH_KANA)
+                );
+            }
+
+            interface EnglishLetters {
+
+                ScriptPattern FULL_WIDTH = ScriptPattern.run(
+                        Error.Characters.EnglishLetters.FULL_WIDTH.getErrorMessage(),
+                        ScriptIndex.bit(ScriptIndex.FULL_WIDTH_ALNUM) | ScriptIndex.bit(ScriptIndex.FULL_WIDTH_DIGIT)
+                );
+            }
+
+            interface Spaces {
+
+                ScriptPattern FULL_HALF = ScriptPattern.boundaries(
+                        Error.Characters.Spaces.FULL_HALF.getErrorMessage(),
+                        ScriptIndex.HALF_WIDTH,
+                        ~(ScriptIndex.HALF_WIDTH | ScriptIndex.bit(ScriptIndex.SPACE) | ScriptIndex.bit(ScriptIndex.JP_PUNCTUATION))
+                );
+            }
+        }
+
+        interface Numbers {
+
+            ScriptPattern ARABIC_NUMERALS_FULL = ScriptPattern.run(
+                    Error.Numbers.ARABIC_NUMERALS_FULL.getErrorMessage(),
+                    ScriptIndex.bit(ScriptIndex.FULL_WIDTH_DIGIT)
             );
+        }
+
+    }
 
+    /*------------------------------------------------------------------------------------------------------------------
+     * Katakana runs
+     *----------------------------------------------------------------------------------------------------------------*/
+
+    interface Runs {
+
+        interface Characters {
+
+            interface Katakana {
+
+                KatakanaPattern KA = KatakanaPattern.counter(
+                        Error.Characters.Katakana.KA.getErrorMessage(),
+                        "ケヶカヵ",
+                        "年月"
+                );
+                KatakanaPattern KO = KatakanaPattern.counter(
+                        Error.Characters.Katakana.KO.getErrorMessage(),
+                        "ケコ",
+                        null
+                );
+            }
+
+            interface LongVowel {
+
+                KatakanaPattern GENERAL = KatakanaPattern.longVowel(
+                        "Do not use a long vowel at the end of a Katakana word of 4 morae or more, unless the source English term ends with -er, -or or -ar.",
+                        Stream.concat(
+                                Lexicon.Characters.LongVowel.EXCEPTION_USE.getWords().stream(),
+                                Lexicon.Characters.LongVowel.EXCEPTION_NOT_USE.getWords().stream()
+                        ).collect(Collectors.toList())
+                );
+                KatakanaPattern EXCEPTION_USE = KatakanaPattern.lexicon(
+                        Lexicon.Characters.LongVowel.EXCEPTION_USE
+                );
+                KatakanaPattern EXCEPTION_NOT_USE = KatakanaPattern.lexicon(
+                        Lexicon.Characters.LongVowel.EXCEPTION_NOT_USE
+                );
+            }
         }
 
+    }
+
+    /*------------------------------------------------------------------------------------------------------------------
+     * Lexicon
+     *----------------------------------------------------------------------------------------------------------------*/
+
+    interface Lexicon {
+
+        interface Characters {
+
+            interface LongVowel {
+
+                LexiconPattern EXCEPTION_USE = LexiconPattern.create(
+                        Prefix.NONE,
+                        Suffix.NOT_LONG_VOWEL,
+                        "Use a long vowel when a source English term has following terms should be handled differently.",
+                        "アカデミ", "アドベンチャ", "アレルギ", "アスキ", "バルコニ", "バーベキュ", "バースデ", "ブルーベリ",
+                        "カロリ", "セレモニ", "チータ", "チンパンジ", "コーヒ", "カンパニ", "コンピテンシ", "マホガニ",
+                        "マーキ", "ムービ", "ミステリ", "ネイチャ", "ネービ", "アウトロ", "ペイズリ", "パンジ",
+                        "パスキ", "パススル", "ペッカリ", "フォトグラフィ", "ポリシ", "プレーリ", "パブリシティ", "クランベリ",
+                        "デイリ", "ドルビ", "ドリルスル", "イージ", "エコノミ", "エナジ", "エネルギ", "ファンシ",
+                        "ファンタジ", "フロッピ", "フリークエンシ", "ギャラリ", "ハーモニ", "ヘルシ", "ヒーロ", "ホットキ",
+                        "ハウツ", "ラズベリ", "ランデブ", "レスキュ", "ロータリ", "シーナリ", "スクリュ", "シーソ",
+                        "シャンプ", "スプレ", "ストーリ", "ストロベリ", "サマリ", "シナジ", "タクシ", "テンキ",
+                        "タイムリ", "トレジャ", "トロリ", "トロフィ", "バリュ", "インタビュ", "ベンチャ", "ジュエリ",
+                        "ビクトリ", "カンガル", "ウィスキ", "ワークフロ", "ラグジュアリ"
+                );
+                LexiconPattern EXCEPTION_NOT_USE = LexiconPattern.create(
+                        Prefix.NONE,
+                        Suffix.LONG_VOWEL,
+                        "Do not use a long vowel when a source English term has following terms should be handled differently.",
+                        "アクセラレータ", "バリア", "バザール", "ベア", "ビール", "キャリア", "センチメートル", "クリア",
+                        "コンパイラ", "コネクタ", "コンベヤ", "メートル", "ミリメートル", "アウトドア", "ピア", "ポリエステル",
+                        "プレミア", "プロセッサ", "プログラマ", "プロペラ", "ラジエータ", "ドル", "ドア", "エンジニア",
+                        "エクステリア", "フロア", "フォーマッタ", "フロンティア", "ギア", "ユーモア", "リア", "レジスタ",
+                        "スケジューラ", "シニア", "スリッパ", "ステラ", "タール", "ターミネータ", "トランジスタ", "インドア",
+                        "インテリア", "ジュニア", "ボランティア", "リニア"
+                );
+            }
+        }
+
+        interface Numbers {
+
+            NumeralPattern CHINESE_NUMERALS = NumeralPattern.create(
+                    Error.Numbers.CHINESE_NUMERALS.getErrorMessage(),
+                    Type.of(CodePointTable.CHINESE_NUMERAL),
+                    "一般", "一部", "一覧", "一度", "一括", "一致", "一意", "一連",
+                    "一貫", "一方", "一番", "一緒", "一定", "一様", "一体", "一旦",
+                    "一斉", "一層", "一切", "一瞬", "一環", "一段", "一見", "一員",
+                    "一因", "一応", "一概", "一気", "一助", "一新", "一律", "一例",
+                    "一種", "一面", "一目", "一流", "一元", "一掃", "一転", "一変",
+                    "一通り", "一手", "一言", "一家", "一足", "一途", "一品", "一本化",
+                    "一時的", "一時停止", "一時保存", "一時ファイル", "一時フォルダー", "一昨日", "一昨年", "均一",
+                    "唯一", "同一", "統一", "単一", "画一", "随一", "逐一", "万一",
+                    "万が一", "十分", "十二分", "不十分", "十字", "十人十色", "十中八九", "千差万別",
+                    "千載一遇", "万全", "万能", "万人", "万年", "万国", "万博", "万端",
+                    "億万", "数十", "数百", "数千", "数万", "数億", "数兆", "数十万",
+                    "数百万", "数千万", "数十億", "数百億", "数千億", "何十", "何百", "何千",
+                    "何万", "何億", "百科", "百貨店", "百分率", "百分位", "百聞", "八百屋",
+                    "八百長", "一石二鳥", "一長一短", "一進一退", "一朝一夕", "一期一会", "一挙両得", "一目瞭然",
+                    "一心同体", "一部始終", "四捨五入", "七転八倒", "三日坊主", "二者択一", "二項分布", "最小二乗",
+                    "二人三脚", "三角", "三脚", "三日月", "三味線", "四角", "四季", "四方",
+                    "五感", "五十音", "五月雨", "七夕", "八方", "八重", "九死に一生", "九州",
+                    "四国", "三重", "千葉", "参照", "参加", "参考", "参画", "参入",
+                    "参列", "参拝", "参謀", "参上", "持参", "降参", "古参", "参る",
+                    "参り", "拾う", "拾い", "拾得", "収拾", "兆候", "兆し", "前兆",
+                    "吉兆", "予兆"
+            );
+            LexiconPattern MEASUREMENT_UNITS = LexiconPattern.create(
+                    Prefix.NUMBER,
+                    Suffix.NONE,
+                    "Do not use the measurement unit unless necessary.",
+                    "キロメートル", "メートル", "デシメートル", "センチメートル", "ミリメートル", "ミリ", "ヘクトリットル", "リットル",
+                    "デシリットル", "センチリットル", "ミリリットル", "トン", "キログラム", "lb", "グラム", "デシグラム",
+                    "センチグラム", "ミリグラム", "in", "ft", "mi", "gal", "テラバイト", "ギガバイト",
+                    "メガバイト", "キロバイト", "B", "b", "ビット/秒", "ギガヘルツ", "メガヘルツ", "キロヘルツ",
+                    "ヘルツ", "ドット", "ドット/インチ", "ドット/インチ", "sec", "ms"
+            );
+        }
+
+        interface Tone {
+
+            LexiconPattern HUMBLE_EXPRESSION = LexiconPattern.create(
+                    "In materials in which “supplier-customer” relationship should be considered, use 弊社.",
+                    "当社", "我社"
+            );
+            LexiconPattern POLITE_EXPRESSION = LexiconPattern.create(
+                    "Do not use excessively polite expression unless necessary.",
+                    "ご注意ください", "ご確認ください"
+            );
+        }
+
+        interface FrequentErrors {
+
+            LexiconPattern Fusei = LexiconPattern.create(
+                    "Avoid using the term “不正” unless it pertains to something prohibited by law.",
+                    "不正"
+            );
+        }
 
     }
 
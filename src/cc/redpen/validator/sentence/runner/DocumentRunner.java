@@ -0,0 +1,209 @@
+package cc.redpen.validator.sentence.runner;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.model.Document;
+import cc.redpen.model.Section;
+import cc.redpen.validator.ValidationError;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates many documents at once on a work-stealing pool, one section per task, so a large file is spread over the
+ * workers as well as many small ones.
+ * <p>
+ * A {@link MSStyleJPValidator} holds its error list, so every worker thread has its own, initialized when the runner
+ * is created and used by that thread only. The errors come back per document, in section and sentence order, whatever
+ * the thread that validated them: the result does not depend on the parallelism.
+ * <p>
+ * The validators evaluate their rules sequentially ({@code parallelism=1}) unless the configuration says otherwise,
+ * as the documents already occupy every core.
+ */
+public final class DocumentRunner implements Closeable {
+
+    private final ValidatorConfiguration configuration;
+
+    // initialized validators that no thread holds
+    private final Queue<MSStyleJPValidator> idle = new ConcurrentLinkedQueue<>();
+
+    private final ForkJoinPool pool;
+
+    private DocumentRunner(final ValidatorConfiguration configuration, final int parallelism) throws RedPenException {
+        this.configuration = configuration;
+        for (int i = 0; i < parallelism; i++) {
+            idle.add(newValidator());
+        }
+        final AtomicInteger count = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            final Worker worker = new Worker(pool, take());
+            worker.setName("ms-style-jp-runner-" + count.incrementAndGet());
+            return worker;
+        }, null, false);
+    }
+
+    /**
+     * @param configuration the validators' configuration.
+     * @param parallelism   worker threads, as many validators.
+     * @throws RedPenException if the configuration is invalid.
+     */
+    public static DocumentRunner create(final ValidatorConfiguration configuration, final int parallelism) throws RedPenException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        final ValidatorConfiguration copy = new ValidatorConfiguration(configuration.getConfigurationName());
+        for (final Map.Entry<String, String> property : configuration.getProperties().entrySet()) {
+            copy.addProperty(property.getKey(), property.getValue());
+        }
+        if (copy.getProperty("parallelism") == null) {
+            copy.addProperty("parallelism", "1");
+        }
+        return new DocumentRunner(copy, parallelism);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return the errors of each document, in the order of {@code documents}.
+     */
+    public List<List<ValidationError>> validate(final List<Document> documents) {
+
+        final List<Section> sections = new ArrayList<>();
+        final int[] firstSections = new int[documents.size() + 1];
+        for (int i = 0; i < documents.size(); i++) {
+            firstSections[i] = sections.size();
+            for (final Section section : documents.get(i)) {
+                sections.add(section);
+            }
+        }
+        firstSections[documents.size()] = sections.size();
+
+        @SuppressWarnings("unchecked")
+        final List<ValidationError>[] sectionErrors = new List[sections.size()];
+        if (!sections.isEmpty()) {
+            pool.invoke(new Sections(sections, sectionErrors, 0, sections.size()));
+        }
+
+        // Each section was capped on its own; the document cap applies to them together.
+        final List<List<ValidationError>> errors = new ArrayList<>(documents.size());
+        final MSStyleJPValidator validator = take();
+        try {
+            for (int i = 0; i < documents.size(); i++) {
+                final List<ValidationError> documentErrors = new ArrayList<>();
+                for (int section = firstSections[i]; section < firstSections[i + 1]; section++) {
+                    documentErrors.addAll(sectionErrors[section]);
+                }
+                validator.capDocumentErrors(documentErrors);
+                errors.add(documentErrors);
+            }
+        } finally {
+            idle.add(validator);
+        }
+        return errors;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private MSStyleJPValidator newValidator() throws RedPenException {
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(configuration, Configuration.builder().build());
+        return validator;
+    }
+
+    /**
+     * An idle validator, or a new one when the pool adds a thread to make up for a blocked one.
+     */
+    private MSStyleJPValidator take() {
+        final MSStyleJPValidator validator = idle.poll();
+        if (validator != null) {
+            return validator;
+        }
+        try {
+            return newValidator();
+        } catch (RedPenException e) {
+            // the configuration was valid when the runner was created
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private final class Worker extends ForkJoinWorkerThread {
+
+        private final MSStyleJPValidator validator;
+
+        private Worker(final ForkJoinPool pool, final MSStyleJPValidator validator) {
+            super(pool);
+            this.validator = validator;
+        }
+
+        @Override
+        protected void onTermination(final Throwable exception) {
+            // an idle worker retires after a while; its successor takes the validator over
+            idle.add(validator);
+            super.onTermination(exception);
+        }
+    }
+
+    /**
+     * Validates {@code sections[from, to)}, halving the range until one section is left, so idle workers steal the
+     * larger halves.
+     */
+    private final class Sections extends RecursiveAction {
+
+        private final List<Section> sections;
+        private final List<ValidationError>[] sectionErrors;
+        private final int from;
+        private final int to;
+
+        private Sections(final List<Section> sections, final List<ValidationError>[] sectionErrors, final int from, final int to) {
+            this.sections = sections;
+            this.sectionErrors = sectionErrors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new Sections(sections, sectionErrors, from, middle), new Sections(sections, sectionErrors, middle, to));
+                return;
+            }
+
+            final List<ValidationError> errors = new ArrayList<>();
+            final Thread thread = Thread.currentThread();
+            if (thread instanceof Worker && ((Worker) thread).getPool() == pool) {
+                validate(((Worker) thread).validator, errors);
+            } else {
+                // run by the thread waiting for the result
+                final MSStyleJPValidator validator = take();
+                try {
+                    validate(validator, errors);
+                } finally {
+                    idle.add(validator);
+                }
+            }
+            sectionErrors[from] = errors;
+        }
+
+        private void validate(final MSStyleJPValidator validator, final List<ValidationError> errors) {
+            validator.setErrorList(errors);
+            validator.validateSentences(MSStyleJPValidator.sentencesOf(sections.get(from)));
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package cc.redpen.validator.sentence.server;
+
+import cc.redpen.validator.sentence.cli.Json;
+import cc.redpen.validator.sentence.domain.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends many small requests to a {@link ValidationServer} from concurrent clients and reports the throughput and
+ * the p50/p99 latency, after a warm-up that is not recorded.
+ * <p>
+ * {@code java -cp redpen-core.jar:ms-style-jp-validator.jar cc.redpen.validator.sentence.server.LoadTestClient
+ * http://127.0.0.1:7071/validate --requests 100000 --concurrency 256}
+ * <p>
+ * A URL ending in {@code /batch} is sent the text as a one-element array.
+ */
+public final class LoadTestClient {
+
+    private static final String DEFAULT_TEXT = "当社の製品をご確認ください。設定を変更する場合は、ﾒﾆｭｰから選択します。";
+
+    private final URL url;
+    private final byte[] body;
+    private final int concurrency;
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private LoadTestClient(final URL url, final byte[] body, final int concurrency) {
+        this.url = url;
+        this.body = body;
+        this.concurrency = concurrency;
+    }
+
+    static LoadTestClient create(final URL url, final String text, final int concurrency) {
+        final String body = url.getPath().endsWith("/batch") ? "[" + Json.quote(text) + "]" : text;
+        return new LoadTestClient(url, body.getBytes(StandardCharsets.UTF_8), concurrency);
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+
+        URL url = null;
+        int requests = 10000;
+        int warmup = 1000;
+        int concurrency = 64;
+        String text = DEFAULT_TEXT;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--requests") && i + 1 < args.length) {
+                requests = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--warmup") && i + 1 < args.length) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--concurrency") && i + 1 < args.length) {
+                concurrency = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--text") && i + 1 < args.length) {
+                text = args[++i];
+            } else {
+                url = new URL(args[i]);
+            }
+        }
+        if (url == null) {
+            System.err.println("Usage: LoadTestClient <url> [--requests <n>] [--warmup <n>] [--concurrency <n>] [--text <text>]");
+            System.exit(2);
+        }
+
+        // Keep a connection per client alive between requests; the default keeps only 5.
+        System.setProperty("http.maxConnections", String.valueOf(concurrency));
+
+        final LoadTestClient client = create(url, text, concurrency);
+        client.run(warmup, LatencyHistogram.create());
+
+        final LatencyHistogram latency = LatencyHistogram.create();
+        final long start = System.nanoTime();
+        client.run(requests, latency);
+        final long elapsed = System.nanoTime() - start;
+
+        final LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        System.out.println(String.format(Locale.ROOT,
+                "%d requests, %d failed, %d clients: %.0f req/s, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                snapshot.getCount(), client.getFailures(), concurrency,
+                snapshot.getCount() / (elapsed / 1e9),
+                snapshot.getValueAtPercentile(50) / 1e6,
+                snapshot.getValueAtPercentile(99) / 1e6,
+                snapshot.getMax() / 1e6));
+    }
+
+    /**
+     * Sends {@code requests} requests from {@link #concurrency} clients, each waiting for its response before sending
+     * the next, and records the latency of every successful one.
+     */
+    void run(final int requests, final LatencyHistogram latency) throws InterruptedException {
+        final AtomicInteger remaining = new AtomicInteger(requests);
+        final ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    final long start = System.nanoTime();
+                    if (send()) {
+                        latency.record(System.nanoTime() - start);
+                    } else {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean send() {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            final int status = connection.getResponseCode();
+            // The response is read to its end, so the connection goes back to the keep-alive cache.
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                final byte[] buffer = new byte[8192];
+                while (in != null && in.read(buffer) >= 0) {
+                    // discard
+                }
+            }
+            return status == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    int getFailures() {
+        return failures.get();
+    }
+
+}
@@ -0,0 +1,407 @@
+package cc.redpen.validator.sentence.server;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import cc.redpen.validator.sentence.cli.Json;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves a {@link MSStyleJPValidator} over HTTP on the loopback interface, with the JDK's own {@link HttpServer}:
+ * <ul>
+ * <li>{@code POST /validate} with a UTF-8 text body returns its errors, a JSON array of
+ * {@code {"offset","length","rule","message"}} objects, and a {@code {"skipped":true,"rule","message"}} object for
+ * every rule that gave up on the text.</li>
+ * <li>{@code POST /validate/batch} with a JSON array of strings returns one such array per string, evaluated as one
+ * batch.</li>
+ * <li>{@code GET /health} returns {@code ok}.</li>
+ * </ul>
+ * Requests run on virtual threads when the JDK has them (21 and later), so thousands of slow clients cost no
+ * platform threads; otherwise on a fixed pool with a bounded queue. A request the full queue, or the full validation
+ * pool, cannot take gets 503 at once: overflow is answered by a thread of its own, so the accepting thread never runs
+ * a validation and keeps taking connections.
+ * <p>
+ * The engines keep their scratch state per thread, which a new virtual thread per request would build again for every
+ * request. So virtual threads only read the request and write the response, and hand the validation to a small fixed
+ * pool of platform threads that keep their state: a request pays one hand-off, about a context switch, instead of
+ * allocating the engines' buffers.
+ * <p>
+ * {@code java -cp redpen-core.jar:ms-style-jp-validator.jar cc.redpen.validator.sentence.server.ValidationServer
+ * --port 7071 engine=automaton}
+ */
+public final class ValidationServer implements Closeable {
+
+    /**
+     * Largest accepted request body; larger ones get 413.
+     */
+    static final int MAX_BODY = 1 << 20;
+
+    /**
+     * Connections the kernel may queue while every worker is busy.
+     */
+    private static final int BACKLOG = 1024;
+
+    /**
+     * Pooled requests that may wait per worker before further ones get 503.
+     */
+    private static final int QUEUE_PER_THREAD = 64;
+
+    /**
+     * Idle keep-alive connections the JDK server keeps open; beyond its default of 200, it closes connections that
+     * clients are about to reuse, and their next request fails.
+     */
+    private static final String MAX_IDLE_CONNECTIONS = "sun.net.httpserver.maxIdleConnections";
+
+    /**
+     * Without it, the JDK server's headers and body wait on Nagle's algorithm and small responses take 40 ms.
+     */
+    private static final String NO_DELAY = "sun.net.httpserver.nodelay";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final MSStyleJPValidator validator;
+
+    // answers 503 to the requests the executor rejects
+    private final ExecutorService overflow;
+    private final ThreadLocal<Boolean> overflowing = new ThreadLocal<>();
+
+    // where the validator runs, or null for the request's own thread
+    private final ExecutorService validation;
+
+    // "rule" and "message" members of an error, by rule index
+    private final List<String> ruleJson = new ArrayList<>();
+
+    // the object reporting a skipped rule, by rule index
+    private final List<String> skippedJson = new ArrayList<>();
+
+    private ValidationServer(final HttpServer server, final ExecutorService executor, final MSStyleJPValidator validator,
+                             final ExecutorService validation) {
+        this.server = server;
+        this.executor = executor;
+        this.validator = validator;
+        this.validation = validation;
+        this.overflow = Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "ms-style-jp-server-overflow");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (final Rule rule : validator.getRules()) {
+            ruleJson.add(",\"rule\":" + Json.quote(rule.getName()) + ",\"message\":" + Json.quote(rule.getErrorMessage()) + "}");
+            skippedJson.add("{\"skipped\":true,\"rule\":" + Json.quote(rule.getName())
+                    + ",\"message\":" + Json.quote(MSStyleJPValidator.skippedMessage(rule)) + "}");
+        }
+    }
+
+    /**
+     * Binds and starts a server validating on the threads of {@code executor}; {@link #close()} stops it and shuts
+     * {@code executor} down.
+     *
+     * @param validator an initialized validator.
+     * @param port      loopback port, or 0 for an ephemeral one.
+     */
+    public static ValidationServer create(final MSStyleJPValidator validator, final int port, final ExecutorService executor) throws IOException {
+        return create(validator, port, executor, null);
+    }
+
+    /**
+     * Binds and starts a server handling requests on {@code executor} and validating on {@code validation}, for an
+     * {@code executor} whose threads do not last; {@link #close()} stops it and shuts both down.
+     *
+     * @param validation platform threads running the validator, or {@code null} for the request's own thread.
+     */
+    public static ValidationServer create(final MSStyleJPValidator validator, final int port, final ExecutorService executor,
+                                          final ExecutorService validation) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        final ValidationServer validationServer = new ValidationServer(server, executor, validator, validation);
+        server.createContext("/validate", validationServer.handler("POST", validationServer::validate));
+        server.createContext("/validate/batch", validationServer.handler("POST", validationServer::validateBatch));
+        server.createContext("/health", validationServer.handler("GET", body -> "\"ok\""));
+        server.setExecutor(validationServer::dispatch);
+        server.start();
+        return validationServer;
+    }
+
+    /**
+     * @return an executor starting a virtual thread per request, or {@code null} before Java 21.
+     */
+    static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return {@code threads} daemon workers taking at most {@link #QUEUE_PER_THREAD} waiting requests each, and
+     * rejecting the others.
+     */
+    static ExecutorService newBoundedExecutor(final int threads) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD),
+                task -> {
+                    final Thread thread = new Thread(task, "ms-style-jp-server-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public static void main(final String[] args) throws IOException, RedPenException {
+
+        int port = 7071;
+        int threads = 0;
+        String executorKind = "auto";
+        final ValidatorConfiguration configuration = new ValidatorConfiguration("MSStyleJP");
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--executor") && i + 1 < args.length) {
+                executorKind = args[++i];
+            } else if (args[i].contains("=")) {
+                final int separator = args[i].indexOf('=');
+                configuration.addProperty(args[i].substring(0, separator), args[i].substring(separator + 1));
+            } else {
+                System.err.println("Usage: ValidationServer [--port <port>] [--executor auto|virtual|bounded] [--threads <n>] [<property>=<value>...]");
+                System.exit(2);
+            }
+        }
+
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(configuration, Configuration.builder().build());
+
+        // read once, when the first server is created
+        if (System.getProperty(MAX_IDLE_CONNECTIONS) == null) {
+            System.setProperty(MAX_IDLE_CONNECTIONS, String.valueOf(BACKLOG * 4));
+        }
+        if (System.getProperty(NO_DELAY) == null) {
+            System.setProperty(NO_DELAY, "true");
+        }
+
+        ExecutorService executor = executorKind.equals("bounded") ? null : newVirtualExecutor();
+        ExecutorService validation = null;
+        if (executor == null) {
+            if (executorKind.equals("virtual")) {
+                System.err.println("Virtual threads need Java 21 or later.");
+                System.exit(2);
+            }
+            // the workers also wait on the clients
+            threads = threads > 0 ? threads : 2 * Runtime.getRuntime().availableProcessors();
+            executor = newBoundedExecutor(threads);
+        } else {
+            threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            validation = newBoundedExecutor(threads);
+        }
+
+        final ValidationServer server = create(validator, port, executor, validation);
+        System.err.println("Serving on http://127.0.0.1:" + server.getPort() + "/validate"
+                + (validation == null ? " with " + threads + " threads" : " with virtual threads and " + threads + " validation threads"));
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private String validate(final String body) {
+        final StringBuilder json = new StringBuilder();
+        appendErrors(json, validator.validateMSStyle(new Sentence(body, 1)));
+        return json.toString();
+    }
+
+    private String validateBatch(final String body) {
+        final List<Sentence> sentences = new ArrayList<>();
+        for (final String text : Json.parseStrings(body)) {
+            sentences.add(new Sentence(text, 1));
+        }
+        final StringBuilder json = new StringBuilder().append('[');
+        for (final List<ValidationResult> results : validator.validateMSStyle(sentences)) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            appendErrors(json, results);
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * @param results one result per rule, in rule order.
+     */
+    private void appendErrors(final StringBuilder json, final List<ValidationResult> results) {
+        json.append('[');
+        boolean first = true;
+        for (int rule = 0; rule < results.size(); rule++) {
+            final ValidationResult result = results.get(rule);
+            for (int i = 0; i < result.getErrorCount(); i++) {
+                json.append(first ? "" : ",")
+                        .append("{\"offset\":").append(result.getStart(i))
+                        .append(",\"length\":").append(result.getEnd(i) - result.getStart(i))
+                        .append(ruleJson.get(rule));
+                first = false;
+            }
+            if (result.isSkipped()) {
+                json.append(first ? "" : ",").append(skippedJson.get(rule));
+                first = false;
+            }
+        }
+        json.append(']');
+    }
+
+    private interface Endpoint {
+
+        /**
+         * @return the JSON response.
+         * @throws IllegalArgumentException if the body is malformed.
+         */
+        String respond(String body);
+    }
+
+    /**
+     * Runs an exchange on the executor, or on the overflow thread, which only answers 503, when it is full.
+     */
+    private void dispatch(final Runnable exchange) {
+        try {
+            executor.execute(exchange);
+        } catch (RejectedExecutionException e) {
+            overflow.execute(() -> {
+                overflowing.set(Boolean.TRUE);
+                try {
+                    exchange.run();
+                } finally {
+                    overflowing.remove();
+                }
+            });
+        }
+    }
+
+    private HttpHandler handler(final String method, final Endpoint endpoint) {
+        return exchange -> {
+            try {
+                if (overflowing.get() != null) {
+                    sendBusy(exchange);
+                    return;
+                }
+                if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                    send(exchange, 404, "{\"error\":\"Not found.\"}");
+                    return;
+                }
+                if (!exchange.getRequestMethod().equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    send(exchange, 405, "{\"error\":\"Use " + method + ".\"}");
+                    return;
+                }
+                final String body = readBody(exchange);
+                if (body == null) {
+                    send(exchange, 413, "{\"error\":\"The body exceeds " + MAX_BODY + " bytes.\"}");
+                    return;
+                }
+                send(exchange, 200, respond(endpoint, body));
+            } catch (RejectedExecutionException e) {
+                sendBusy(exchange);
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, "{\"error\":" + Json.quote(String.valueOf(e.getMessage())) + "}");
+            } catch (RuntimeException e) {
+                send(exchange, 500, "{\"error\":" + Json.quote(e.toString()) + "}");
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private String respond(final Endpoint endpoint, final String body) {
+        if (validation == null) {
+            return endpoint.respond(body);
+        }
+        final Future<String> response = validation.submit(() -> endpoint.respond(body));
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The server is stopping.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @return the body as UTF-8, or {@code null} if it exceeds {@link #MAX_BODY}.
+     */
+    private static String readBody(final HttpExchange exchange) throws IOException {
+        final String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null && Long.parseLong(declared.trim()) > MAX_BODY) {
+            return null;
+        }
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(declared == null ? 1024 : Integer.parseInt(declared.trim()));
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                body.write(buffer, 0, read);
+                if (body.size() > MAX_BODY) {
+                    return null;
+                }
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void send(final HttpExchange exchange, final int status, final String json) throws IOException {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendBusy(final HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        send(exchange, 503, "{\"error\":\"The server is busy.\"}");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        overflow.shutdownNow();
+        if (validation != null) {
+            validation.shutdownNow();
+        }
+    }
+
+}
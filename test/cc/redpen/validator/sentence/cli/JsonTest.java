@@ -0,0 +1,61 @@
+package cc.redpen.validator.sentence.cli;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonTest {
+
+    @Test
+    public void quote_Test() {
+
+        // act
+        final String quoted = Json.quote("a\"b\\c\n“弊社”\u0001");
+
+        // assert
+        assertEquals("\"a\\\"b\\\\c\\n“弊社”\\u0001\"", quoted);
+    }
+
+    @Test
+    public void parseStrings_Test() {
+
+        // act
+        final List<String> strings = Json.parseStrings(" [\"当社の製品です。\", \"a\\\"b\\\\c\\n\\u5f0a\" ,\"\"] ");
+
+        // assert
+        assertEquals(Arrays.asList("当社の製品です。", "a\"b\\c\n弊", ""), strings);
+        assertEquals(Collections.emptyList(), Json.parseStrings("[ ]"));
+    }
+
+    @Test
+    public void parseStrings_QuotedRoundTrip_Test() {
+
+        // arrange
+        final String text = "“弊社”\t\u0001\\";
+
+        // act
+        final List<String> strings = Json.parseStrings("[" + Json.quote(text) + "]");
+
+        // assert
+        assertEquals(Collections.singletonList(text), strings);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseStrings_Unterminated_Test() {
+
+        // act
+        Json.parseStrings("[\"abc]");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseStrings_NotStrings_Test() {
+
+        // act
+        Json.parseStrings("[1, 2]");
+    }
+
+}
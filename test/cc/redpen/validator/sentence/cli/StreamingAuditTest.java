@@ -0,0 +1,98 @@
+package cc.redpen.validator.sentence.cli;
+
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import cc.redpen.validator.sentence.daemon.SentenceSplitter;
+import cc.redpen.validator.sentence.domain.model.MatchBudget;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamingAuditTest {
+
+    @org.junit.Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[] FRAGMENTS = {
+            "当社の製品です。", "ご確認ください。", "3 ヶ月後に", "ﾃﾞｽｸ", "(A) を選択します。", "保存しますか?",
+            "Excelを使用して", "インタビュする", "設定を変更します。", "\n", "\r\n", "\n\n", " ", "𠮷野家"
+    };
+
+    private static String reference(final String name, final String text) {
+        final StringBuilder records = new StringBuilder();
+        for (final SentenceSplitter.Located located : SentenceSplitter.split(text)) {
+            for (final Rule rule : MSStyleJP.rules) {
+                final ValidationResult result = rule.apply(located.getSentence());
+                for (int i = 0; i < result.getErrorCount(); i++) {
+                    records.append("{\"file\":").append(Json.quote(name))
+                            .append(",\"line\":").append(located.getLine())
+                            .append(",\"offset\":").append(located.getColumn() + result.getStart(i))
+                            .append(",\"length\":").append(result.getEnd(i) - result.getStart(i))
+                            .append(",\"rule\":").append(Json.quote(rule.getName()))
+                            .append(",\"message\":").append(Json.quote(rule.getErrorMessage()))
+                            .append("}\n");
+                }
+            }
+        }
+        return records.toString();
+    }
+
+    @Test
+    public void audit_SameAsEachSentence_Test() throws IOException, InterruptedException {
+
+        // arrange
+        final Random random = new Random(42L);
+        final StringBuilder text = new StringBuilder();
+        while (text.length() < 20000) {
+            text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        final Path file = folder.newFile("strings.txt").toPath();
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        // Tiny blocks and windows, so sentences and UTF-8 characters straddle their boundaries.
+        final StreamingAudit audit = new StreamingAudit(MSStyleJP.rules, 4, 64, 0);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // act
+        audit.audit(Collections.singletonList(file), out);
+
+        // assert
+        assertEquals(reference(file.toString(), text.toString()), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void audit_Skipped_Test() throws IOException, InterruptedException {
+
+        // arrange
+        final Path file = folder.newFile("skipped.txt").toPath();
+        Files.write(file, "設定を変更します。\n当社 , 製品".getBytes(StandardCharsets.UTF_8));
+        final Rule rule = Rule.create("SpacesComma", Rule.Group.SPACES, MSStyleJP.Error.Characters.Spaces.COMMA)
+                .budgeted(MatchBudget.create(1, 0));
+        final StreamingAudit audit = new StreamingAudit(Collections.singletonList(rule), 1, 64, 0);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // act
+        audit.audit(Collections.singletonList(file), out);
+
+        // assert
+        final String name = Json.quote(file.toString());
+        final String message = Json.quote(MSStyleJPValidator.skippedMessage(rule));
+        assertEquals(
+                "{\"file\":" + name + ",\"line\":1,\"offset\":0,\"skipped\":true,\"rule\":\"SpacesComma\",\"message\":" + message + "}\n"
+                        + "{\"file\":" + name + ",\"line\":2,\"offset\":0,\"skipped\":true,\"rule\":\"SpacesComma\",\"message\":" + message + "}\n",
+                new String(out.toByteArray(), StandardCharsets.UTF_8)
+        );
+    }
+
+}
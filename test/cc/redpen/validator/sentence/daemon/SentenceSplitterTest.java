@@ -0,0 +1,37 @@
+package cc.redpen.validator.sentence.daemon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SentenceSplitterTest {
+
+    private static List<String> describe(final List<SentenceSplitter.Located> sentences) {
+        final List<String> descriptions = new ArrayList<>();
+        for (final SentenceSplitter.Located located : sentences) {
+            descriptions.add(located.getLine() + ":" + located.getColumn() + " " + located.getSentence().getContent());
+        }
+        return descriptions;
+    }
+
+    @Test
+    public void split_Test() {
+
+        // act
+        final List<SentenceSplitter.Located> sentences = SentenceSplitter.split(
+                "# 概要\r\n保存しますか? はい。いいえ\n\n  注: 当社の製品です。 "
+        );
+
+        // assert
+        assertEquals(5, sentences.size());
+        assertEquals("1:0 # 概要", describe(sentences).get(0));
+        assertEquals("2:0 保存しますか?", describe(sentences).get(1));
+        assertEquals("2:7  はい。", describe(sentences).get(2));
+        assertEquals("2:11 いいえ", describe(sentences).get(3));
+        assertEquals("4:0   注: 当社の製品です。", describe(sentences).get(4));
+    }
+
+}
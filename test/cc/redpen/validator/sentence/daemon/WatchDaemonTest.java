@@ -0,0 +1,108 @@
+package cc.redpen.validator.sentence.daemon;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class WatchDaemonTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static MSStyleJPValidator validator() throws RedPenException {
+        return validator(new ValidatorConfiguration("MSStyleJP").addProperty("enabled_rules", "Tone"));
+    }
+
+    private static MSStyleJPValidator validator(final ValidatorConfiguration configuration) throws RedPenException {
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(configuration, Configuration.builder().build());
+        return validator;
+    }
+
+    private static void write(final Path file, final String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void update_OnlyChangedSentences_Test() throws IOException, RedPenException {
+
+        // arrange
+        final Path root = folder.newFolder("docs").toPath();
+        final Path output = folder.getRoot().toPath().resolve("errors.txt");
+        final Path file = root.resolve("guide.md");
+        write(file, "当社の製品です。設定を変更します。\nご確認ください。");
+
+        try (Report report = Report.create(output, -1);
+             WatchDaemon daemon = WatchDaemon.create(root, new HashSet<>(Collections.singletonList("md")), validator(), report)) {
+
+            // act
+            final int first = daemon.update(Collections.singletonList(file));
+            write(file, "当社の製品です。設定を変更しました。\nご確認ください。");
+            final int second = daemon.update(Collections.singletonList(file));
+            final int unchanged = daemon.update(Collections.singletonList(file));
+
+            // assert
+            assertEquals(3, first);
+            assertEquals(1, second);
+            assertEquals(0, unchanged);
+            final List<String> errors = Files.readAllLines(output, StandardCharsets.UTF_8);
+            assertEquals(Arrays.asList(
+                    "guide.md:1:1: In materials in which “supplier-customer” relationship should be considered, use 弊社.",
+                    "guide.md:2:1: Do not use excessively polite expression unless necessary."
+            ), errors);
+
+            // act
+            Files.delete(file);
+            daemon.update(Collections.singletonList(file));
+
+            // assert
+            assertEquals(0, Files.readAllLines(output, StandardCharsets.UTF_8).size());
+        }
+    }
+
+    @Test
+    public void update_SkippedNotReused_Test() throws IOException, RedPenException {
+
+        // arrange: every sentence exceeds a budget of one char
+        final Path root = folder.newFolder("docs").toPath();
+        final Path output = folder.getRoot().toPath().resolve("errors.txt");
+        final Path file = root.resolve("guide.md");
+        write(file, "設定を変更します。");
+        final MSStyleJPValidator validator = validator(new ValidatorConfiguration("MSStyleJP")
+                .addProperty("enabled_rules", "SpacesComma")
+                .addProperty("match_steps", "1"));
+
+        try (Report report = Report.create(output, -1);
+             WatchDaemon daemon = WatchDaemon.create(root, new HashSet<>(Collections.singletonList("md")), validator, report)) {
+
+            // act
+            final int first = daemon.update(Collections.singletonList(file));
+            write(file, "設定を変更します。\nご確認ください。");
+            final int second = daemon.update(Collections.singletonList(file));
+
+            // assert
+            assertEquals(1, first);
+            assertEquals(2, second);
+            assertEquals(Arrays.asList(
+                    "guide.md:1:1: Skipped SpacesComma: the sentence exceeds its matching budget.",
+                    "guide.md:2:1: Skipped SpacesComma: the sentence exceeds its matching budget."
+            ), Files.readAllLines(output, StandardCharsets.UTF_8));
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package cc.redpen.validator.sentence.domain.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResultCacheTest {
+
+    @Test
+    public void get_Test() {
+
+        // arrange
+        final ResultCache cache = ResultCache.create(64);
+        cache.put(1L, "当社の製品", new int[]{0, 0, 2});
+
+        // act
+        final int[] hit = cache.get(1L, "当社の製品");
+        final int[] otherRules = cache.get(2L, "当社の製品");
+
+        // assert
+        assertArrayEquals(new int[]{0, 0, 2}, hit);
+        assertNull(otherRules);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio(), 0);
+    }
+
+    @Test
+    public void put_Bounded_Test() {
+
+        // arrange
+        final ResultCache cache = ResultCache.create(32);
+
+        // act
+        for (int i = 0; i < 1000; i++) {
+            cache.put(1L, "sentence " + i, new int[0]);
+        }
+
+        // assert
+        assertTrue(cache.getSize() <= cache.getCapacity());
+        assertEquals(1000 - cache.getSize(), cache.getEvictions());
+    }
+
+    @Test
+    public void put_Disabled_Test() {
+
+        // arrange
+        final ResultCache cache = ResultCache.create(0);
+
+        // act
+        cache.put(1L, "当社", new int[0]);
+
+        // assert
+        assertNull(cache.get(1L, "当社"));
+        assertEquals(0, cache.getSize());
+    }
+
+}
@@ -0,0 +1,159 @@
+package cc.redpen.validator.sentence.domain.dictionary;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RuleDictionaryTest {
+
+    private static Rule find(final List<Rule> rules, final String name) {
+        return rules.stream().filter(rule -> rule.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    @Test
+    public void bundled_SameAsBuiltIns_Test() throws IOException {
+
+        // act
+        final List<Rule> rules = RuleDictionary.parse(RuleDictionary.readBundled()).toRules();
+
+        // assert
+        final List<Rule> builtIns = MSStyleJP.rules.stream().filter(rule -> rule.getErrorPattern() != null).collect(Collectors.toList());
+        assertEquals(
+                builtIns.stream().map(Rule::getName).collect(Collectors.toList()),
+                rules.stream().map(Rule::getName).collect(Collectors.toList())
+        );
+        for (final Rule builtIn : builtIns) {
+            final Rule rule = find(rules, builtIn.getName());
+            assertEquals(builtIn.getName(), builtIn.getGroup(), rule.getGroup());
+            assertEquals(builtIn.getName(), builtIn.getErrorMessage(), rule.getErrorMessage());
+            assertEquals(builtIn.getName(), builtIn.getErrorPattern().getRegex(), rule.getErrorPattern().getRegex());
+        }
+    }
+
+    @Test
+    public void merge_Override_Test() {
+
+        // arrange
+        final RuleDictionary bundled = RuleDictionary.parse(
+                "[SpacesAccessKey]\n"
+                        + "group = SPACES\n"
+                        + "message = access key\n"
+                        + "pattern =  \\([A-Z]\\)\n"
+                        + "\n"
+                        + "[TonePoliteExpression]\n"
+                        + "group = TONE\n"
+                        + "message = polite\n"
+                        + "words = ご注意ください\n"
+                        + "words = ご確認ください\n"
+        );
+        final RuleDictionary override = RuleDictionary.parse(
+                "# override\n"
+                        + "[TonePoliteExpression]\n"
+                        + "message = too polite\n"
+                        + "more_words = お願い申し上げます\n"
+                        + "\n"
+                        + "[Custom]\n"
+                        + "group = FrequentErrors\n"
+                        + "message = custom\n"
+                        + "pattern = 出来る\n"
+        );
+
+        // act
+        final List<Rule> rules = bundled.merge(override).toRules();
+
+        // assert
+        assertEquals(" \\([A-Z]\\)", find(rules, "SpacesAccessKey").getErrorPattern().getRegex());
+        final Rule polite = find(rules, "TonePoliteExpression");
+        assertEquals("too polite", polite.getErrorMessage());
+        assertEquals(3, ((LexiconPattern) polite.getFinder()).getWords().size());
+        assertEquals(1, polite.apply(new Sentence("お願い申し上げます。", 0)).getErrorCount());
+        assertEquals(Rule.Group.FREQUENT_ERRORS, find(rules, "Custom").getGroup());
+    }
+
+    @Test
+    public void apply_Test() {
+
+        // arrange
+        final List<Rule> dictionary = RuleDictionary.parse(
+                "[Katakana]\n"
+                        + "group = CHARACTERS\n"
+                        + "message = " + MSStyleJP.Error.Characters.Katakana.HALF_WIDTH.getErrorMessage() + "\n"
+                        + "pattern = [｡-ﾟ]+\n"
+                        + "\n"
+                        + "[KatakanaKo]\n"
+                        + "group = CHARACTERS\n"
+                        + "message = ko\n"
+                        + "pattern = \\d+ (ケ|コ)\n"
+                        + "\n"
+                        + "[Custom]\n"
+                        + "group = TONE\n"
+                        + "message = custom\n"
+                        + "words = 出来る\n"
+        ).toRules();
+
+        // act
+        final List<Rule> rules = RuleDictionary.apply(MSStyleJP.rules, dictionary);
+
+        // assert
+        assertEquals(MSStyleJP.rules.size() + 1, rules.size());
+        assertSame(MSStyleJP.Scripts.Characters.Katakana.HALF_WIDTH, find(rules, "Katakana").getFinder());
+        assertEquals("ko", find(rules, "KatakanaKo").getErrorMessage());
+        assertEquals("Custom", rules.get(rules.size() - 1).getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void toRules_InvalidPattern_Test() {
+
+        // act
+        RuleDictionary.parse("[Broken]\ngroup = TONE\nmessage = broken\npattern = (ケ|コ\n").toRules();
+    }
+
+    @Test
+    public void toRules_OnlyOverridePatternsChecked_Test() {
+
+        // arrange: a bundled regex is compiled when its rule is first evaluated
+        final RuleDictionary bundled = RuleDictionary.parseBundled(
+                "[Lazy]\ngroup = TONE\nmessage = lazy\npattern = (ケ|コ\n".getBytes(StandardCharsets.UTF_8));
+        final RuleDictionary override = RuleDictionary.parse("[Broken]\ngroup = TONE\nmessage = broken\npattern = (カ|ヵ\n");
+
+        // act
+        final List<Rule> rules = bundled.toRules();
+
+        // assert
+        assertEquals("(ケ|コ", rules.get(0).getErrorPattern().getRegex());
+        try {
+            bundled.merge(override).toRules();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("Broken"));
+            return;
+        }
+        throw new AssertionError("Invalid override pattern accepted");
+    }
+
+    @Test
+    public void parse_UnknownKey_Test() {
+
+        // act
+        try {
+            RuleDictionary.parse("[Rule]\npatern = a\n");
+        } catch (IllegalArgumentException e) {
+
+            // assert
+            assertTrue(e.getMessage().contains("line 2"));
+            return;
+        }
+        throw new AssertionError("Unknown key accepted");
+    }
+
+}
@@ -0,0 +1,114 @@
+package cc.redpen.validator.sentence.domain.dictionary;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class RuleSnapshotTest {
+
+    @org.junit.Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Sentence SENTENCE = new Sentence(
+            "3 ヶ月後に 20 ミリ の当社の ｶﾀｶﾅ (A) とアカデミ、ご確認ください。", 0
+    );
+
+    private static String positions(final ValidationResult result) {
+        final StringBuilder positions = new StringBuilder();
+        for (int i = 0; i < result.getErrorCount(); i++) {
+            positions.append(result.getStart(i)).append('-').append(result.getEnd(i)).append(' ');
+        }
+        return positions.toString();
+    }
+
+    @Test
+    public void read_SameAsWritten_Test() throws IOException {
+
+        // arrange
+        final List<Rule> rules = RuleDictionary.parse(RuleDictionary.readBundled()).toRules();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RuleSnapshot.write(new DataOutputStream(bytes), "hash", rules);
+
+        // act
+        final List<Rule> read = RuleSnapshot.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), "hash");
+
+        // assert
+        assertEquals(rules.size(), read.size());
+        for (int i = 0; i < rules.size(); i++) {
+            final ValidationResult expected = rules.get(i).apply(SENTENCE);
+            final ValidationResult actual = read.get(i).apply(SENTENCE);
+            assertEquals(rules.get(i).getName(), read.get(i).getName());
+            assertEquals(rules.get(i).getGroup(), read.get(i).getGroup());
+            assertEquals(rules.get(i).getErrorPattern().getRegex(), read.get(i).getErrorPattern().getRegex());
+            assertEquals(rules.get(i).getName(), positions(expected), positions(actual));
+            assertEquals(rules.get(i).getErrorPattern().getProgram() == null, read.get(i).getErrorPattern().getProgram() == null);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void read_OtherDictionary_Test() throws IOException {
+
+        // arrange
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RuleSnapshot.write(new DataOutputStream(bytes), "hash", RuleDictionary.parse(RuleDictionary.readBundled()).toRules());
+
+        // act
+        RuleSnapshot.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), "other");
+    }
+
+    @Test(expected = IOException.class)
+    public void read_Corrupted_Test() throws IOException {
+
+        // arrange
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RuleSnapshot.write(new DataOutputStream(bytes), "hash", RuleDictionary.parse(RuleDictionary.readBundled()).toRules());
+        final byte[] corrupted = bytes.toByteArray();
+        corrupted[corrupted.length - 1] ^= 1;
+
+        // act
+        RuleSnapshot.read(new DataInputStream(new ByteArrayInputStream(corrupted)), "hash");
+    }
+
+    @Test
+    public void load_Override_Test() throws IOException {
+
+        // arrange
+        final File override = folder.newFile("override.txt");
+        Files.write(override.toPath(), (
+                "# " + override + "\n"
+                        + "[Custom]\n"
+                        + "group = TONE\n"
+                        + "message = custom\n"
+                        + "words = ｶﾀｶﾅ\n"
+        ).getBytes(StandardCharsets.UTF_8));
+        final File directory = folder.newFolder("snapshots");
+
+        // act
+        final List<Rule> rules = RuleSnapshot.load(override.getPath(), directory.getPath());
+
+        // assert
+        final File[] snapshots = directory.listFiles();
+        assertNotNull(snapshots);
+        assertEquals(1, snapshots.length);
+        assertTrue(snapshots[0].getName().endsWith(".snapshot"));
+        assertEquals("Custom", rules.get(rules.size() - 1).getName());
+        assertEquals(1, rules.get(rules.size() - 1).apply(SENTENCE).getErrorCount());
+    }
+
+}
@@ -0,0 +1,154 @@
+package cc.redpen.validator.sentence.domain.dictionary;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.ValidationError;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.TermPattern;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TermDictionaryTest {
+
+    @org.junit.Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private TermPattern compile(final String source) throws IOException {
+        return TermDictionary.open(compiled(source));
+    }
+
+    private static String positions(final ValidationResult result) {
+        final StringBuilder positions = new StringBuilder();
+        for (int i = 0; i < result.getErrorCount(); i++) {
+            positions.append(result.getStart(i)).append('-').append(result.getEnd(i)).append(' ');
+        }
+        return positions.toString();
+    }
+
+    @Test
+    public void open_ApprovedShadowsForbidden_Test() throws IOException {
+
+        // arrange
+        final TermPattern terms = compile("# servers\nmessage = Use サーバー.\n- サーバ\n+ サーバー\n- 鯖\n");
+        final Rule rule = Rule.create("Terminology", Rule.Group.TERMINOLOGY, null, terms);
+
+        // act
+        final ValidationResult result = rule.apply(new Sentence("サーバーとサーバと鯖", 0));
+
+        // assert
+        assertEquals(3, terms.getSize());
+        assertEquals("Use サーバー.", result.getErrorMessage());
+        assertEquals("5-8 9-10 ", positions(result));
+    }
+
+    @Test
+    public void open_ManyTerms_SameAsRegex_Test() throws IOException {
+
+        // arrange
+        final StringBuilder source = new StringBuilder();
+        final List<String> forbidden = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            final String term = "語" + Integer.toString(i, 36);
+            source.append("- ").append(term).append('\n');
+            forbidden.add(term);
+        }
+        final TermPattern terms = compile(source.toString());
+        final String content = "語1と語zzと語abcdeと語";
+        forbidden.sort((a, b) -> b.length() - a.length());
+        final Matcher reference = Pattern.compile(String.join("|", forbidden)).matcher(content);
+        final StringBuilder expected = new StringBuilder();
+        while (reference.find()) {
+            expected.append(reference.start()).append('-').append(reference.end()).append(' ');
+        }
+
+        // act
+        final ValidationResult result = Rule.create("Terminology", Rule.Group.TERMINOLOGY, null, terms).apply(new Sentence(content, 0));
+
+        // assert
+        assertEquals(expected.toString(), positions(result));
+    }
+
+    @Test
+    public void open_SharedMapping_Test() throws IOException {
+
+        // arrange
+        final File text = folder.newFile();
+        final File compiled = new File(folder.getRoot(), "shared.terms");
+        Files.write(text.toPath(), "- 鯖\n".getBytes(StandardCharsets.UTF_8));
+        TermDictionary.compile(text.toPath(), compiled.toPath());
+
+        // act
+        final TermPattern first = TermDictionary.open(compiled.getPath());
+        final TermPattern second = TermDictionary.open(compiled.getPath());
+
+        // assert
+        assertSame(first, second);
+    }
+
+    @Test
+    public void validate_DifferentTermsShareCache_Test() throws IOException, RedPenException {
+
+        // arrange
+        final String content = "サーバと鯖を確認します。";
+        final List<ValidationError> first = new ArrayList<>();
+        final List<ValidationError> second = new ArrayList<>();
+        final MSStyleJPValidator servers = validator(compiled("- サーバ\n"), first);
+        final MSStyleJPValidator fish = validator(compiled("- 鯖\n"), second);
+
+        // act
+        servers.validate(new Sentence(content, 1));
+        fish.validate(new Sentence(content, 1));
+
+        // assert: the second validator does not get the errors cached by the first
+        assertEquals(1, first.size());
+        assertEquals(0, first.get(0).getStartPosition().get().offset);
+        assertEquals(1, second.size());
+        assertEquals(4, second.get(0).getStartPosition().get().offset);
+    }
+
+    private String compiled(final String source) throws IOException {
+        final File text = folder.newFile();
+        final File compiled = new File(folder.getRoot(), text.getName() + ".terms");
+        Files.write(text.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        TermDictionary.compile(text.toPath(), compiled.toPath());
+        return compiled.getPath();
+    }
+
+    private static MSStyleJPValidator validator(final String terms, final List<ValidationError> errors) throws RedPenException {
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(new ValidatorConfiguration("MSStyleJP")
+                .addProperty("terms", terms)
+                .addProperty("enabled_rules", "Terminology")
+                .addProperty("cache_size", "64"), Configuration.builder().build());
+        validator.setErrorList(errors);
+        return validator;
+    }
+
+    @Test(expected = IOException.class)
+    public void open_NotCompiled_Test() throws IOException {
+
+        // arrange
+        final File text = folder.newFile();
+        Files.write(text.toPath(), "- 鯖\n".getBytes(StandardCharsets.UTF_8));
+
+        // act
+        TermDictionary.open(text.getPath());
+    }
+
+}
@@ -0,0 +1,40 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AhoCorasickTest {
+
+    @Test
+    public void scan_Overlapping_Test() {
+
+        // arrange
+        final AhoCorasick automaton = AhoCorasick.create("he", "she", "his", "hers");
+        final List<String> hits = new ArrayList<>();
+
+        // act
+        automaton.scan("ushers", 0, 6, (word, start, end) -> hits.add(word + ":" + start + "-" + end));
+
+        // assert
+        assertEquals("[1:1-4, 0:2-4, 3:2-6]", hits.toString());
+    }
+
+    @Test
+    public void scan_Japanese_Test() {
+
+        // arrange
+        final AhoCorasick automaton = AhoCorasick.create("メートル", "ミリメートル", "ミリ");
+        final List<String> hits = new ArrayList<>();
+
+        // act
+        automaton.scan("5 ミリメートル", 0, 8, (word, start, end) -> hits.add(word + ":" + start + "-" + end));
+
+        // assert
+        assertEquals("[2:2-4, 1:2-8, 0:4-8]", hits.toString());
+    }
+
+}
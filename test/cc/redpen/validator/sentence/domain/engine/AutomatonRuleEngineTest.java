@@ -0,0 +1,190 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.parser.latex.Position;
+import cc.redpen.validator.sentence.domain.model.ErrorCap;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AutomatonRuleEngineTest {
+
+    private static List<String> describe(final List<ValidationResult> results) {
+        final List<String> descriptions = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            final StringBuilder description = new StringBuilder(String.valueOf(result.getErrorMessage()));
+            for (final Position position : result.getErrorPositions()) {
+                description.append(' ').append(position.row).append('-').append(position.col);
+            }
+            descriptions.add(description.toString());
+        }
+        return descriptions;
+    }
+
+    @Test
+    public void evaluate_SameAsReference_Test() {
+
+        // arrange
+        final AutomatonRuleEngine engine = AutomatonRuleEngine.create(MSStyleJP.rules);
+        final String[] contents = {
+                "デスﾏｰﾁ",
+                "3 ケ月, 3 ヶ月, 3 カ月, 3 ヵ月 5 ケ, 5 コ",
+                "インタビュする前にコンパイラーを確認します。",
+                "ＮＯＴＥ：第3章 、 45 ° 列 A ( タイトル ) 更新しますか ?",
+                "[ 新規 ] をクリックします。3 / 14 警告 ！ 保存 (S) 10/13(ページ)",
+                "保存しますか?Excelを使用して １つ 1 B 50 % 当社 ご確認ください ファイルが不正です。"
+        };
+
+        for (final String content : contents) {
+            final Sentence sentence = new Sentence(content, 0);
+            final List<ValidationResult> expected = new ArrayList<>();
+            for (final Rule rule : MSStyleJP.rules) {
+                expected.add(rule.apply(sentence));
+            }
+
+            // act
+            final List<ValidationResult> actual = engine.evaluate(sentence);
+
+            // assert
+            assertEquals(content, describe(expected), describe(actual));
+        }
+    }
+
+    @Test
+    public void evaluate_RandomText_SameAsReference_Test() {
+
+        // arrange
+        final AutomatonRuleEngine engine = AutomatonRuleEngine.create(MSStyleJP.rules);
+        final StringBuilder characters = new StringBuilder(" 　0123456789aZ、。ーｦﾃﾞ１Ａあア漢𠮷");
+        final List<Rule> references = new ArrayList<>();
+        for (final Rule rule : MSStyleJP.rules) {
+            if (rule.getErrorPattern() == null) {
+                references.add(rule);
+            } else {
+                references.add(Rule.create(rule.getName(), rule.getGroup(), rule.getErrorPattern()));
+                characters.append(rule.getErrorPattern().getRegex().replace("\\", ""));
+            }
+        }
+        final Random random = new Random(1);
+
+        for (int i = 0; i < 2000; i++) {
+            final StringBuilder content = new StringBuilder();
+            final int length = random.nextInt(40);
+            while (content.length() < length) {
+                final char c = characters.charAt(random.nextInt(characters.length()));
+                final int repeat = random.nextInt(4) == 0 ? 1 + random.nextInt(5) : 1;
+                for (int r = 0; r < repeat; r++) {
+                    content.append(c);
+                }
+            }
+            final Sentence sentence = new Sentence(content.toString(), 0);
+            final List<ValidationResult> expected = new ArrayList<>();
+            for (final Rule reference : references) {
+                expected.add(reference.apply(sentence));
+            }
+
+            // act
+            final List<ValidationResult> actual = engine.evaluate(sentence);
+
+            // assert
+            assertEquals(content.toString(), describe(expected), describe(actual));
+        }
+    }
+
+    @Test
+    public void evaluate_Batch_SameAsEachSentence_Test() {
+
+        // arrange
+        final List<Sentence> sentences = new ArrayList<>();
+        for (final String content : new String[]{
+                "容量は 3",
+                " GB です。ﾃﾞｽｸ",
+                "ﾄｯﾌﾟ ",
+                "",
+                "(タイトル) を確認してください、",
+                "インタビュ",
+                "ーする前に 5 ケ月 ?"
+        }) {
+            sentences.add(new Sentence(content, 0));
+        }
+
+        for (final RuleEngine engine : new RuleEngine[]{
+                AdaptiveRuleEngine.sequential(MSStyleJP.rules),
+                AutomatonRuleEngine.create(MSStyleJP.rules)
+        }) {
+            final List<List<String>> expected = new ArrayList<>();
+            for (final Sentence sentence : sentences) {
+                expected.add(describe(engine.evaluate(sentence)));
+            }
+
+            // act
+            final List<List<String>> actual = new ArrayList<>();
+            for (final List<ValidationResult> results : engine.evaluate(sentences)) {
+                actual.add(describe(results));
+            }
+
+            // assert
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void evaluate_Capped_SameAsReference_Test() {
+
+        final String page = String.join(" ", Collections.nCopies(200, "ﾃﾞｰﾀ 3 ヶ月 ? メモリー"));
+        final List<Rule> capped = new ArrayList<>();
+        final List<Rule> full = new ArrayList<>();
+        for (final Rule rule : MSStyleJP.rules) {
+            capped.add(rule.capped(ErrorCap.create(2)));
+            if (rule.apply(new Sentence(page, 0)).getErrorCount() > 2) {
+                full.add(rule.capped(ErrorCap.create(2)));
+            }
+        }
+
+        // every rule of the second engine fills up, so its scans end early
+        for (final List<Rule> rules : Arrays.asList(capped, full)) {
+
+            // arrange
+            final AutomatonRuleEngine engine = AutomatonRuleEngine.create(rules);
+            final List<Sentence> sentences = new ArrayList<>();
+            for (final String content : new String[]{page, "ﾃﾞｰﾀ ?", page}) {
+                sentences.add(new Sentence(content, 0));
+            }
+
+            final List<List<String>> expected = new ArrayList<>();
+            for (final Sentence sentence : sentences) {
+                final List<ValidationResult> results = new ArrayList<>();
+                for (final Rule rule : rules) {
+                    results.add(rule.apply(sentence));
+                }
+                expected.add(describe(results));
+            }
+
+            // act
+            final List<List<String>> actual = new ArrayList<>();
+            for (final Sentence sentence : sentences) {
+                actual.add(describe(engine.evaluate(sentence)));
+            }
+            final List<List<String>> batch = new ArrayList<>();
+            for (final List<ValidationResult> results : engine.evaluate(sentences)) {
+                batch.add(describe(results));
+            }
+
+            // assert
+            assertEquals(expected, actual);
+            assertEquals(expected, batch);
+        }
+        assertTrue(full.size() > 1);
+    }
+
+}
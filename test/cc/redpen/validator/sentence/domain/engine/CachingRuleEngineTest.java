@@ -0,0 +1,108 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.cache.ResultCache;
+import cc.redpen.validator.sentence.domain.model.MatchBudget;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CachingRuleEngineTest {
+
+    private static final String[] CONTENTS = {
+            "注: 当社の製品をご確認ください。",
+            "3 ヶ月後に ﾃﾞｽｸ (A) を確認します。",
+            "注: 当社の製品をご確認ください。",
+            "",
+            "3 ヶ月後に ﾃﾞｽｸ (A) を確認します。"
+    };
+
+    private static List<String> describe(final List<ValidationResult> results) {
+        final List<String> descriptions = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            final StringBuilder description = new StringBuilder(String.valueOf(result.getErrorMessage()));
+            for (int i = 0; i < result.getErrorCount(); i++) {
+                description.append(' ').append(result.getStart(i)).append('-').append(result.getEnd(i));
+            }
+            descriptions.add(description.toString());
+        }
+        return descriptions;
+    }
+
+    @Test
+    public void evaluate_SameAsEngine_Test() {
+
+        // arrange
+        final RuleEngine reference = AdaptiveRuleEngine.sequential(MSStyleJP.rules);
+        final ResultCache cache = ResultCache.create(64);
+        final CachingRuleEngine engine = CachingRuleEngine.create(reference, cache);
+
+        for (final String content : CONTENTS) {
+            final Sentence sentence = new Sentence(content, 0);
+
+            // act
+            final List<ValidationResult> actual = engine.evaluate(sentence);
+
+            // assert
+            assertEquals(content, describe(reference.evaluate(sentence)), describe(actual));
+        }
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void evaluate_Batch_SameAsEngine_Test() {
+
+        // arrange
+        final RuleEngine reference = AutomatonRuleEngine.create(MSStyleJP.rules);
+        final ResultCache cache = ResultCache.create(64);
+        final CachingRuleEngine engine = CachingRuleEngine.create(reference, cache);
+        engine.evaluate(new Sentence(CONTENTS[1], 0));
+
+        final List<Sentence> sentences = new ArrayList<>();
+        for (final String content : CONTENTS) {
+            sentences.add(new Sentence(content, 0));
+        }
+
+        // act
+        final List<List<ValidationResult>> actual = engine.evaluate(sentences);
+
+        // assert
+        final List<List<ValidationResult>> expected = reference.evaluate(sentences);
+        for (int i = 0; i < sentences.size(); i++) {
+            assertEquals(CONTENTS[i], describe(expected.get(i)), describe(actual.get(i)));
+        }
+        assertEquals(3, cache.getSize());
+    }
+
+    @Test
+    public void evaluate_Skipped_NotCached_Test() {
+
+        // arrange: \d+ (ケ|コ) is quadratic in a run of digits
+        final Rule rule = Rule.create("KatakanaKo", Rule.Group.CHARACTERS, MSStyleJP.Error.Characters.Katakana.KO)
+                .budgeted(MatchBudget.create(10_000, 0));
+        final ResultCache cache = ResultCache.create(64);
+        final CachingRuleEngine engine = CachingRuleEngine.create(AdaptiveRuleEngine.sequential(Collections.singletonList(rule)), cache);
+        final Sentence sentence = new Sentence("3 コと" + String.join("", Collections.nCopies(5000, "1")), 0);
+
+        // act
+        final List<ValidationResult> first = engine.evaluate(sentence);
+        final List<List<ValidationResult>> batch = engine.evaluate(Collections.singletonList(sentence));
+
+        // assert
+        assertTrue(first.get(0).isSkipped());
+        assertEquals(1, first.get(0).getErrorCount());
+        assertTrue(batch.get(0).get(0).isSkipped());
+        assertEquals(1, batch.get(0).get(0).getErrorCount());
+        assertEquals(0, cache.getSize());
+    }
+
+}
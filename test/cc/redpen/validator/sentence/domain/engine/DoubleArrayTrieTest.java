@@ -0,0 +1,66 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class DoubleArrayTrieTest {
+
+    @Test
+    public void match_Longest_Test() {
+
+        // arrange
+        final DoubleArrayTrie trie = DoubleArrayTrie.create(Arrays.asList("一", "一般", "一般的", "十分"));
+        final String content = "一般的な十分さ、一般化、一つ、十";
+
+        // act
+        final List<Integer> lengths = new ArrayList<>();
+        for (int position = 0; position < content.length(); position++) {
+            lengths.add(trie.match(content, position, content.length()));
+        }
+
+        // assert
+        assertEquals("[3, 0, 0, 0, 2, 0, 0, 0, 2, 0, 0, 0, 1, 0, 0, 0]", lengths.toString());
+        assertEquals(1, trie.match(content, 0, 1));
+    }
+
+    @Test
+    public void match_ManyWords_Test() {
+
+        // arrange
+        final Random random = new Random(7);
+        final Set<String> words = new HashSet<>();
+        while (words.size() < 3000) {
+            final char[] word = new char[1 + random.nextInt(5)];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = (char) ('一' + random.nextInt(40));
+            }
+            words.add(new String(word));
+        }
+        final DoubleArrayTrie trie = DoubleArrayTrie.create(words);
+
+        // act & assert
+        for (int i = 0; i < 2000; i++) {
+            final char[] text = new char[8];
+            for (int j = 0; j < text.length; j++) {
+                text[j] = (char) ('一' + random.nextInt(41));
+            }
+            final String content = new String(text);
+            int expected = 0;
+            for (int length = 1; length <= content.length(); length++) {
+                if (words.contains(content.substring(0, length))) {
+                    expected = length;
+                }
+            }
+            assertEquals(content, expected, trie.match(content, 0, content.length()));
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+
+public class MultiPatternMatcherTest {
+
+    private static final List<String> REGEXES = Arrays.asList(
+            "[｡-ﾟ]+",
+            "\\d+ (ケ|ヶ|カ|ヵ)(年|月)",
+            "(ミリ|ミリリットル)[^ー]",
+            "([!-~][^ -~、。]|[^ -~、。][!-~])",
+            "([\\{\\[\\<「] | [\\{\\[\\<「]|[\\}\\]\\>」] | [\\}\\]\\>」])",
+            "a*b?c+"
+    );
+
+    private static List<String> reference(final String content) {
+        final List<String> hits = new ArrayList<>();
+        for (int pattern = 0; pattern < REGEXES.size(); pattern++) {
+            final Matcher matcher = Pattern.compile(REGEXES.get(pattern)).matcher(content);
+            while (matcher.find()) {
+                hits.add(pattern + ":" + matcher.start() + "-" + matcher.end());
+            }
+        }
+        return hits;
+    }
+
+    private static List<String> actual(final String content) {
+        final List<RegexProgram> programs = new ArrayList<>();
+        for (final String regex : REGEXES) {
+            programs.add(RegexProgram.compile(regex));
+        }
+        final List<List<String>> hits = new ArrayList<>();
+        for (final String regex : REGEXES) {
+            hits.add(new ArrayList<>());
+        }
+        MultiPatternMatcher.create(programs).scan(content, (pattern, start, end)
+                -> hits.get(pattern).add(pattern + ":" + start + "-" + end));
+
+        final List<String> flattened = new ArrayList<>();
+        hits.forEach(flattened::addAll);
+        return flattened;
+    }
+
+    @Test
+    public void scan_SameAsRegex_Test() {
+
+        // arrange
+        final String content = "3 ヶ月はﾃﾞｽﾏｰﾁ、5 ミリリットルと [ 新規 ] で第3章 aabcc 😀x";
+
+        // act
+        final List<String> actual = actual(content);
+
+        // assert
+        assertEquals(reference(content), actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_Unsupported_Test() {
+
+        // act
+        RegexProgram.compile("(?<=a)b");
+    }
+
+}
@@ -0,0 +1,156 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.model.ValidationResult;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TextMaskTest {
+
+    private static List<String> spans(final String content, final TextMask.Kind... kinds) {
+        final TextMask mask = TextMask.create(kinds.length == 0 ? EnumSet.allOf(TextMask.Kind.class) : EnumSet.copyOf(Arrays.asList(kinds)));
+        mask.reset(content);
+        final List<String> spans = new ArrayList<>();
+        for (int i = 0; i < mask.size(); i++) {
+            spans.add(content.substring(mask.getStart(i), mask.getEnd(i)));
+        }
+        return spans;
+    }
+
+    @Test
+    public void reset_Urls_Test() {
+
+        // act & assert
+        assertEquals(Arrays.asList("https://example.com/a?b=1"), spans("詳細は https://example.com/a?b=1 を参照してください。"));
+        assertEquals(Arrays.asList("www.example.co.jp"), spans("(www.example.co.jp)をご覧ください。"));
+        assertEquals(Arrays.asList("support@example.com"), spans("support@example.com まで。"));
+        assertEquals(Arrays.asList("https://ja.wikipedia.org/wiki/A_(B)"), spans("https://ja.wikipedia.org/wiki/A_(B)。"));
+    }
+
+    @Test
+    public void reset_Paths_Test() {
+
+        // act & assert
+        assertEquals(Arrays.asList("C:\\Windows\\System32"), spans("C:\\Windows\\System32 を開きます。"));
+        assertEquals(Arrays.asList("C:\\ユーザー\\ドキュメント\\報告.docx"), spans("C:\\ユーザー\\ドキュメント\\報告.docx を開きます。"));
+        assertEquals(Arrays.asList("\\\\server\\共有"), spans("\\\\server\\共有、または"));
+        assertEquals(Arrays.asList("C:\\Windows"), spans("C:\\Windowsフォルダーを開いてください。"));
+        assertEquals(Arrays.asList("C:\\Data\\2024年度\\報告.docx"), spans("C:\\Data\\2024年度\\報告.docx を開きます。"));
+        assertEquals(Arrays.asList("/usr/local/bin"), spans("/usr/local/bin にコピーします。"));
+        assertEquals(Arrays.asList("./config/app.yml"), spans("「./config/app.yml」を編集します。"));
+    }
+
+    @Test
+    public void reset_CodeAndIdentifiers_Test() {
+
+        // act & assert
+        assertEquals(Arrays.asList("`ls -la ｱｲｳ`"), spans("`ls -la ｱｲｳ` を実行します。"));
+        assertEquals(Arrays.asList("max_count", "getValue()"), spans("max_count と getValue() を使います。"));
+        assertEquals(Arrays.asList("--verbose", "java.util.List"), spans("--verbose を付けて java.util.List を読みます。"));
+    }
+
+    @Test
+    public void reset_Prose_Test() {
+
+        // act & assert
+        assertTrue(spans("3/14 に Excel で 10/13(ページ) を開き、(S) を押します。").isEmpty());
+        assertTrue(spans("https://example.com を開きます。", TextMask.Kind.PATHS, TextMask.Kind.CODE).isEmpty());
+        assertTrue(spans("`閉じていない max", TextMask.Kind.CODE).isEmpty());
+    }
+
+    @Test
+    public void overlaps_Test() {
+
+        // arrange
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 70; i++) {
+            content.append('あ');
+        }
+        content.append("/usr/bin");
+        final TextMask mask = TextMask.create(EnumSet.of(TextMask.Kind.PATHS)).reset(content);
+
+        // act & assert
+        assertFalse(mask.overlaps(0, 70));
+        assertTrue(mask.overlaps(69, 71));
+        assertTrue(mask.overlaps(0, 200));
+        assertTrue(mask.isMasked(77));
+        assertFalse(mask.isMasked(78));
+    }
+
+    @Test
+    public void evaluate_Masked_Test() {
+
+        // arrange
+        final String content = "ﾃﾞｽｸの C:\\Program\\ﾃﾞｰﾀ を開きます。";
+        final RuleEngine reference = AutomatonRuleEngine.create(MSStyleJP.rules);
+        final RuleEngine engine = MaskingRuleEngine.create(reference, EnumSet.of(TextMask.Kind.PATHS));
+
+        // act
+        final List<ValidationResult> actual = engine.evaluate(new Sentence(content, 1));
+        final List<List<ValidationResult>> batch = engine.evaluate(Arrays.asList(new Sentence(content, 1), new Sentence("ﾃﾞｰﾀ", 2)));
+
+        // assert
+        final List<String> errors = new ArrayList<>();
+        for (final ValidationResult result : actual) {
+            for (int i = 0; i < result.getErrorCount(); i++) {
+                errors.add(result.getErrorMessage() + " " + content.substring(result.getStart(i), result.getEnd(i)));
+            }
+        }
+        assertEquals(errors.toString(), 1, errors.size());
+        assertTrue(errors.get(0).endsWith(" ﾃﾞｽｸ"));
+        assertEquals(actual.size(), batch.get(0).size());
+        assertTrue(batch.get(1).stream().anyMatch(ValidationResult::isFailed));
+    }
+
+    @Test
+    public void evaluate_ProseNextToSpan_Test() {
+
+        // arrange
+        final RuleEngine reference = AdaptiveRuleEngine.sequential(MSStyleJP.rules);
+        final RuleEngine engine = MaskingRuleEngine.create(reference, EnumSet.allOf(TextMask.Kind.class));
+
+        for (final String content : new String[]{"(https://example.com)を参照", "`ls`xを実行"}) {
+            final Sentence sentence = new Sentence(content, 1);
+            final TextMask mask = TextMask.create(EnumSet.allOf(TextMask.Kind.class)).reset(content);
+
+            // the reference errors that do not touch a span
+            final List<String> expected = new ArrayList<>();
+            for (final ValidationResult result : reference.evaluate(sentence)) {
+                for (int i = 0; i < result.getErrorCount(); i++) {
+                    if (!mask.overlaps(result.getStart(i), result.getEnd(i))) {
+                        expected.add(result.getErrorMessage() + " " + result.getStart(i) + "-" + result.getEnd(i));
+                    }
+                }
+            }
+
+            // act
+            final List<String> actual = errors(engine.evaluate(sentence));
+            final List<String> batch = errors(engine.evaluate(Arrays.asList(sentence, sentence)).get(1));
+
+            // assert
+            assertFalse(content, expected.isEmpty());
+            assertEquals(content, expected, actual);
+            assertEquals(content, expected, batch);
+        }
+    }
+
+    private static List<String> errors(final List<ValidationResult> results) {
+        final List<String> errors = new ArrayList<>();
+        for (final ValidationResult result : results) {
+            for (int i = 0; i < result.getErrorCount(); i++) {
+                errors.add(result.getErrorMessage() + " " + result.getStart(i) + "-" + result.getEnd(i));
+            }
+        }
+        return errors;
+    }
+
+}
@@ -0,0 +1,56 @@
+package cc.redpen.validator.sentence.domain.engine;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WarmUpTest {
+
+    @Test
+    public void readSample_EveryRuleFails_Test() throws IOException {
+
+        // arrange
+        final List<Sentence> sample = WarmUp.readSample();
+        final Set<String> expected = new LinkedHashSet<>();
+        for (final Rule rule : MSStyleJP.rules) {
+            expected.add(rule.getName());
+        }
+
+        // act
+        final Set<String> failed = new LinkedHashSet<>();
+        for (final Sentence sentence : sample) {
+            for (final Rule rule : MSStyleJP.rules) {
+                if (rule.apply(sentence).isFailed()) {
+                    failed.add(rule.getName());
+                }
+            }
+        }
+
+        // assert
+        assertEquals(expected, failed);
+    }
+
+    @Test
+    public void run_AtLeastOneRound_Test() throws IOException {
+
+        // arrange
+        final RuleEngine engine = AutomatonRuleEngine.create(MSStyleJP.rules);
+
+        // act
+        final int rounds = WarmUp.run(engine, 0);
+
+        // assert
+        assertEquals(1, rounds);
+        assertTrue(WarmUp.run(engine, 50) >= 1);
+    }
+
+}
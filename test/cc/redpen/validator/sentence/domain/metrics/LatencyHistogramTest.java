@@ -0,0 +1,66 @@
+package cc.redpen.validator.sentence.domain.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void index_Test() {
+
+        // arrange
+        final long[] values = {0, 1, 15, 16, 17, 31, 32, 1000, 123456789L, Long.MAX_VALUE};
+
+        for (final long value : values) {
+
+            // act
+            final int index = LatencyHistogram.index(value);
+            final long highest = LatencyHistogram.highestValue(index);
+
+            // assert
+            assertTrue(value + " in bucket " + index, index < LatencyHistogram.BUCKETS);
+            if (index < LatencyHistogram.BUCKETS - 1) {
+                assertTrue(value + " <= " + highest, value <= highest);
+                assertTrue(value + " within 6.25% of " + highest, highest - value <= value / 16);
+            }
+        }
+    }
+
+    @Test
+    public void getValueAtPercentile_Test() {
+
+        // arrange
+        final LatencyHistogram histogram = LatencyHistogram.create();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        // act
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // assert
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500500.0, snapshot.getMean(), 0.0);
+        assertEquals(1000000, snapshot.getMax());
+        assertEquals(500000, snapshot.getValueAtPercentile(50), 500000 / 16);
+        assertEquals(990000, snapshot.getValueAtPercentile(99), 990000 / 16);
+    }
+
+    @Test
+    public void reset_Test() {
+
+        // arrange
+        final LatencyHistogram histogram = LatencyHistogram.create();
+        histogram.record(42);
+
+        // act
+        histogram.reset();
+
+        // assert
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(99));
+    }
+
+}
@@ -0,0 +1,90 @@
+package cc.redpen.validator.sentence.domain.metrics;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.engine.AdaptiveRuleEngine;
+import cc.redpen.validator.sentence.domain.engine.AutomatonRuleEngine;
+import cc.redpen.validator.sentence.domain.model.Rule;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    private static List<Rule> metered(final MetricsRegistry registry) {
+        return MSStyleJP.rules
+                .stream()
+                .map(rule -> rule.metered(registry.get(rule.getName())))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void record_Test() {
+
+        // arrange
+        final MetricsRegistry registry = MetricsRegistry.create("record_Test");
+        final AdaptiveRuleEngine engine = AdaptiveRuleEngine.sequential(metered(registry));
+
+        // act
+        engine.evaluate(new Sentence("ﾃﾞｽｸﾄｯﾌﾟ ﾌｫﾙﾀﾞｰ", 0), (rule, start, end) -> {
+        });
+        engine.evaluate(new Sentence("問題はありません。", 0), (rule, start, end) -> {
+        });
+
+        // assert
+        final RuleMetrics katakana = registry.get("Katakana");
+        assertEquals(2, katakana.getInvocations());
+        assertEquals(2, katakana.getMatches());
+        assertEquals(2, katakana.getLatency().snapshot().getCount());
+        assertTrue(registry.dump().contains("Katakana"));
+    }
+
+    @Test
+    public void record_Automaton_Test() {
+
+        // arrange
+        final MetricsRegistry registry = MetricsRegistry.create("record_Automaton_Test");
+        final AutomatonRuleEngine engine = AutomatonRuleEngine.create(metered(registry), registry.get("AutomatonScan"));
+
+        // act
+        engine.evaluate(new Sentence("3 ケ月", 0), (rule, start, end) -> {
+        });
+
+        // assert
+        final RuleMetrics scanned = registry.get("KatakanaKa");
+        assertEquals(1, scanned.getInvocations());
+        assertEquals(1, scanned.getMatches());
+        assertEquals(0, scanned.getLatency().snapshot().getCount());
+        assertEquals(1, registry.get("AutomatonScan").getLatency().snapshot().getCount());
+    }
+
+    @Test
+    public void register_Test() throws Exception {
+
+        // arrange
+        final MetricsRegistry registry = MetricsRegistry.create("register_Test");
+        registry.get("Katakana").record(1, 3, 100);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(
+                "cc.redpen.validator.sentence:type=MSStyleJP,name=\"register_Test\",rule=\"Katakana\"");
+
+        // act
+        registry.register();
+
+        // assert
+        try {
+            assertEquals(3L, server.getAttribute(name, "Matches"));
+        } finally {
+            registry.unregister();
+        }
+        assertEquals(false, server.isRegistered(name));
+    }
+
+}
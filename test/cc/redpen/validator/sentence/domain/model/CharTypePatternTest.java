@@ -0,0 +1,45 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.parser.latex.Position;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CharTypePatternTest {
+
+    private static final String[] CONTENTS = {
+            "デスﾏｰﾁ",
+            "ＮＯＴＥ：［Ａ］１つ",
+            "第3章、Windows 10 の「設定」(S)を開く",
+            "10/13(ページ)x(y) a)b",
+            "😀a あ😀b x😀 \uDE00a \uD83D",
+            ""
+    };
+
+    private static String positions(final ErrorFinder finder, final String content) {
+        final ValidationResult result = ValidationResult.create();
+        finder.findAll(content, result);
+        final List<String> positions = new ArrayList<>();
+        for (final Position position : result.getErrorPositions()) {
+            positions.add(position.row + "-" + position.col);
+        }
+        return positions.toString();
+    }
+
+    private static void assertSameAsRegex(final CharTypePattern pattern, final ErrorPattern reference) {
+        for (final String content : CONTENTS) {
+            assertEquals(content, positions(reference, content), positions(pattern, content));
+        }
+        assertEquals(reference.getErrorMessage(), pattern.getErrorMessage());
+    }
+
+    @Test
+    public void findAll_SpacesParenthesis_Test() {
+        assertSameAsRegex(MSStyleJP.Table.Characters.Spaces.PARENTHESIS, MSStyleJP.Error.Characters.Spaces.PARENTHESIS);
+    }
+
+}
@@ -0,0 +1,139 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.ValidationError;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import cc.redpen.validator.sentence.domain.engine.AdaptiveRuleEngine;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ErrorCapTest {
+
+    // a page of half-width katakana, one error per word
+    private static String page(final int words) {
+        return String.join(" ", Collections.nCopies(words, "ﾃﾞｰﾀ"));
+    }
+
+    /**
+     * Reports every char, and counts those it reached.
+     */
+    private static final class EveryChar implements ErrorFinder {
+
+        private int reached;
+
+        @Override
+        public void findAll(final CharSequence content, final int from, final int to, final PositionSink sink) {
+            for (int i = from; i < to; i++) {
+                reached++;
+                sink.accept(i, i + 1);
+            }
+        }
+
+        @Override
+        public String getErrorMessage() {
+            return "every char";
+        }
+    }
+
+    private static List<ValidationError> validate(final String content, final String... properties) throws RedPenException {
+        final ValidatorConfiguration configuration = new ValidatorConfiguration("MSStyleJP");
+        for (int i = 0; i < properties.length; i += 2) {
+            configuration.addProperty(properties[i], properties[i + 1]);
+        }
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(configuration, Configuration.builder().build());
+        final List<ValidationError> errors = new ArrayList<>();
+        validator.setErrorList(errors);
+        validator.validate(new Sentence(content, 1));
+        validator.validate(new Sentence(content, 2));
+        return errors;
+    }
+
+    @Test
+    public void findAll_StopsPastCap_Test() {
+
+        // arrange
+        final EveryChar finder = new EveryChar();
+        final Rule rule = Rule.create("EveryChar", Rule.Group.CHARACTERS, null, finder).capped(ErrorCap.create(5));
+
+        // act
+        final ValidationResult result = rule.apply(new Sentence(page(1000), 0));
+
+        // assert: one more than the cap, so that the caller sees there were more
+        assertEquals(6, result.getErrorCount());
+        assertEquals(6, finder.reached);
+        assertFalse(result.isSkipped());
+    }
+
+    @Test
+    public void findAll_Batch_CapsEachSentence_Test() {
+
+        // arrange
+        final EveryChar finder = new EveryChar();
+        final Rule rule = Rule.create("EveryChar", Rule.Group.CHARACTERS, null, finder).capped(ErrorCap.create(2));
+        final AdaptiveRuleEngine engine = AdaptiveRuleEngine.sequential(Collections.singletonList(rule));
+
+        // act
+        final List<List<ValidationResult>> results = engine.evaluate(Arrays.asList(
+                new Sentence(page(100), 0),
+                new Sentence("ab", 1),
+                new Sentence(page(100), 2)
+        ));
+
+        // assert
+        assertEquals(3, results.get(0).get(0).getErrorCount());
+        assertEquals(2, results.get(1).get(0).getErrorCount());
+        assertEquals(3, results.get(2).get(0).getErrorCount());
+        assertEquals(8, finder.reached);
+    }
+
+    @Test
+    public void capped_Unlimited_Test() {
+
+        // arrange
+        final Rule rule = Rule.create("EveryChar", Rule.Group.CHARACTERS, null, new EveryChar());
+
+        // act & assert
+        assertNull(ErrorCap.create(0));
+        assertSame(rule, rule.capped(null));
+    }
+
+    @Test
+    public void validate_Caps_Test() throws RedPenException {
+
+        // act
+        final List<ValidationError> uncapped = validate(page(50), "enabled_rules", "Katakana");
+        final List<ValidationError> rule = validate(page(50), "enabled_rules", "Katakana", "max_errors_per_rule", "3");
+        final List<ValidationError> sentence = validate(page(50), "max_errors_per_sentence", "4");
+        final List<ValidationError> document = validate(page(50), "enabled_rules", "Katakana", "max_errors_per_rule", "3",
+                "max_errors_per_document", "6");
+
+        // assert
+        assertEquals(100, uncapped.size());
+
+        assertEquals(8, rule.size());
+        assertEquals("Stopped checking Katakana after 3 errors in the sentence.", rule.get(3).getMessage());
+        assertFalse(rule.get(3).getStartPosition().isPresent());
+        assertEquals(2, rule.get(7).getLineNumber());
+
+        assertEquals(10, sentence.size());
+        assertEquals("Stopped reporting errors after 4 in the sentence.", sentence.get(4).getMessage());
+
+        assertEquals(7, document.size());
+        assertEquals("Stopped reporting errors after 6 in the document.", document.get(6).getMessage());
+        assertEquals(2, document.get(6).getLineNumber());
+    }
+
+}
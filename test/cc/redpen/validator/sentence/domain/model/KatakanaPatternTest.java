@@ -0,0 +1,98 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.parser.latex.Position;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import static org.junit.Assert.assertEquals;
+
+public class KatakanaPatternTest {
+
+    private static final String CORPUS = "3 ヶ月、12 カ月、5 ケ年、1 2 コ、7 コンピューター、8 ヵ年、9 カ。"
+            + "セキュリティポリシ。ポリシー、ヒーロ、アウトドアー、プロセッサー、ドルー、バリア、ポリシ𠮷";
+
+    private static String positions(final ValidationResult result) {
+        final List<String> positions = new ArrayList<>();
+        for (final Position position : result.getErrorPositions()) {
+            positions.add(position.row + "-" + position.col);
+        }
+        return positions.toString();
+    }
+
+    private static String reference(final ErrorPattern pattern, final String content) {
+        final ValidationResult result = ValidationResult.create();
+        final Matcher matcher = pattern.getErrorPattern().matcher(content);
+        while (matcher.find()) {
+            result.addErrorPosition(matcher.start(), matcher.end());
+        }
+        return positions(result);
+    }
+
+    private static String actual(final ErrorFinder finder, final String content) {
+        final ValidationResult result = ValidationResult.create();
+        finder.findAll(content, result);
+        return positions(result);
+    }
+
+    @Test
+    public void findAll_Counter_Test() {
+
+        // arrange
+        final String content = CORPUS;
+
+        // act
+        final String ka = actual(MSStyleJP.Runs.Characters.Katakana.KA, content);
+        final String ko = actual(MSStyleJP.Runs.Characters.Katakana.KO, content);
+
+        // assert
+        assertEquals(reference(MSStyleJP.Error.Characters.Katakana.KA, content), ka);
+        assertEquals(reference(MSStyleJP.Error.Characters.Katakana.KO, content), ko);
+        assertEquals("[0-4, 5-10, 11-15, 32-36]", ka);
+    }
+
+    @Test
+    public void findAll_Lexicon_Test() {
+
+        // arrange
+        final String content = CORPUS;
+
+        // act
+        final String use = actual(MSStyleJP.Runs.Characters.LongVowel.EXCEPTION_USE, content);
+        final String notUse = actual(MSStyleJP.Runs.Characters.LongVowel.EXCEPTION_NOT_USE, content);
+
+        // assert
+        assertEquals(reference(MSStyleJP.Error.Characters.LongVowel.EXCEPTION_USE, content), use);
+        assertEquals(reference(MSStyleJP.Error.Characters.LongVowel.EXCEPTION_NOT_USE, content), notUse);
+    }
+
+    @Test
+    public void findAll_LongVowel_Test() {
+
+        // arrange
+        final String content = "メモリーとディレクトリー、コピーとツリー、メニュー、ポリシー、サーバとユーザ、プロセッサ、データ、アーキテクチャ、マネージャ";
+
+        // act
+        final String actual = actual(MSStyleJP.Runs.Characters.LongVowel.GENERAL, content);
+
+        // assert
+        assertEquals("[0-4, 5-12]", actual);
+    }
+
+    @Test
+    public void findAll_LongVowel_LoanwordsEndingWithA_Test() {
+
+        // arrange
+        final String content = "コロナ、テーマ、ヨーロッパ、シネマ、マンガ、アンテナ、レプリカ、アリーナ、インフルエンザ、タナカ、データ、カメラ、アジェンダ、プロパガンダ";
+
+        // act
+        final String actual = actual(MSStyleJP.Runs.Characters.LongVowel.GENERAL, content);
+
+        // assert
+        assertEquals("[]", actual);
+    }
+
+}
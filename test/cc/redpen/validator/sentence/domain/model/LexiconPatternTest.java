@@ -0,0 +1,138 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.parser.latex.Position;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern.Prefix;
+import cc.redpen.validator.sentence.domain.model.LexiconPattern.Suffix;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import static org.junit.Assert.assertEquals;
+
+public class LexiconPatternTest {
+
+    private static String positions(final ValidationResult result) {
+        final List<String> positions = new ArrayList<>();
+        for (final Position position : result.getErrorPositions()) {
+            positions.add(position.row + "-" + position.col);
+        }
+        return positions.toString();
+    }
+
+    private static String reference(final LexiconPattern lexicon, final String content) {
+        final ValidationResult result = ValidationResult.create();
+        final Matcher matcher = ErrorPattern.create(lexicon).getErrorPattern().matcher(content);
+        while (matcher.find()) {
+            result.addErrorPosition(matcher.start(), matcher.end());
+        }
+        return positions(result);
+    }
+
+    private static String actual(final LexiconPattern lexicon, final String content) {
+        final ValidationResult result = ValidationResult.create();
+        lexicon.findAll(content, result);
+        return positions(result);
+    }
+
+    @Test
+    public void findAll_Suffix_Test() {
+
+        // arrange
+        final LexiconPattern lexicon = LexiconPattern.create(Prefix.NONE, Suffix.NOT_LONG_VOWEL, "", "パス", "パススル", "スル");
+        final String content = "パススルー、パススルする、パス";
+
+        // act
+        final String actual = actual(lexicon, content);
+
+        // assert
+        assertEquals(reference(lexicon, content), actual);
+        assertEquals("[0-3, 6-9]", actual);
+    }
+
+    @Test
+    public void findAll_LongVowel_Test() {
+
+        // arrange
+        final LexiconPattern lexicon = LexiconPattern.create(Prefix.NONE, Suffix.LONG_VOWEL, "", "ドア", "アウトドア", "ドル");
+        final String content = "アウトドアー、ドルー、ドア";
+
+        // act
+        final String actual = actual(lexicon, content);
+
+        // assert
+        assertEquals(reference(lexicon, content), actual);
+        assertEquals("[0-6, 7-10]", actual);
+    }
+
+    @Test
+    public void findAll_Number_Test() {
+
+        // arrange
+        final LexiconPattern lexicon = LexiconPattern.create(Prefix.NUMBER, Suffix.NONE, "", "ミリ", "ミリリットル", "B", "b");
+        final String content = "容量 128 B、長さ 5 ミリリットル、x 12 b 3 B、5ミリ、 ミリ";
+
+        // act
+        final String actual = actual(lexicon, content);
+
+        // assert
+        assertEquals(reference(lexicon, content), actual);
+        assertEquals("[3-8, 12-16, 23-27, 28-31]", actual);
+    }
+
+    @Test
+    public void findAll_Priority_Test() {
+
+        // arrange
+        final LexiconPattern lexicon = LexiconPattern.create("", "当社", "当社製", "社製品");
+        final String content = "当社製品と当社";
+
+        // act
+        final String actual = actual(lexicon, content);
+
+        // assert
+        assertEquals(reference(lexicon, content), actual);
+        assertEquals("[0-2, 5-7]", actual);
+    }
+
+    @Test
+    public void findAll_Batch_Test() {
+
+        // arrange
+        final LexiconPattern lexicon = LexiconPattern.create(Prefix.NONE, Suffix.NOT_LONG_VOWEL, "", "パス", "スル");
+        final List<Sentence> sentences = Arrays.asList(
+                new Sentence("パス", 0),
+                new Sentence("スルパスー", 0),
+                new Sentence("パスです", 0)
+        );
+        final TextBatch batch = TextBatch.create().reset(sentences);
+        final List<String> positions = new ArrayList<>();
+
+        // act
+        lexicon.findAll(batch, (sentence, start, end) -> positions.add(sentence + ":" + start + "-" + end));
+
+        // assert
+        assertEquals("[1:0-3, 2:0-3]", positions.toString());
+    }
+
+    @Test
+    public void findAll_AfterLongText_Test() {
+
+        // arrange: the long text grows the scratch past what a thread keeps
+        final LexiconPattern lexicon = LexiconPattern.create(Prefix.NONE, Suffix.NOT_LONG_VOWEL, "", "パス", "スル");
+        final String longText = String.join("", Collections.nCopies(5000, "あ")) + "パスです";
+
+        // act
+        final String afterLong = actual(lexicon, longText);
+        final String afterShort = actual(lexicon, "スルパスー");
+
+        // assert
+        assertEquals(reference(lexicon, longText), afterLong);
+        assertEquals(reference(lexicon, "スルパスー"), afterShort);
+    }
+
+}
@@ -0,0 +1,105 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.sentence.domain.engine.AdaptiveRuleEngine;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MatchBudgetTest {
+
+    // \d+ (ケ|コ) retries the whole digit run from every digit: quadratic in its length
+    private static String pathological(final int digits) {
+        return "3 コの項目と" + String.join("", Collections.nCopies(digits, "1"));
+    }
+
+    private static Rule katakanaKo(final MatchBudget budget) {
+        return Rule.create("KatakanaKo", Rule.Group.CHARACTERS, MSStyleJP.Error.Characters.Katakana.KO).budgeted(budget);
+    }
+
+    @Test
+    public void findAll_StepsExceeded_Test() {
+
+        // arrange
+        final Rule rule = katakanaKo(MatchBudget.create(100_000, 0));
+
+        // act
+        final ValidationResult result = rule.apply(new Sentence(pathological(20_000), 0));
+
+        // assert: the error before the digits is kept
+        assertTrue(result.isSkipped());
+        assertEquals(1, result.getErrorCount());
+        assertEquals(0, result.getStart(0));
+        assertEquals(3, result.getEnd(0));
+    }
+
+    @Test
+    public void findAll_TimeExceeded_Test() {
+
+        // arrange
+        final Rule rule = katakanaKo(MatchBudget.create(0, 1));
+
+        // act
+        final ValidationResult result = rule.apply(new Sentence(pathological(200_000), 0));
+
+        // assert
+        assertTrue(result.isSkipped());
+    }
+
+    @Test
+    public void findAll_WithinBudget_Test() {
+
+        // arrange
+        final Rule rule = katakanaKo(MatchBudget.create(100_000, 1000));
+
+        // act
+        final ValidationResult result = rule.apply(new Sentence(pathological(100), 0));
+
+        // assert
+        assertFalse(result.isSkipped());
+        assertEquals(1, result.getErrorCount());
+    }
+
+    @Test
+    public void findAll_Batch_SkipsOnlyExceedingSentence_Test() {
+
+        // arrange
+        final AdaptiveRuleEngine engine = AdaptiveRuleEngine.sequential(Collections.singletonList(katakanaKo(MatchBudget.create(100_000, 0))));
+        final List<Sentence> sentences = Arrays.asList(
+                new Sentence("5 コの項目", 0),
+                new Sentence(pathological(20_000), 1),
+                new Sentence("5 コの項目", 2)
+        );
+
+        // act
+        final List<List<ValidationResult>> results = engine.evaluate(sentences);
+
+        // assert
+        assertFalse(results.get(0).get(0).isSkipped());
+        assertTrue(results.get(1).get(0).isSkipped());
+        assertFalse(results.get(2).get(0).isSkipped());
+        assertEquals(1, results.get(2).get(0).getErrorCount());
+        assertEquals(0, results.get(2).get(0).getStart(0));
+    }
+
+    @Test
+    public void budgeted_LinearFinder_Test() {
+
+        // arrange
+        final Rule table = MSStyleJP.rules.stream().filter(rule -> rule.getName().equals("Katakana")).findFirst().get();
+
+        // act & assert
+        assertSame(table, table.budgeted(MatchBudget.create(100, 0)));
+        assertNull(MatchBudget.create(0, 0));
+    }
+
+}
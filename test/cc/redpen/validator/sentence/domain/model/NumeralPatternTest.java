@@ -0,0 +1,62 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.parser.latex.Position;
+import cc.redpen.validator.sentence.domain.engine.CodePointTable;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import static org.junit.Assert.assertEquals;
+
+public class NumeralPatternTest {
+
+    private static String positions(final ValidationResult result) {
+        final List<String> positions = new ArrayList<>();
+        for (final Position position : result.getErrorPositions()) {
+            positions.add(position.row + "-" + position.col);
+        }
+        return positions.toString();
+    }
+
+    private static String actual(final ErrorFinder finder, final String content) {
+        final ValidationResult result = ValidationResult.create();
+        finder.findAll(content, result);
+        return positions(result);
+    }
+
+    @Test
+    public void findAll_NoExpressions_Test() {
+
+        // arrange
+        final NumeralPattern numerals = NumeralPattern.create("", CharTypePattern.Type.of(CodePointTable.CHINESE_NUMERAL));
+        final String content = "一時間十五分、二百五十六色、一般、〇";
+        final ValidationResult reference = ValidationResult.create();
+        final Matcher matcher = MSStyleJP.Error.Numbers.CHINESE_NUMERALS.getErrorPattern().matcher(content);
+        while (matcher.find()) {
+            reference.addErrorPosition(matcher.start(), matcher.end());
+        }
+
+        // act
+        final String actual = actual(numerals, content);
+
+        // assert
+        assertEquals(positions(reference), actual);
+    }
+
+    @Test
+    public void findAll_Expressions_Test() {
+
+        // arrange
+        final String content = "一般に十分な、三十分、一時的に一時間、四捨五入、統一して二乗";
+
+        // act
+        final String actual = actual(MSStyleJP.Lexicon.Numbers.CHINESE_NUMERALS, content);
+
+        // assert
+        assertEquals("[7-9, 15-16, 28-29]", actual);
+    }
+
+}
@@ -0,0 +1,64 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class RuleSelectionTest {
+
+    private static List<String> names(final List<Rule> rules) {
+        return rules.stream().map(Rule::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    public void select_All_Test() {
+
+        // act
+        final List<Rule> selected = RuleSelection.select(MSStyleJP.rules, Collections.emptySet(), Collections.emptySet());
+
+        // assert
+        assertEquals(names(MSStyleJP.rules), names(selected));
+    }
+
+    @Test
+    public void select_Group_Test() {
+
+        // act
+        final List<Rule> selected = RuleSelection.select(
+                MSStyleJP.rules,
+                Arrays.asList("Tone", "frequent_errors"),
+                Collections.singletonList("TonePoliteExpression")
+        );
+
+        // assert
+        assertEquals(Arrays.asList("ToneHumbleExpression", "FrequentErrorsFusei"), names(selected));
+    }
+
+    @Test
+    public void select_Disabled_Test() {
+
+        // act
+        final List<Rule> selected = RuleSelection.select(
+                MSStyleJP.rules,
+                Collections.emptySet(),
+                Arrays.asList("Spaces", "Characters", "Numbers", "FrequentErrors", "ToneHumbleExpression")
+        );
+
+        // assert
+        assertEquals(Collections.singletonList("TonePoliteExpression"), names(selected));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void select_Unknown_Test() {
+
+        // act
+        RuleSelection.select(MSStyleJP.rules, Collections.singletonList("Kanji"), Collections.emptySet());
+    }
+
+}
@@ -0,0 +1,93 @@
+package cc.redpen.validator.sentence.domain.model;
+
+import cc.redpen.model.Sentence;
+import cc.redpen.parser.latex.Position;
+import cc.redpen.validator.sentence.domain.style.MSStyleJP;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ScriptPatternTest {
+
+    private static final String[] CONTENTS = {
+            "デスﾏｰﾁ",
+            "ＮＯＴＥ：［Ａ］１つ",
+            "第3章、Windows 10 の「設定」(S)を開く",
+            "aあbいcう、x\tyＡ１ｚ",
+            "😀a あ😀b x😀 \uDE00a \uD83D",
+            ""
+    };
+
+    private static String positions(final ErrorFinder finder, final String content) {
+        final ValidationResult result = ValidationResult.create();
+        finder.findAll(content, result);
+        final List<String> positions = new ArrayList<>();
+        for (final Position position : result.getErrorPositions()) {
+            positions.add(position.row + "-" + position.col);
+        }
+        return positions.toString();
+    }
+
+    /**
+     * Each content alone, then all of them as one batch whose runs cross the sentence boundaries.
+     */
+    private static void assertSameAsRegex(final ScriptPattern pattern, final ErrorPattern reference) {
+        final List<Sentence> sentences = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for (final String content : CONTENTS) {
+            assertEquals(content, positions(reference, content), positions(pattern, content));
+            sentences.add(new Sentence(content, 1));
+            reference.findAll(content, (start, end) -> expected.add(sentences.size() - 1 + ":" + start + "-" + end));
+        }
+        final TextBatch batch = TextBatch.create().reset(sentences);
+        final List<String> actual = new ArrayList<>();
+        pattern.findAll(batch, (sentence, start, end) -> actual.add(sentence + ":" + start + "-" + end));
+        assertEquals(expected, actual);
+        assertEquals(reference.getErrorMessage(), pattern.getErrorMessage());
+    }
+
+    @Test
+    public void findAll_Katakana_Test() {
+        assertSameAsRegex(MSStyleJP.Scripts.Characters.Katakana.HALF_WIDTH, MSStyleJP.Error.Characters.Katakana.HALF_WIDTH);
+    }
+
+    @Test
+    public void findAll_EnglishLetters_Test() {
+        assertSameAsRegex(MSStyleJP.Scripts.Characters.EnglishLetters.FULL_WIDTH, MSStyleJP.Error.Characters.EnglishLetters.FULL_WIDTH);
+    }
+
+    @Test
+    public void findAll_SpacesFullHalf_Test() {
+        assertSameAsRegex(MSStyleJP.Scripts.Characters.Spaces.FULL_HALF, MSStyleJP.Error.Characters.Spaces.FULL_HALF);
+    }
+
+    @Test
+    public void findAll_ArabicNumeralsFull_Test() {
+        assertSameAsRegex(MSStyleJP.Scripts.Numbers.ARABIC_NUMERALS_FULL, MSStyleJP.Error.Numbers.ARABIC_NUMERALS_FULL);
+    }
+
+    @Test
+    public void findAll_SharedIndex_Test() {
+
+        // arrange
+        final String content = "ﾃｽﾄ：Ｗｉｎｄｏｗｓ１０を使うa";
+        final List<String> actual = new ArrayList<>();
+
+        // act
+        for (final ScriptPattern pattern : Arrays.asList(
+                MSStyleJP.Scripts.Characters.Katakana.HALF_WIDTH,
+                MSStyleJP.Scripts.Characters.EnglishLetters.FULL_WIDTH,
+                MSStyleJP.Scripts.Characters.Spaces.FULL_HALF,
+                MSStyleJP.Scripts.Numbers.ARABIC_NUMERALS_FULL)) {
+            actual.add(positions(pattern, content));
+        }
+
+        // assert
+        assertEquals("[[0-3], [4-13], [15-17], [11-13]]", actual.toString());
+    }
+
+}
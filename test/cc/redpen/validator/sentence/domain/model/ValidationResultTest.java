@@ -33,4 +33,39 @@ public class ValidationResultTest {
         assertEquals(true, isSucceed);
     }
 
+    @Test
+    public void addErrorPosition() {
+
+        // arrange
+        ValidationResult result = ValidationResult.create();
+
+        // act
+        for (int i = 0; i < 10; i++) {
+            result.addErrorPosition(i, i + 2);
+        }
+
+        // assert
+        assertEquals(10, result.getErrorCount());
+        assertEquals(9, result.getStart(9));
+        assertEquals(11, result.getEnd(9));
+        assertEquals(9, result.getErrorPositions().get(9).row);
+        assertEquals(11, result.getErrorPositions().get(9).col);
+    }
+
+    @Test
+    public void clear() {
+
+        // arrange
+        ValidationResult result = ValidationResult.create();
+        result.addErrorPosition(0, 1);
+        result.setErrorMessage("error");
+
+        // act
+        result.clear();
+
+        // assert
+        assertEquals(true, result.isSucceed());
+        assertEquals(null, result.getErrorMessage());
+    }
+
 }
@@ -70,6 +70,19 @@ public class MSStyleJPTest implements MSStyleJP {
         assertEquals(true, actual);
     }
 
+    @Test
+    public void validateLongVowel_Failed_Test() {
+
+        // arrange
+        final Sentence ngData = new Sentence("メモリーを確保する", 0);
+
+        // act
+        final boolean actual = validateLongVowel.apply(ngData).isFailed();
+
+        // assert
+        assertEquals(true, actual);
+    }
+
     @Test
     public void validateLongVowelExceptionUse_Failed_Test() {
 
@@ -0,0 +1,110 @@
+package cc.redpen.validator.sentence.runner;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.model.Document;
+import cc.redpen.model.Section;
+import cc.redpen.model.Sentence;
+import cc.redpen.validator.ValidationError;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentRunnerTest {
+
+    private static final String[] CONTENTS = {
+            "当社の製品をご確認ください。",
+            "3 ヶ月後に ﾃﾞｽｸ (A) を確認します。",
+            "設定を変更します。",
+            "ﾌｧｲﾙを保存しましょう。"
+    };
+
+    private static List<Document> documents() {
+        final List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final Document.DocumentBuilder builder = Document.builder().setFileName("doc" + i + ".md");
+            for (int section = 0; section <= i % 4; section++) {
+                builder.addSection(1).addParagraph();
+                for (int sentence = 0; sentence < 5; sentence++) {
+                    builder.addSentence(new Sentence(CONTENTS[(i + section + sentence) % CONTENTS.length], sentence + 1));
+                }
+            }
+            documents.add(builder.build());
+        }
+        return documents;
+    }
+
+    private static List<String> describe(final List<ValidationError> errors) {
+        final List<String> descriptions = new ArrayList<>();
+        for (final ValidationError error : errors) {
+            descriptions.add(error.getSentence().getContent() + " " + error.getStartPosition().map(position -> String.valueOf(position.offset)).orElse("-") + " "
+                    + error.getMessage());
+        }
+        return descriptions;
+    }
+
+    @Test
+    public void validate_SameAsSequential_Test() throws RedPenException {
+        assertSameAsSequential(new ValidatorConfiguration("MSStyleJP").addProperty("engine", "automaton"));
+    }
+
+    @Test
+    public void validate_DocumentCap_SameAsSequential_Test() throws RedPenException {
+        assertSameAsSequential(new ValidatorConfiguration("MSStyleJP").addProperty("max_errors_per_document", "7"));
+    }
+
+    private static void assertSameAsSequential(final ValidatorConfiguration configuration) throws RedPenException {
+
+        // arrange
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(configuration, Configuration.builder().build());
+        final List<Document> documents = documents();
+
+        final List<List<String>> expected = new ArrayList<>();
+        for (final Document document : documents) {
+            final List<ValidationError> errors = new ArrayList<>();
+            validator.setErrorList(errors);
+            for (final Section section : document) {
+                for (final Sentence sentence : MSStyleJPValidator.sentencesOf(section)) {
+                    validator.validate(sentence);
+                }
+            }
+            expected.add(describe(errors));
+        }
+
+        for (final int parallelism : new int[]{1, 4}) {
+            try (DocumentRunner runner = DocumentRunner.create(configuration, parallelism)) {
+
+                // act
+                final List<List<ValidationError>> actual = runner.validate(documents);
+
+                // assert
+                assertEquals(parallelism, runner.getParallelism());
+                assertEquals(documents.size(), actual.size());
+                for (int i = 0; i < documents.size(); i++) {
+                    assertEquals(expected.get(i), describe(actual.get(i)));
+                }
+            }
+        }
+        assertTrue(expected.get(0).size() > 0);
+    }
+
+    @Test
+    public void validate_NoDocuments_Test() throws RedPenException {
+
+        // arrange
+        try (DocumentRunner runner = DocumentRunner.create(new ValidatorConfiguration("MSStyleJP"), 2)) {
+
+            // act & assert
+            assertEquals(Collections.emptyList(), runner.validate(Collections.<Document>emptyList()));
+        }
+    }
+
+}
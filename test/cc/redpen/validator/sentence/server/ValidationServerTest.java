@@ -0,0 +1,252 @@
+package cc.redpen.validator.sentence.server;
+
+import cc.redpen.RedPenException;
+import cc.redpen.config.Configuration;
+import cc.redpen.config.ValidatorConfiguration;
+import cc.redpen.validator.sentence.MSStyleJPValidator;
+import cc.redpen.validator.sentence.domain.metrics.LatencyHistogram;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ValidationServerTest {
+
+    private static final String COMPANY = "{\"offset\":0,\"length\":2,\"rule\":\"ToneHumbleExpression\","
+            + "\"message\":\"In materials in which “supplier-customer” relationship should be considered, use 弊社.\"}";
+
+    private static final String POLITE = "{\"offset\":%d,\"length\":7,\"rule\":\"TonePoliteExpression\","
+            + "\"message\":\"Do not use excessively polite expression unless necessary.\"}";
+
+    private ValidationServer server;
+
+    private static MSStyleJPValidator validator() throws RedPenException {
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(
+                new ValidatorConfiguration("MSStyleJP").addProperty("enabled_rules", "Tone"),
+                Configuration.builder().build()
+        );
+        return validator;
+    }
+
+    @Before
+    public void setUp() throws IOException, RedPenException {
+        server = ValidationServer.create(validator(), 0, ValidationServer.newBoundedExecutor(2));
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private static final class Response {
+
+        private final int status;
+        private final String body;
+
+        private Response(final int status, final String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private Response request(final String method, final String path, final String body) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        final int status = connection.getResponseCode();
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                response.write(buffer, 0, read);
+            }
+        }
+        return new Response(status, new String(response.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void validate_Test() throws IOException {
+
+        // act
+        final Response response = request("POST", "/validate", "当社の製品です。ご確認ください。");
+
+        // assert
+        assertEquals(200, response.status);
+        assertEquals("[" + COMPANY + "," + String.format(POLITE, 8) + "]", response.body);
+    }
+
+    @Test
+    public void validate_ValidationPool_Test() throws IOException, RedPenException {
+
+        // arrange: short-lived request threads, as virtual threads are
+        server.close();
+        server = ValidationServer.create(validator(), 0, Executors.newCachedThreadPool(), ValidationServer.newBoundedExecutor(1));
+
+        // act
+        final Response response = request("POST", "/validate", "当社の製品です。ご確認ください。");
+        final Response batch = request("POST", "/validate/batch", "[\"当社");
+
+        // assert
+        assertEquals(200, response.status);
+        assertEquals("[" + COMPANY + "," + String.format(POLITE, 8) + "]", response.body);
+        assertEquals(400, batch.status);
+    }
+
+    /**
+     * Keeps the worker of a one-thread bounded executor busy and fills its queue, until the latch is released.
+     */
+    private static ExecutorService saturated(final CountDownLatch release) {
+        final ExecutorService executor = ValidationServer.newBoundedExecutor(1);
+        try {
+            while (true) {
+                executor.execute(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        } catch (RejectedExecutionException e) {
+            return executor;
+        }
+    }
+
+    @Test
+    public void validate_Busy_Test() throws IOException, RedPenException {
+
+        // arrange
+        server.close();
+        final CountDownLatch release = new CountDownLatch(1);
+        server = ValidationServer.create(validator(), 0, saturated(release));
+
+        try {
+            // act
+            final Response response = request("POST", "/validate", "当社の製品です。");
+
+            // assert: answered without waiting for a worker
+            assertEquals(503, response.status);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void validate_ValidationPoolBusy_Test() throws IOException, RedPenException {
+
+        // arrange
+        server.close();
+        final CountDownLatch release = new CountDownLatch(1);
+        server = ValidationServer.create(validator(), 0, Executors.newCachedThreadPool(), saturated(release));
+
+        try {
+            // act
+            final Response response = request("POST", "/validate", "当社の製品です。");
+
+            // assert
+            assertEquals(503, response.status);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void validateBatch_Test() throws IOException {
+
+        // act
+        final Response response = request("POST", "/validate/batch", "[\"当社の製品です。\", \"設定を変更します。\", \"ご確認ください。\"]");
+
+        // assert
+        assertEquals(200, response.status);
+        assertEquals("[[" + COMPANY + "],[],[" + String.format(POLITE, 0) + "]]", response.body);
+    }
+
+    @Test
+    public void validate_Skipped_Test() throws IOException, RedPenException {
+
+        // arrange: every sentence exceeds a budget of one char
+        server.close();
+        final MSStyleJPValidator validator = new MSStyleJPValidator();
+        validator.preInit(
+                new ValidatorConfiguration("MSStyleJP").addProperty("enabled_rules", "SpacesComma").addProperty("match_steps", "1"),
+                Configuration.builder().build()
+        );
+        server = ValidationServer.create(validator, 0, ValidationServer.newBoundedExecutor(2));
+
+        // act
+        final Response response = request("POST", "/validate", "設定を変更します。");
+
+        // assert
+        assertEquals(200, response.status);
+        assertEquals("[{\"skipped\":true,\"rule\":\"SpacesComma\","
+                + "\"message\":\"Skipped SpacesComma: the sentence exceeds its matching budget.\"}]", response.body);
+    }
+
+    @Test
+    public void errors_Test() throws IOException {
+
+        // act & assert
+        assertEquals(400, request("POST", "/validate/batch", "[\"当社").status);
+        assertEquals(405, request("GET", "/validate", null).status);
+        assertEquals(404, request("POST", "/validate/other", "当社").status);
+        assertEquals(200, request("GET", "/health", null).status);
+    }
+
+    @Test
+    public void validate_TooLarge_Test() throws IOException {
+
+        // arrange: only the headers, as the server answers before reading the body
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.getOutputStream().write(("POST /validate HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+                    + (ValidationServer.MAX_BODY + 1) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+            // act
+            final String statusLine = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII)).readLine();
+
+            // assert
+            assertEquals("HTTP/1.1 413 Request Entity Too Large", statusLine);
+        }
+    }
+
+    @Test
+    public void loadTestClient_Test() throws IOException, InterruptedException {
+
+        // arrange
+        final LoadTestClient client = LoadTestClient.create(
+                new URL("http://127.0.0.1:" + server.getPort() + "/validate/batch"), "当社の製品です。", 8);
+        final LatencyHistogram latency = LatencyHistogram.create();
+
+        // act
+        client.run(200, latency);
+
+        // assert
+        assertEquals(0, client.getFailures());
+        assertEquals(200, latency.snapshot().getCount());
+    }
+
+}